@@ -0,0 +1,76 @@
+package com.example.financetracker.benchmarks;
+
+import com.example.financetracker.ExpenseAggregates;
+import com.example.financetracker.ExpenseFilter;
+import com.example.financetracker.ExpenseRepository;
+import com.example.financetracker.ExpenseStore;
+import com.example.financetracker.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// the totals behind the expense screen's chart: a GROUP BY over the raw Expenses rows (what updateChart used to run
+// after every change), the same over the MonthlySpend rollup (what loadAggregates runs once), a loop over the
+// columnar ExpenseStore, and the delta update updateChart does now
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class AggregationBenchmark {
+    // starts on the 2nd, so loadCategoryTotals can't answer from the rollup and sums Expenses instead
+    private static final ExpenseFilter WHOLE_HISTORY_FROM_EXPENSES =
+            ExpenseFilter.between(LocalDate.of(2000, 1, 2), LocalDate.of(2100, 1, 1));
+
+    private final ExpenseRepository expenseRepository = new ExpenseRepository();
+    private final Money amount = Money.ofPence(450);
+    private int userId;
+    private ExpenseStore store;
+    private ExpenseAggregates aggregates;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) throws SQLException {
+        userId = database.userId;
+        store = expenseRepository.loadStore(userId);
+        aggregates = expenseRepository.loadAggregates(userId, YearMonth.now());
+    }
+
+    @Benchmark
+    public Map<String, Money> groupByExpenses() throws SQLException {
+        return expenseRepository.loadCategoryTotals(userId, WHOLE_HISTORY_FROM_EXPENSES);
+    }
+
+    @Benchmark
+    public ExpenseAggregates groupByRollup() throws SQLException {
+        return expenseRepository.loadAggregates(userId, YearMonth.now());
+    }
+
+    @Benchmark
+    public Map<String, Long> inMemoryStore() {
+        return store.totalsByCategoryInPence();
+    }
+
+    // one add and its undo, so the totals stay the same from one call to the next
+    @Benchmark
+    public Map<String, Money> deltaUpdate() {
+        LocalDate today = LocalDate.now();
+        aggregates.add("Food", amount, today);
+        aggregates.remove("Food", amount, today);
+        return aggregates.categoryTotals();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.financetracker.benchmarks;
+
+import com.example.financetracker.DatabaseManager;
+import com.example.financetracker.DatabaseSetup;
+import com.example.financetracker.SyntheticDataGenerator;
+import com.example.financetracker.UserRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Random;
+
+// an embedded (SQLite) database seeded by SyntheticDataGenerator for the benchmarks. the benchmark user owns
+// `expenses` rows (plus monthly rent) over five years; a hundred other users with a short history keep the user_id
+// index honest. a seeded file is kept under financetracker.bench.dir (target/benchmark-db by default) and reused
+// by later runs, so the 10M database is only built once.
+//
+// DatabaseManager reads its settings when it is first used, and JMH runs each @Param value in a fresh fork, so the
+// system properties are set here, before anything touches the database
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+    static final String USERNAME = "bench";
+    static final String PASSWORD = SyntheticDataGenerator.PASSWORD;
+
+    private static final int OTHER_USERS = 100;
+    private static final int OTHER_USER_EXPENSES = 100;
+    private static final int HISTORY_YEARS = 5;
+
+    @Param({"1000", "100000", "10000000"})
+    public int expenses;
+
+    int userId;  // the benchmark user, owner of every seeded expense above
+    String passwordHash;
+
+    @Setup(Level.Trial)
+    public void open() throws SQLException {
+        File directory = new File(System.getProperty("financetracker.bench.dir", "target/benchmark-db"));
+        System.setProperty("financetracker.storage", "sqlite");
+        System.setProperty("financetracker.sqlite.path", new File(directory, "expenses-" + expenses + ".db").getPath());
+
+        DatabaseSetup.migrate();
+        if (!isSeeded()) {
+            seed();
+        }
+        UserRepository.Credentials credentials = new UserRepository().findCredentials(USERNAME).orElseThrow();
+        userId = credentials.id();
+        passwordHash = credentials.passwordHash();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        DatabaseManager.shutdown();
+    }
+
+    // the benchmark user is written last, so a seed that was interrupted is detected
+    private boolean isSeeded() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM Expenses e JOIN Users u ON u.id = e.user_id WHERE u.username = ?")) {
+            pstmt.setString(1, USERNAME);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getLong(1) >= expenses;
+            }
+        }
+    }
+
+    private void seed() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM Users");
+             ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next() && rs.getLong(1) > 0) {
+                throw new IllegalStateException("Benchmark database is partly seeded, delete "
+                        + System.getProperty("financetracker.sqlite.path") + " and run again.");
+            }
+        }
+
+        System.out.println("⏳ Seeding " + expenses + " expenses into " + System.getProperty("financetracker.sqlite.path"));
+        long start = System.nanoTime();
+        Random random = new Random(42);  // same data on every machine
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(HISTORY_YEARS, 42);
+        generator.seedRates();
+        for (int i = 1; i <= OTHER_USERS; i++) {
+            generator.createUser(SyntheticDataGenerator.username(i), OTHER_USER_EXPENSES, random);
+        }
+        generator.createUser(USERNAME, expenses, random);
+        System.out.printf("✅ Seeded in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.financetracker.benchmarks;
+
+import com.example.financetracker.CurrencyConverter;
+import com.example.financetracker.Money;
+import com.example.financetracker.RateRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// CurrencyConverter.convertCurrency: reading the rates from exchange_rates on every conversion (what the converter
+// screen used to do) against the in-memory rate snapshot it uses now
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CurrencyConversionBenchmark {
+    private final Money amount = Money.ofPence(12_345);
+    private CurrencyConverter converter;
+    private RateRepository rateRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) throws SQLException {
+        converter = new CurrencyConverter();
+        rateRepository = new RateRepository();
+        converter.rates();  // the snapshot is loaded once, like on the first conversion in the app
+    }
+
+    @Benchmark
+    public Money databaseBacked() throws SQLException {
+        return rateRepository.load().convert(amount, "USD");
+    }
+
+    @Benchmark
+    public Money cached() throws SQLException {
+        return converter.convertCurrency(amount, "USD");
+    }
+}
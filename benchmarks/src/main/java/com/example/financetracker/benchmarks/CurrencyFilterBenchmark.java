@@ -0,0 +1,68 @@
+package com.example.financetracker.benchmarks;
+
+import com.example.financetracker.CurrencyConverter;
+import com.example.financetracker.CurrencySearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+// one keystroke in CurrencyConverterController.filterComboBox: the prefix index's matcher applied to every
+// currency, against upper-casing every label and checking contains(), as the combo box filter used to
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CurrencyFilterBenchmark {
+    @Param({"u", "eu", "pou", "dollar"})
+    public String query;
+
+    private List<String> codes;
+    private CurrencySearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) throws SQLException {
+        codes = new CurrencyConverter().findCurrencyCodes();
+        index = new CurrencySearchIndex(codes);
+    }
+
+    @Benchmark
+    public int prefixIndex() {
+        Predicate<String> matcher = index.matcher(query);
+        int matches = 0;
+        for (String code : codes) {
+            if (matcher.test(code)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int linearScan() {
+        String upper = query.toUpperCase(Locale.ROOT);
+        int matches = 0;
+        for (String code : codes) {
+            if (index.label(code).toUpperCase(Locale.ROOT).contains(upper)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.financetracker.benchmarks;
+
+import com.example.financetracker.UserRepository;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// LoginController.handleLogin: the BCrypt check on its own, and with the credentials lookup in front of it as
+// authenticate() does. the hash uses the same cost factor as registration
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+    private final UserRepository userRepository = new UserRepository();
+    private String passwordHash;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        passwordHash = database.passwordHash;
+    }
+
+    @Benchmark
+    public boolean checkPassword() {
+        return BCrypt.checkpw(BenchmarkDatabase.PASSWORD, passwordHash);
+    }
+
+    @Benchmark
+    public boolean authenticate() throws SQLException {
+        Optional<UserRepository.Credentials> credentials = userRepository.findCredentials(BenchmarkDatabase.USERNAME);
+        return credentials.isPresent() && BCrypt.checkpw(BenchmarkDatabase.PASSWORD, credentials.get().passwordHash());
+    }
+
+    // a wrong password costs the same, there's no early exit to time
+    @Benchmark
+    public boolean wrongPassword() {
+        return BCrypt.checkpw("not-the-password", passwordHash);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.financetracker.benchmarks;
+
+import com.example.financetracker.DatabaseManager;
+import com.example.financetracker.ExpenseRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// what loadExpenses costs: one page of rows mapped into an ExpenseStore, from the top of the table and from the
+// middle of the history (the keyset cursor should make both the same), plus streaming every row through forEach
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RowMappingBenchmark {
+    private static final int PAGE_SIZE = 200;  // as in ExpenseTrackerController
+
+    private final ExpenseRepository expenseRepository = new ExpenseRepository();
+    private int userId;
+    private ExpenseRepository.Cursor middle;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) throws SQLException {
+        userId = database.userId;
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT date, id FROM Expenses WHERE user_id = ? ORDER BY date DESC, id DESC LIMIT 1 OFFSET ?")) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, database.expenses / 2);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                middle = new ExpenseRepository.Cursor(rs.getTimestamp(1), rs.getInt(2));
+            }
+        }
+    }
+
+    @Benchmark
+    public ExpenseRepository.Page firstPage() throws SQLException {
+        return expenseRepository.findPage(userId, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ExpenseRepository.Page middlePage() throws SQLException {
+        return expenseRepository.findPage(userId, middle, PAGE_SIZE);
+    }
+
+    // the whole history, as exports and the search index read it
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public long streamAll() throws Exception {
+        long[] total = new long[1];
+        expenseRepository.forEach(userId, (id, date, category, description, amountPence) -> total[0] += amountPence);
+        return total[0];
+    }
+}
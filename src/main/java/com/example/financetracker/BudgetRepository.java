@@ -0,0 +1,55 @@
+package com.example.financetracker;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+// blocking data access for budgets; run these through DataAccessExecutor from the UI
+public class BudgetRepository {
+
+    // returns the user's monthly budget, or empty if none has been set
+    public Optional<Money> findMonthlyBudget(int userId) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT monthly_budget FROM Budgets WHERE user_id = ?")) {
+
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next()
+                        ? Optional.of(Money.of(rs.getBigDecimal("monthly_budget"), Money.HOME_CURRENCY))
+                        : Optional.empty();
+            }
+        }
+    }
+
+    // creates or updates the user's monthly budget
+    public void saveMonthlyBudget(int userId, Money budget) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(DatabaseManager.dialect().upsert("Budgets",
+                     List.of("user_id"), List.of("user_id", "monthly_budget"), 1,
+                     "monthly_budget = source.monthly_budget"))) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setBigDecimal(2, budget.toDecimal());
+            pstmt.executeUpdate();
+        }
+    }
+
+    // returns the total the user has spent in the given month, read from the MonthlySpend rollup
+    // so the cost depends on the number of categories, not on how many expenses the user has
+    public Money monthlySpent(int userId, YearMonth month) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT SUM(total) as total_spent FROM MonthlySpend WHERE user_id = ? AND year_month = ?")) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, MonthlySpendRollup.yearMonthKey(month));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? Money.of(rs.getBigDecimal("total_spent"), Money.HOME_CURRENCY) : Money.ZERO;
+            }
+        }
+    }
+}
@@ -7,11 +7,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.text.DecimalFormat;
+import java.time.YearMonth;
 import java.util.Optional;
 
 public class BudgetTrackerController {
@@ -22,14 +18,12 @@ public class BudgetTrackerController {
     @FXML private Label insightLabel;  // Label for insights and warnings
 
     private int userId;  // Stores the user ID
-
-    // Formatter to ensure correct British currency format (£X.00)
-    private static final DecimalFormat currencyFormat = new DecimalFormat("£#,##0.00");
+    private final BudgetRepository budgetRepository = new BudgetRepository();
+    private static final Metrics.Counter UI_ERRORS = Metrics.counter("ui.errors", "screen", "budget");
 
     public void setUserId(int userId) {
         this.userId = userId;
-        loadBudget();  // Load budget from database
-        updateProgress();  // Update progress bar
+        loadBudget();  // Load budget from database, then update the progress bar
     }
 
     @FXML
@@ -46,9 +40,9 @@ public class BudgetTrackerController {
             return;
         }
 
-        double budget = Double.parseDouble(budgetText);
+        Money budget = Money.parse(budgetText, Money.HOME_CURRENCY);
 
-        if (budget <= 0) {
+        if (budget.signum() <= 0) {
             showAlert("❌ Error", "Budget must be a positive value.");
             return;
         }
@@ -57,102 +51,109 @@ public class BudgetTrackerController {
         Alert confirmationAlert = new Alert(Alert.AlertType.CONFIRMATION);
         confirmationAlert.setTitle("Confirm Budget Update");
         confirmationAlert.setHeaderText("Are you sure you want to update your budget?");
-        confirmationAlert.setContentText("Your new budget will be set to: " + currencyFormat.format(budget));
+        confirmationAlert.setContentText("Your new budget will be set to: " + budget.format());
         Optional<ButtonType> result = confirmationAlert.showAndWait();
 
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            try (Connection conn = DatabaseManager.getConnection()) {
-                PreparedStatement pstmt = conn.prepareStatement(
-                        "MERGE INTO Budgets AS target " +
-                                "USING (SELECT ? AS user_id, ? AS budget) AS source " +
-                                "ON target.user_id = source.user_id " +
-                                "WHEN MATCHED THEN UPDATE SET monthly_budget = source.budget " +
-                                "WHEN NOT MATCHED THEN INSERT (user_id, monthly_budget) VALUES (source.user_id, source.budget);");
-
-                pstmt.setInt(1, userId);
-                pstmt.setDouble(2, budget);
-                pstmt.executeUpdate();
-
-                showAlert("✅ Success", "Budget updated successfully!");
-                loadBudget();
-                updateProgress();
-            } catch (SQLException e) {
-                showAlert("❌ Error", "Database error occurred.");
-                e.printStackTrace();
-            }
+            int currentUserId = userId;
+            DataAccessExecutor.onFxThread(
+                    DataAccessExecutor.write(() -> {
+                        budgetRepository.saveMonthlyBudget(currentUserId, budget);
+                        return null;
+                    }),
+                    ignored -> {
+                        showAlert("✅ Success", "Budget updated successfully!");
+                        // keep the expense screen's cached totals in step without a reload
+                        ExpenseAggregates aggregates = ExpenseAggregates.cached(currentUserId);
+                        if (aggregates != null) {
+                            aggregates.setMonthlyBudget(budget);
+                        }
+                        loadBudget();
+                    },
+                    error -> {
+                        showAlert("❌ Error", "Database error occurred.");
+                        UI_ERRORS.increment();
+                    });
         }
     }
 
+    // loads the budget in the background, then refreshes the progress bar
     private void loadBudget() {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            PreparedStatement pstmt = conn.prepareStatement("SELECT monthly_budget FROM Budgets WHERE user_id = ?");
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                double budget = rs.getDouble("monthly_budget");
-                budgetField.setText(String.format("%.2f", budget));
-                budgetStatusLabel.setText("Monthly Budget: " + currencyFormat.format(budget));
-            } else {
-                budgetField.setText("");
-                budgetStatusLabel.setText("⚠️ No budget set.");
-            }
-        } catch (SQLException e) {
-            showAlert("❌ Error", "Could not load budget.");
-            e.printStackTrace();
+        int currentUserId = userId;
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.load(() -> budgetRepository.findMonthlyBudget(currentUserId)),
+                this::showBudget,
+                error -> {
+                    showAlert("❌ Error", "Could not load budget.");
+                    UI_ERRORS.increment();
+                });
+    }
+
+    private void showBudget(Optional<Money> monthlyBudget) {
+        if (monthlyBudget.isPresent()) {
+            Money budget = monthlyBudget.get();
+            budgetField.setText(budget.toPlainString());
+            budgetStatusLabel.setText("Monthly Budget: " + budget.format());
+            updateProgress(budget);
+        } else {
+            budgetField.setText("");
+            budgetStatusLabel.setText("⚠️ No budget set.");
         }
     }
 
-    private void updateProgress() {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            PreparedStatement pstmt = conn.prepareStatement(
-                    "SELECT SUM(amount) as total_spent FROM Expenses WHERE user_id = ?");
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
+    // fetches this month's spending and updates the progress bar against the given budget
+    private void updateProgress(Money totalBudget) {
+        // the expense screen's running totals already know this month's spending
+        ExpenseAggregates aggregates = ExpenseAggregates.cached(userId);
+        if (aggregates != null) {
+            showProgress(aggregates.monthlyTotal(), totalBudget);
+            return;
+        }
 
-            double totalSpent = 0;
-            if (rs.next()) {
-                totalSpent = rs.getDouble("total_spent");
-            }
+        int currentUserId = userId;
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.load(() -> budgetRepository.monthlySpent(currentUserId, YearMonth.now())),
+                totalSpent -> showProgress(totalSpent, totalBudget),
+                error -> {
+                    showAlert("❌ Error", "Could not update progress.");
+                    UI_ERRORS.increment();
+                });
+    }
 
-            double totalBudget = Double.parseDouble(budgetField.getText());
-            if (totalBudget > 0) {
-                double progress = totalSpent / totalBudget;
-                double progressPercentage = progress * 100;
-
-                // Format values properly in £X.00 format
-                String formattedSpent = currencyFormat.format(totalSpent);
-                String formattedBudget = currencyFormat.format(totalBudget);
-
-                // Update UI components
-                budgetProgressBar.setProgress(progress);
-                progressLabel.setText(String.format("Progress: %s / %s (%.2f%%)", formattedSpent, formattedBudget, progressPercentage));
-
-                // Color-based budget warnings
-                if (progress < 0.6) {
-                    insightLabel.setText("");
-                    budgetProgressBar.getStyleClass().removeAll("approaching", "exceeded", "warning");
-                } else if (progress < 0.8) {
-                    insightLabel.setText("⚠️ You are approaching your budget limit.");
-                    budgetProgressBar.getStyleClass().removeAll("exceeded", "warning");
-                    budgetProgressBar.getStyleClass().add("approaching");
-                } else if (progress < 1) {
-                    insightLabel.setText("❌ You are very close to your budget limit!");
-                    budgetProgressBar.getStyleClass().remove("approaching");
-                    budgetProgressBar.getStyleClass().add("warning");
-                } else if (progress == 1) {
-                    insightLabel.setText("❌ You have reached your budget limit!");
-                    budgetProgressBar.getStyleClass().remove("warning");
-                    budgetProgressBar.getStyleClass().add("exceeded");
-                } else {
-                    insightLabel.setText("❌ You have exceeded your budget!");
-                    budgetProgressBar.getStyleClass().remove("warning");
-                    budgetProgressBar.getStyleClass().add("exceeded");
-                }
+    private void showProgress(Money totalSpent, Money totalBudget) {
+        if (totalBudget.signum() > 0) {
+            double progress = totalSpent.ratioTo(totalBudget);
+            double progressPercentage = progress * 100;
+
+            // Format values properly in £X.00 format
+            String formattedSpent = totalSpent.format();
+            String formattedBudget = totalBudget.format();
+
+            // Update UI components
+            budgetProgressBar.setProgress(progress);
+            progressLabel.setText(String.format("Progress: %s / %s (%.2f%%)", formattedSpent, formattedBudget, progressPercentage));
+
+            // Color-based budget warnings
+            if (progress < 0.6) {
+                insightLabel.setText("");
+                budgetProgressBar.getStyleClass().removeAll("approaching", "exceeded", "warning");
+            } else if (progress < 0.8) {
+                insightLabel.setText("⚠️ You are approaching your budget limit.");
+                budgetProgressBar.getStyleClass().removeAll("exceeded", "warning");
+                budgetProgressBar.getStyleClass().add("approaching");
+            } else if (progress < 1) {
+                insightLabel.setText("❌ You are very close to your budget limit!");
+                budgetProgressBar.getStyleClass().remove("approaching");
+                budgetProgressBar.getStyleClass().add("warning");
+            } else if (totalSpent.compareTo(totalBudget) == 0) {
+                insightLabel.setText("❌ You have reached your budget limit!");
+                budgetProgressBar.getStyleClass().remove("warning");
+                budgetProgressBar.getStyleClass().add("exceeded");
+            } else {
+                insightLabel.setText("❌ You have exceeded your budget!");
+                budgetProgressBar.getStyleClass().remove("warning");
+                budgetProgressBar.getStyleClass().add("exceeded");
             }
-        } catch (SQLException e) {
-            showAlert("❌ Error", "Could not update progress.");
-            e.printStackTrace();
         }
     }
 
@@ -172,7 +173,7 @@ public class BudgetTrackerController {
 
     private boolean isValidBudget(String budgetText) {
         try {
-            Double.parseDouble(budgetText);
+            Money.parse(budgetText, Money.HOME_CURRENCY);
             return true;
         } catch (NumberFormatException e) {
             return false;
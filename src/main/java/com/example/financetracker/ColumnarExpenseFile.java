@@ -0,0 +1,261 @@
+package com.example.financetracker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// a compact binary export of expenses, stored column by column so analytics can reload it without parsing text.
+// rows are written in groups of up to ROW_GROUP_SIZE; each group holds three columns:
+//   date      - days since 1970-01-01, delta-encoded against the previous row (rows are in date order)
+//   category  - an index into the category dictionary
+//   amount    - pence
+// every number is a zig-zag varint, so a typical row takes 3-5 bytes. the footer holds the category dictionary
+// and the offset of every row group; the file ends with the footer's offset and the magic number.
+//
+// layout: MAGIC, VERSION, row group*, footer, footer offset (long), MAGIC
+//         row group = row count (int), then per column: byte length (int) + varints
+//         footer    = dictionary size (int) + (length (short) + UTF-8 bytes) each,
+//                     row group count (int) + offset (long) each, total rows (long)
+public final class ColumnarExpenseFile {
+    private static final int MAGIC = 0x46544358;  // "FTCX"
+    private static final int VERSION = 1;
+    private static final int ROW_GROUP_SIZE = 65_536;
+
+    private ColumnarExpenseFile() {
+    }
+
+    // the columns of a whole file, as loaded by read()
+    public record Columns(int[] epochDays, int[] categoryIds, long[] amountsInPence, String[] categories) {
+        public int size() {
+            return epochDays.length;
+        }
+
+        public LocalDate date(int row) {
+            return LocalDate.ofEpochDay(epochDays[row]);
+        }
+
+        public String category(int row) {
+            return categories[categoryIds[row]];
+        }
+    }
+
+    // streams rows into a columnar file; memory use is bounded by one row group
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> categories = new ArrayList<>();
+        private final List<Long> rowGroupOffsets = new ArrayList<>();
+        private final VarintBuffer dates = new VarintBuffer();
+        private final VarintBuffer categoryIds = new VarintBuffer();
+        private final VarintBuffer amounts = new VarintBuffer();
+        private int groupRows;
+        private long previousEpochDay;
+        private long totalRows;
+
+        public Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION).flip();
+            writeFully(header);
+        }
+
+        public void append(LocalDate date, String category, long amountInPence) throws IOException {
+            long epochDay = date.toEpochDay();
+            dates.writeSigned(epochDay - previousEpochDay);
+            previousEpochDay = epochDay;
+
+            Integer id = dictionary.get(category);
+            if (id == null) {
+                id = categories.size();
+                dictionary.put(category, id);
+                categories.add(category);
+            }
+            categoryIds.writeSigned(id);
+            amounts.writeSigned(amountInPence);
+
+            totalRows++;
+            if (++groupRows == ROW_GROUP_SIZE) {
+                flushRowGroup();
+            }
+        }
+
+        // writes the last row group and the footer
+        @Override
+        public void close() throws IOException {
+            try {
+                if (groupRows > 0) {
+                    flushRowGroup();
+                }
+                long footerOffset = channel.position();
+
+                int footerSize = 4 + 4 + rowGroupOffsets.size() * 8 + 8 + 8 + 4;
+                List<byte[]> names = new ArrayList<>(categories.size());
+                for (String category : categories) {
+                    byte[] name = category.getBytes(StandardCharsets.UTF_8);
+                    names.add(name);
+                    footerSize += 2 + name.length;
+                }
+
+                ByteBuffer footer = ByteBuffer.allocate(footerSize);
+                footer.putInt(names.size());
+                for (byte[] name : names) {
+                    footer.putShort((short) name.length).put(name);
+                }
+                footer.putInt(rowGroupOffsets.size());
+                for (long offset : rowGroupOffsets) {
+                    footer.putLong(offset);
+                }
+                footer.putLong(totalRows);
+                footer.putLong(footerOffset);
+                footer.putInt(MAGIC);
+                writeFully(footer.flip());
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void flushRowGroup() throws IOException {
+            rowGroupOffsets.add(channel.position());
+            ByteBuffer group = ByteBuffer.allocate(4 + 3 * 4 + dates.size() + categoryIds.size() + amounts.size());
+            group.putInt(groupRows);
+            for (VarintBuffer column : new VarintBuffer[]{dates, categoryIds, amounts}) {
+                group.putInt(column.size());
+                column.copyTo(group);
+                column.clear();
+            }
+            writeFully(group.flip());
+            groupRows = 0;
+            previousEpochDay = 0;  // every group can be decoded on its own
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    // loads a whole file into arrays; the file is mapped, not copied onto the heap first
+    public static Columns read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (file.limit() < 24 || file.getInt(0) != MAGIC || file.getInt(file.limit() - 4) != MAGIC) {
+                throw new IOException("Not a columnar expense file: " + path);
+            }
+            if (file.getInt(4) != VERSION) {
+                throw new IOException("Unsupported columnar expense file version " + file.getInt(4));
+            }
+
+            // footer: dictionary, row group offsets, row count
+            file.position((int) file.getLong(file.limit() - 12));
+            String[] categories = new String[file.getInt()];
+            for (int i = 0; i < categories.length; i++) {
+                byte[] name = new byte[file.getShort() & 0xFFFF];
+                file.get(name);
+                categories[i] = new String(name, StandardCharsets.UTF_8);
+            }
+            long[] offsets = new long[file.getInt()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = file.getLong();
+            }
+            long totalRows = file.getLong();
+            if (totalRows > Integer.MAX_VALUE) {
+                throw new IOException("Too many rows to load at once: " + totalRows);
+            }
+
+            int[] epochDays = new int[(int) totalRows];
+            int[] categoryIds = new int[(int) totalRows];
+            long[] amounts = new long[(int) totalRows];
+            int row = 0;
+            for (long offset : offsets) {
+                file.position((int) offset);
+                int rows = file.getInt();
+
+                int end = columnEnd(file);
+                long epochDay = 0;
+                for (int i = 0; i < rows; i++) {
+                    epochDay += readSigned(file);
+                    epochDays[row + i] = (int) epochDay;
+                }
+                checkColumnEnd(file, end);
+                end = columnEnd(file);
+                for (int i = 0; i < rows; i++) {
+                    categoryIds[row + i] = (int) readSigned(file);
+                }
+                checkColumnEnd(file, end);
+                end = columnEnd(file);
+                for (int i = 0; i < rows; i++) {
+                    amounts[row + i] = readSigned(file);
+                }
+                checkColumnEnd(file, end);
+                row += rows;
+            }
+            return new Columns(epochDays, categoryIds, amounts, categories);
+        }
+    }
+
+    // reads a column's byte length and returns where the column ends
+    private static int columnEnd(ByteBuffer file) {
+        int length = file.getInt();
+        return file.position() + length;
+    }
+
+    private static void checkColumnEnd(ByteBuffer file, int expectedEnd) throws IOException {
+        if (file.position() != expectedEnd) {
+            throw new IOException("Corrupt columnar expense file: column ends at " + file.position()
+                    + ", expected " + expectedEnd);
+        }
+    }
+
+    private static long readSigned(ByteBuffer buffer) {
+        long raw = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            raw |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (raw >>> 1) ^ -(raw & 1);  // undo the zig-zag
+    }
+
+    // a growable byte array of zig-zag varints, one per column of the current row group
+    private static final class VarintBuffer {
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        void writeSigned(long value) {
+            long raw = (value << 1) ^ (value >> 63);  // zig-zag: small negatives stay small
+            if (size + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((raw & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((raw & 0x7F) | 0x80);
+                raw >>>= 7;
+            }
+            bytes[size++] = (byte) raw;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void copyTo(ByteBuffer target) {
+            target.put(bytes, 0, size);
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.financetracker;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// a small bounded JDBC connection pool so that screens check out an already open connection
+// instead of paying for a new TCP + TLS handshake with SQL Server on every query
+public class ConnectionPool {
+    // how long a connection may sit idle before it is re-validated on checkout
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 5_000;
+    // timeout (in seconds) passed to Connection.isValid when validating
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    // prepared statements kept open per connection when no size is given
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 50;
+    // capture where each connection was checked out so a leak report can show it. a stack trace per checkout is
+    // too costly to leave on, so it is off unless -Dfinancetracker.pool.leakTrace=true
+    private static final boolean LEAK_TRACE = Boolean.getBoolean("financetracker.pool.leakTrace");
+
+    private final String url;
+    private final Properties connectionProperties;  // user, password and driver settings
+    private final int maxSize;
+    private final long checkoutTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+
+    // idle connections, most recently returned first so hot connections are reused
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    // connections currently checked out by callers
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    // one permit per connection the pool is allowed to hand out
+    private final Semaphore permits;
+    // background thread for idle eviction and leak detection
+    private final ScheduledExecutorService housekeeper;
+
+    // pool metrics
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementsPrepared = new AtomicLong();
+    private final Metrics.Timer waitTimer = Metrics.timer("pool.wait");
+
+    private volatile boolean shutdown;
+
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long checkoutTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis) {
+        this(url, credentials(user, password), maxSize, checkoutTimeoutMillis, idleTimeoutMillis, leakThresholdMillis,
+                DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    // statementCacheSize is how many prepared statements each connection keeps open for reuse, 0 to disable
+    public ConnectionPool(String url, Properties connectionProperties, int maxSize, long checkoutTimeoutMillis,
+                          long idleTimeoutMillis, long leakThresholdMillis, int statementCacheSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive.");
+        }
+        this.url = url;
+        this.connectionProperties = connectionProperties;
+        this.maxSize = maxSize;
+        this.checkoutTimeoutMillis = checkoutTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);  // never keep the JVM alive just for the pool
+            return thread;
+        });
+        long period = Math.max(1_000, Math.min(idleTimeoutMillis, leakThresholdMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // checks out a connection, waiting up to the checkout timeout if every connection is in use
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down.");
+        }
+
+        JfrEvents.PoolWait waitEvent = new JfrEvents.PoolWait();
+        waitEvent.begin();
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(checkoutTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + checkoutTimeoutMillis
+                        + " ms waiting for a database connection (pool size " + maxSize + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+        recordWait(System.nanoTime() - waitStart, waitEvent);
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            pooled.checkedOutAt = System.currentTimeMillis();
+            pooled.checkoutThread = Thread.currentThread().getName();
+            pooled.checkoutTrace = LEAK_TRACE ? new Throwable("Connection checked out here") : null;
+            pooled.leakReported = false;
+            active.add(pooled);
+            checkouts.incrementAndGet();
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();  // the caller never got a connection, so give the slot back
+            throw e;
+        }
+    }
+
+    // returns a snapshot of the pool metrics
+    public Stats getStats() {
+        long count = checkouts.get();
+        double avgWaitMillis = count == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / count;
+        return new Stats(active.size(), idle.size(), maxSize, count, avgWaitMillis,
+                maxWaitNanos.get() / 1_000_000.0, created.get(), evicted.get(), leaks.get(),
+                statementHits.get(), statementsPrepared.get());
+    }
+
+    // closes every idle connection and stops the housekeeper; checked out connections are closed when returned
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closeQuietly(pooled);
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            // only pay for a validation round trip if the connection has been sitting around
+            boolean stale = System.currentTimeMillis() - pooled.lastReturnedAt > VALIDATE_AFTER_IDLE_MILLIS;
+            if (!stale || isUsable(pooled.physical)) {
+                return pooled;
+            }
+            closeQuietly(pooled);  // broken connection, drop it and try the next one
+            evicted.incrementAndGet();
+        }
+        Connection physical = DriverManager.getConnection(url, connectionProperties);
+        created.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    // called when a caller closes its handle
+    private void release(PooledConnection pooled) {
+        active.remove(pooled);
+        try {
+            if (shutdown || pooled.physical.isClosed()) {
+                closeQuietly(pooled);
+                return;
+            }
+            // hand the connection back in the state a fresh connection would have
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.physical.clearWarnings();
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            pooled.checkoutTrace = null;
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            // connection is in a bad state, don't let anyone else use it
+            closeQuietly(pooled);
+            evicted.incrementAndGet();
+        } finally {
+            permits.release();
+        }
+    }
+
+    // evicts connections that have been idle too long and reports connections that were never returned
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledConnection> idleIterator = idle.descendingIterator();  // oldest first
+        while (idleIterator.hasNext()) {
+            PooledConnection pooled = idleIterator.next();
+            if (now - pooled.lastReturnedAt > idleTimeoutMillis && idle.remove(pooled)) {
+                closeQuietly(pooled);
+                evicted.incrementAndGet();
+            }
+        }
+
+        for (PooledConnection pooled : active) {
+            if (!pooled.leakReported && now - pooled.checkedOutAt > leakThresholdMillis) {
+                pooled.leakReported = true;
+                leaks.incrementAndGet();
+                System.err.print(leakReport(pooled, now));
+            }
+        }
+    }
+
+    // the whole report as one string, written with a single call so other output can't land in the middle of it
+    private static String leakReport(PooledConnection pooled, long now) {
+        StringWriter report = new StringWriter();
+        PrintWriter writer = new PrintWriter(report);
+        writer.println("⚠️ Possible connection leak: connection checked out by " + pooled.checkoutThread + " for "
+                + (now - pooled.checkedOutAt) + " ms without being closed.");
+        Throwable trace = pooled.checkoutTrace;
+        if (trace != null) {
+            trace.printStackTrace(writer);
+        } else {
+            writer.println("   run with -Dfinancetracker.pool.leakTrace=true to see where it was checked out");
+        }
+        writer.flush();
+        return report.toString();
+    }
+
+    private void recordWait(long waitNanos, JfrEvents.PoolWait event) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        waitTimer.record(waitNanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.active = active.size();
+            event.maxSize = maxSize;
+            event.commit();
+        }
+    }
+
+    private static boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(PooledConnection pooled) {
+        pooled.statements.clear();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // nothing useful to do, the connection is being thrown away anyway
+        }
+    }
+
+    private static Properties credentials(String user, String password) {
+        Properties properties = new Properties();
+        if (user != null) {
+            properties.setProperty("user", user);
+        }
+        if (password != null) {
+            properties.setProperty("password", password);
+        }
+        return properties;
+    }
+
+    // snapshot of the pool metrics
+    public record Stats(int active, int idle, int maxSize, long checkouts, double avgWaitMillis,
+                        double maxWaitMillis, long created, long evicted, long leaks,
+                        long statementCacheHits, long statementsPrepared) {
+        @Override
+        public String toString() {
+            return String.format("pool active=%d idle=%d max=%d checkouts=%d avgWait=%.3fms maxWait=%.3fms "
+                            + "created=%d evicted=%d leaks=%d statementHits=%d statementsPrepared=%d",
+                    active, idle, maxSize, checkouts, avgWaitMillis, maxWaitMillis, created, evicted, leaks,
+                    statementCacheHits, statementsPrepared);
+        }
+    }
+
+    // a physical connection plus the bookkeeping the pool needs for it
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private volatile long lastReturnedAt = System.currentTimeMillis();
+        private volatile long checkedOutAt;
+        private volatile String checkoutThread;
+        private volatile Throwable checkoutTrace;  // only with LEAK_TRACE
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize, statementHits, statementsPrepared);
+        }
+
+        // each checkout gets its own handle so a stale handle can't close someone else's checkout
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    // proxy behind the Connection given to callers; close() returns the connection to the pool. statements it
+    // creates are wrapped in an InstrumentedStatement so every query is measured
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        private Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            // plain prepareStatement(sql) is served from the connection's statement cache
+            if (!closed && method.getName().equals("prepareStatement") && args.length == 1) {
+                return InstrumentedStatement.wrap(pooled.statements.prepare((String) args[0]), (String) args[0]);
+            }
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("prepareStatement")) {
+                        return InstrumentedStatement.wrap((PreparedStatement) result, (String) args[0]);
+                    }
+                    if (method.getName().equals("createStatement")) {
+                        return InstrumentedStatement.wrap((Statement) result);
+                    }
+                    return result;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.financetracker;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.List;
+
+// every from -> to conversion factor for one rate snapshot, precomputed so bulk conversions are a single
+// multiply per amount. amounts in minor units (pence, cents, yen) are converted with exact integer arithmetic
+// on the decimal rates and rounded half-even, so the same input always gives the same result; this is the only
+// place Money is converted, RateSnapshot.convert delegates here
+public final class CrossRateMatrix {
+    private final RateSnapshot snapshot;
+    private final int size;
+    private final double[] crossRates;  // crossRates[from * size + to] = rate[to] / rate[from]
+    private final int[] fractionDigits;  // decimal places of each currency's minor unit
+
+    public CrossRateMatrix(RateSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.size = snapshot.size();
+        this.crossRates = new double[size * size];
+        this.fractionDigits = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            fractionDigits[i] = Money.fractionDigits(snapshot.codeAt(i));
+        }
+        for (int from = 0; from < size; from++) {
+            double fromRate = snapshot.rateAt(from);
+            for (int to = 0; to < size; to++) {
+                double cross = snapshot.rateAt(to) / fromRate;
+                crossRates[from * size + to] = cross;
+            }
+        }
+    }
+
+    // the factor to multiply an amount in one currency by to get the other
+    public double crossRate(String fromCurrency, String toCurrency) {
+        return crossRates[cell(fromCurrency, toCurrency)];
+    }
+
+    // converts major-unit amounts (e.g. 12.34 pounds); results are written into target, which may be amounts itself
+    public void convert(double[] amounts, double[] target, String fromCurrency, String toCurrency) {
+        if (target.length < amounts.length) {
+            throw new IllegalArgumentException("Target array is smaller than the input.");
+        }
+        double rate = crossRates[cell(fromCurrency, toCurrency)];
+        for (int i = 0; i < amounts.length; i++) {
+            target[i] = amounts[i] * rate;
+        }
+    }
+
+    public double[] convert(double[] amounts, String fromCurrency, String toCurrency) {
+        double[] converted = new double[amounts.length];
+        convert(amounts, converted, fromCurrency, toCurrency);
+        return converted;
+    }
+
+    // converts minor-unit amounts (e.g. 1234 pence) into the target currency's minor units, rounding half-even
+    public void convertMinorUnits(long[] amounts, long[] target, String fromCurrency, String toCurrency) {
+        if (target.length < amounts.length) {
+            throw new IllegalArgumentException("Target array is smaller than the input.");
+        }
+        MinorRate rate = minorRate(fromCurrency, toCurrency);
+        for (int i = 0; i < amounts.length; i++) {
+            target[i] = rate.convert(amounts[i]);
+        }
+    }
+
+    public long[] convertMinorUnits(long[] amounts, String fromCurrency, String toCurrency) {
+        long[] converted = new long[amounts.length];
+        convertMinorUnits(amounts, converted, fromCurrency, toCurrency);
+        return converted;
+    }
+
+    // converts one amount into the target currency's minor units, rounding half-even
+    public Money convert(Money amount, String toCurrency) {
+        return Money.ofMinor(minorRate(amount.currency(), toCurrency).convert(amount.minorUnits()), toCurrency);
+    }
+
+    // converts the amounts of a list of expenses (stored in pence) to minor units of toCurrency
+    public long[] convertExpenses(List<Expense> expenses, String toCurrency) {
+        MinorRate rate = minorRate(Money.HOME_CURRENCY, toCurrency);
+        long[] converted = new long[expenses.size()];
+        for (int i = 0; i < converted.length; i++) {
+            converted[i] = rate.convert(expenses.get(i).getAmountInPence());
+        }
+        return converted;
+    }
+
+    // decimal places of a currency's minor unit, 2 for codes java.util.Currency doesn't know (e.g. BTC)
+    public int fractionDigitsOf(String currencyCode) {
+        int index = snapshot.indexOf(currencyCode);
+        return index < 0 ? Money.fractionDigits(currencyCode) : fractionDigits[index];
+    }
+
+    // the exact factor between minor units of two currencies, built once per conversion call
+    private MinorRate minorRate(String fromCurrency, String toCurrency) {
+        int cell = cell(fromCurrency, toCurrency);
+        int from = cell / size;
+        int to = cell % size;
+        // e.g. GBP (2 digits) -> JPY (0 digits): pence * (jpyRate * 1) / (gbpRate * 100) = yen
+        return new MinorRate(BigDecimal.valueOf(snapshot.rateAt(to)).movePointRight(fractionDigits[to]),
+                BigDecimal.valueOf(snapshot.rateAt(from)).movePointRight(fractionDigits[from]));
+    }
+
+    private int cell(String fromCurrency, String toCurrency) {
+        int from = snapshot.indexOf(fromCurrency);
+        int to = snapshot.indexOf(toCurrency);
+        if (from < 0 || to < 0) {
+            throw new IllegalArgumentException("❌ invalid currency rates retrieved.");
+        }
+        return from * size + to;
+    }
+
+    // amount * numerator / denominator, with both rates as whole numbers over the same scale. the rates are taken
+    // as the decimals the API sent (BigDecimal.valueOf), so a result that is exactly half a minor unit really is
+    // a tie and goes to the even neighbour, which multiplying by a double cross rate could not promise
+    private static final class MinorRate {
+        private final BigInteger numerator;
+        private final BigInteger denominator;
+        private final long longNumerator;    // the same as longs, 0 when either doesn't fit
+        private final long longDenominator;
+
+        private MinorRate(BigDecimal toRate, BigDecimal fromRate) {
+            if (toRate.signum() <= 0 || fromRate.signum() <= 0) {
+                throw new IllegalArgumentException("❌ invalid currency rates retrieved.");
+            }
+            int scale = Math.max(toRate.scale(), fromRate.scale());
+            BigInteger top = toRate.setScale(scale).unscaledValue();
+            BigInteger bottom = fromRate.setScale(scale).unscaledValue();
+            BigInteger common = top.gcd(bottom);
+            this.numerator = top.divide(common);
+            this.denominator = bottom.divide(common);
+            boolean fits = numerator.bitLength() < Long.SIZE && denominator.bitLength() < Long.SIZE;
+            this.longNumerator = fits ? numerator.longValue() : 0;
+            this.longDenominator = fits ? denominator.longValue() : 0;
+        }
+
+        long convert(long amount) {
+            if (longDenominator != 0) {
+                long high = Math.multiplyHigh(amount, longNumerator);
+                long product = amount * longNumerator;
+                if ((high == 0 && product >= 0) || (high == -1 && product < 0)) {
+                    return roundHalfEven(product / longDenominator, product % longDenominator);
+                }
+            }
+            // the product doesn't fit in a long
+            return new BigDecimal(BigInteger.valueOf(amount).multiply(numerator))
+                    .divide(new BigDecimal(denominator), 0, RoundingMode.HALF_EVEN)
+                    .longValueExact();
+        }
+
+        // quotient and remainder of a truncating division by longDenominator, rounded half-even
+        private long roundHalfEven(long quotient, long remainder) {
+            long distance = Math.abs(remainder);
+            long beyondHalf = distance - (longDenominator - distance);  // 2 * |remainder| - denominator, no overflow
+            if (beyondHalf > 0 || (beyondHalf == 0 && (quotient & 1) != 0)) {
+                return quotient + Long.signum(remainder);
+            }
+            return quotient;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.financetracker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// a CSV statement export. the header row says which column is which, so the usual bank layouts work:
+// a signed "Amount" column, or separate "Paid out"/"Paid in" (debit/credit) columns
+public class CsvStatementFormat implements StatementFormat {
+    private static final List<String> DATE_HEADERS = List.of("date", "transaction date", "posted date",
+            "booking date", "date posted");
+    private static final List<String> AMOUNT_HEADERS = List.of("amount", "transaction amount", "value", "amount (gbp)");
+    private static final List<String> DEBIT_HEADERS = List.of("paid out", "money out", "debit", "debit amount",
+            "withdrawals");
+    private static final List<String> CREDIT_HEADERS = List.of("paid in", "money in", "credit", "credit amount",
+            "deposits");
+    private static final List<String> DESCRIPTION_HEADERS = List.of("description", "transaction description", "name",
+            "payee", "merchant", "details", "memo", "reference");
+    private static final List<String> CATEGORY_HEADERS = List.of("category");
+
+    // UK day-first formats are tried before the rest. strict, so 31/02/2024 is rejected rather than read as the 29th
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            strict("dd/MM/uuuu"),
+            strict("d/M/uuuu"),
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            strict("dd-MM-uuuu"),
+            strict("dd.MM.uuuu"),
+            strict("dd/MM/uu"),
+            DateTimeFormatter.ofPattern("d MMM uuuu", Locale.UK).withResolverStyle(ResolverStyle.STRICT),
+            strict("uuuu/MM/dd"));
+
+    private final char delimiter;
+    private final int dateColumn;
+    private final int amountColumn;
+    private final int debitColumn;
+    private final int creditColumn;
+    private final int descriptionColumn;
+    private final int categoryColumn;
+    // the format that matched last time; a file uses one format throughout, so this is nearly always a hit
+    private volatile DateTimeFormatter lastDateFormat = DATE_FORMATS.get(0);
+
+    // reads the header row and works out the columns
+    public CsvStatementFormat(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IOException("The file is empty.");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);  // byte order mark written by Excel
+        }
+        delimiter = detectDelimiter(header);
+
+        List<String> columns = new ArrayList<>();
+        for (String column : split(header)) {
+            columns.add(column.trim().toLowerCase(Locale.ROOT));
+        }
+        dateColumn = find(columns, DATE_HEADERS);
+        amountColumn = find(columns, AMOUNT_HEADERS);
+        debitColumn = find(columns, DEBIT_HEADERS);
+        creditColumn = find(columns, CREDIT_HEADERS);
+        descriptionColumn = find(columns, DESCRIPTION_HEADERS);
+        categoryColumn = find(columns, CATEGORY_HEADERS);
+
+        if (dateColumn < 0 || (amountColumn < 0 && debitColumn < 0)) {
+            throw new IOException("The CSV header needs a date column and an amount (or paid out) column.");
+        }
+    }
+
+    @Override
+    public String nextRecord(BufferedReader reader) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        // a quoted field may contain line breaks, keep reading until the quotes balance
+        StringBuilder record = null;
+        while (countQuotes(line) % 2 != 0) {
+            String next = reader.readLine();
+            if (next == null) {
+                break;
+            }
+            if (record == null) {
+                record = new StringBuilder(line);
+            }
+            record.append('\n').append(next);
+            line = record.toString();
+        }
+        return line;
+    }
+
+    @Override
+    public Transaction parse(String record) {
+        List<String> fields = split(record);
+        LocalDate date = parseDate(field(fields, dateColumn));
+
+        Money amount;
+        if (amountColumn >= 0) {
+            amount = StatementFormat.parseAmount(field(fields, amountColumn));
+        } else {
+            // separate columns: whichever is filled in, money out as a negative amount
+            String paidOut = field(fields, debitColumn);
+            String paidIn = field(fields, creditColumn);
+            if (!paidOut.isBlank()) {
+                Money out = StatementFormat.parseAmount(paidOut);
+                amount = out.signum() > 0 ? out.negate() : out;
+            } else {
+                amount = StatementFormat.parseAmount(paidIn);
+            }
+        }
+
+        String category = field(fields, categoryColumn).trim();
+        return new Transaction(date, amount, field(fields, descriptionColumn).trim(),
+                category.isEmpty() ? null : category);
+    }
+
+    private LocalDate parseDate(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("missing date");
+        }
+        // "2024-01-15T09:30:00" or "2024-01-15 09:30" only need the date part
+        if (trimmed.length() > 10 && Character.isDigit(trimmed.charAt(0)) && trimmed.charAt(4) == '-') {
+            trimmed = trimmed.substring(0, 10);
+        }
+        DateTimeFormatter last = lastDateFormat;
+        try {
+            return LocalDate.parse(trimmed, last);
+        } catch (DateTimeParseException ignored) {
+            // fall through and try the other formats
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            if (format == last) {
+                continue;
+            }
+            try {
+                LocalDate date = LocalDate.parse(trimmed, format);
+                lastDateFormat = format;
+                return date;
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        throw new IllegalArgumentException("unrecognised date: " + text);
+    }
+
+    private static DateTimeFormatter strict(String pattern) {
+        return DateTimeFormatter.ofPattern(pattern).withResolverStyle(ResolverStyle.STRICT);
+    }
+
+    // splits one record on the delimiter, honouring "quoted, fields" and "" escapes
+    private List<String> split(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : "";
+    }
+
+    // index of the first column whose header is one of the names, -1 if there is none
+    private static int find(List<String> columns, List<String> names) {
+        for (String name : names) {
+            int index = columns.indexOf(name);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    // comma unless the header clearly uses semicolons (European exports) or tabs
+    private static char detectDelimiter(String header) {
+        char[] candidates = {',', ';', '\t'};
+        char best = ',';
+        long bestCount = 0;
+        for (char candidate : candidates) {
+            long count = header.chars().filter(c -> c == candidate).count();
+            if (count > bestCount) {
+                best = candidate;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private static int countQuotes(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -1,112 +1,185 @@
 package com.example.financetracker;
 
 import org.json.JSONObject;
-import java.net.HttpURLConnection;
-import java.net.URL;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
-import java.util.Scanner;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 public class CurrencyConverter {
     private static final String API_KEY = "4ddad6c7a68e428f93d410790ba0609a"; // fixer.io API Key
     private static final String API_URL = "http://data.fixer.io/api/latest?access_key=" + API_KEY;
 
+    // one shared client so connections to the API are reused
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    // in-memory copy of the exchange_rates table shared by every screen, null until first loaded
+    private static final AtomicReference<RateSnapshot> SNAPSHOT = new AtomicReference<>();
+    // notified (on the thread that loaded them) whenever a different snapshot is published
+    private static final List<Consumer<RateSnapshot>> RATE_LISTENERS = new CopyOnWriteArrayList<>();
+
+    private final URI ratesApi;  // where the latest rates are fetched from
+    private final RateRepository rateRepository = new RateRepository();
+
+    public CurrencyConverter() {
+        this(URI.create(API_URL));
+    }
+
+    // lets a different endpoint (e.g. a local stub server) stand in for fixer.io
+    public CurrencyConverter(URI ratesApi) {
+        this.ratesApi = ratesApi;
+    }
+
     // fetches and updates currency exchange rates from the fixer.io API
     public boolean updateCurrencyRates() {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            // connect to the API and fetch the exchange rates
-            URL url = new URL(API_URL);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-
-            // read the response from the API
-            Scanner sc = new Scanner(url.openStream());
-            StringBuilder result = new StringBuilder();
-            while (sc.hasNext()) {
-                result.append(sc.nextLine()); // append each line to result
+        try {
+            Map<String, Double> rates = fetchRates();
+            if (rates == null) {
+                return false;
+            }
+            applyRates(rates);
+            saveToCache(rates);
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;  // return false if an error occurs
+        }
+    }
+
+    // requests the latest rates and parses them as the body streams in; returns null if the API reports a failure
+    public Map<String, Double> fetchRates() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(ratesApi)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        try (Reader body = new InputStreamReader(response.body(), StandardCharsets.UTF_8)) {
+            if (response.statusCode() != 200) {
+                System.err.println("❌ currency api request failed with HTTP " + response.statusCode() + ".");
+                return null;
             }
-            sc.close();
 
-            // parse the JSON response from the API
-            JSONObject jsonResponse = new JSONObject(result.toString());
+            FixerRatesParser.Result result = FixerRatesParser.parse(body);
 
             // check if the API request was successful
-            if (!jsonResponse.optBoolean("success", false)) {
+            if (!result.success()) {
                 System.err.println("❌ currency api request failed.");
-                return false;
+                return null;
             }
-
-            // extract the rates object from the response
-            JSONObject rates = jsonResponse.optJSONObject("rates");
-            if (rates == null || rates.length() == 0) {
+            if (result.rates().isEmpty()) {
                 System.err.println("❌ no currency rates found.");
-                return false;
+                return null;
             }
+            return result.rates();
+        }
+    }
 
-            // clear old exchange rates from the database
-            try (PreparedStatement deleteStmt = conn.prepareStatement("DELETE FROM exchange_rates")) {
-                deleteStmt.executeUpdate();  // delete existing data
-            }
+    // writes only the rates that changed, in one transaction, and publishes the result to conversions
+    public void applyRates(Map<String, Double> rates) throws SQLException {
+        RateSnapshot current = SNAPSHOT.get();
+        publish(current, rateRepository.saveChanged(rates));
+    }
+
+    // returns the codes of all currencies that have a stored exchange rate
+    public List<String> findCurrencyCodes() throws SQLException {
+        return rates().currencyCodes();
+    }
+
+    // returns the current rate snapshot, loading it from the database the first time
+    public RateSnapshot rates() throws SQLException {
+        RateSnapshot snapshot = SNAPSHOT.get();
+        return snapshot != null ? snapshot : refreshRates();
+    }
+
+    // reloads the rate snapshot if the table has changed since it was loaded (checked via last_updated)
+    public RateSnapshot refreshRates() throws SQLException {
+        RateSnapshot current = SNAPSHOT.get();
+        return publish(current, rateRepository.loadIfChanged(current));
+    }
+
+    // registers a listener for new rate snapshots; UI listeners must hop to the FX thread themselves
+    public static void addRatesListener(Consumer<RateSnapshot> listener) {
+        RATE_LISTENERS.add(listener);
+    }
+
+    public static void removeRatesListener(Consumer<RateSnapshot> listener) {
+        RATE_LISTENERS.remove(listener);
+    }
 
-            // insert new exchange rates into the database
-            try (PreparedStatement insertStmt = conn.prepareStatement(
-                    "INSERT INTO exchange_rates (currency_code, rate_to_base, last_updated) VALUES (?, ?, GETDATE())")) {
-                // loop through each currency and insert its rate
-                for (String currency : rates.keySet()) {
-                    double rate = rates.optDouble(currency, -1);
-                    if (rate <= 0 || rate > 999999999) {
-                        System.err.println("⚠️ skipping currency " + currency + " due to invalid rate: " + rate);
-                        continue;  // skip invalid rates
+    // swaps in a snapshot loaded while `expected` was published and tells listeners. if another load published
+    // in the meantime, this one is dropped unless its last_updated is newer, so a slow load can't put older rates
+    // back. returns whichever snapshot is published afterwards
+    static RateSnapshot publish(RateSnapshot expected, RateSnapshot loaded) {
+        while (loaded != expected) {
+            if (SNAPSHOT.compareAndSet(expected, loaded)) {
+                for (Consumer<RateSnapshot> listener : RATE_LISTENERS) {
+                    try {
+                        listener.accept(loaded);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();  // one broken listener shouldn't stop the others
                     }
-                    insertStmt.setString(1, currency);  // set the currency code
-                    insertStmt.setDouble(2, rate);      // set the rate to base currency
-                    insertStmt.addBatch();  // add to batch for efficient insertion
                 }
-                insertStmt.executeBatch();  // execute the batch insert
-                System.out.println("✅ exchange rates updated successfully.");
-                return true;
+                return loaded;
             }
+            expected = SNAPSHOT.get();
+            if (!isNewer(loaded, expected)) {
+                return expected;
+            }
+        }
+        return loaded;  // nothing has changed
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;  // return false if an error occurs
+    private static boolean isNewer(RateSnapshot loaded, RateSnapshot published) {
+        if (published == null || published.lastUpdated() == null) {
+            return true;
         }
+        return loaded.lastUpdated() != null && loaded.lastUpdated().after(published.lastUpdated());
     }
 
-    // converts an amount from one currency to another using stored exchange rates
-    public double convertCurrency(double amount, String fromCurrency, String toCurrency) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            // prepare SQL query to fetch exchange rates for both currencies
-            String query = "SELECT currency_code, rate_to_base FROM exchange_rates WHERE currency_code IN (?, ?)";
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, fromCurrency);  // set 'from' currency
-                pstmt.setString(2, toCurrency);    // set 'to' currency
-                ResultSet rs = pstmt.executeQuery(); // execute the query
-
-                double fromRate = 0, toRate = 0;  // variables to store rates
-                while (rs.next()) {
-                    String currencyCode = rs.getString("currency_code");
-                    double rate = rs.getDouble("rate_to_base");
-
-                    // check if the currency matches 'from' or 'to'
-                    if (currencyCode.equals(fromCurrency)) {
-                        fromRate = rate;  // store rate for 'from' currency
-                    } else if (currencyCode.equals(toCurrency)) {
-                        toRate = rate;  // store rate for 'to' currency
-                    }
-                }
+    // how many seconds ago the last successful API fetch was saved, or -1 if there is none
+    public long cacheAgeSeconds() throws SQLException {
+        return rateRepository.cacheAgeSeconds();
+    }
 
-                // if either rate is zero, something went wrong
-                if (fromRate == 0 || toRate == 0) {
-                    throw new IllegalArgumentException("❌ invalid currency rates retrieved.");
-                }
+    // records a successful fetch in CurrencyCache so other sessions (and restarts) can skip the API call
+    public void saveToCache(Map<String, Double> rates) throws SQLException {
+        rateRepository.saveCache(new JSONObject(rates).toString());
+    }
 
-                // convert the amount based on the exchange rates
-                return (amount / fromRate) * toRate;  // formula for conversion
-            }
+    // converts many amounts between the same pair of currencies with one precomputed cross rate
+    public double[] convertAll(double[] amounts, String fromCurrency, String toCurrency) throws SQLException {
+        return rates().crossRates().convert(amounts, fromCurrency, toCurrency);
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return 0;  // return 0 if an error occurs
-        }
+    // converts amounts held in minor units (pence, cents, ...), rounding half-even to the target's minor unit
+    public long[] convertAllMinorUnits(long[] amounts, String fromCurrency, String toCurrency) throws SQLException {
+        return rates().crossRates().convertMinorUnits(amounts, fromCurrency, toCurrency);
+    }
+
+    // converts the amounts of a whole expense history into minor units of the target currency
+    public long[] convertExpenses(List<Expense> expenses, String toCurrency) throws SQLException {
+        return rates().crossRates().convertExpenses(expenses, toCurrency);
+    }
+
+    // converts an amount into another currency using the cached exchange rates, exact to the target's minor unit
+    public Money convertCurrency(Money amount, String toCurrency) throws SQLException {
+        // rates are read from the in-memory snapshot, the database is only hit on the first call
+        return rates().convert(amount, toCurrency);
     }
 }
@@ -1,10 +1,15 @@
 package com.example.financetracker;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import java.sql.*;
+import javafx.collections.transformation.FilteredList;
+import javafx.util.StringConverter;
+
+import java.util.List;
+import java.util.function.Consumer;
 
 public class CurrencyConverterController {
     @FXML private ComboBox<String> fromCurrencyBox;  // combo box for selecting the 'from' currency
@@ -15,11 +20,19 @@ public class CurrencyConverterController {
 
     private int userId;  // user id to identify the current user
     private final CurrencyConverter currencyConverter = new CurrencyConverter(); // instance of CurrencyConverter for conversion logic
+    private static final Metrics.Counter UI_ERRORS = Metrics.counter("ui.errors", "screen", "converter");
+    // every currency with a rate; both ComboBoxes show a filtered view of this one list
+    private final ObservableList<String> allCurrencies = FXCollections.observableArrayList();
+    private final FilteredList<String> fromCurrencies = new FilteredList<>(allCurrencies);
+    private final FilteredList<String> toCurrencies = new FilteredList<>(allCurrencies);
+    private CurrencySearchIndex currencyIndex = new CurrencySearchIndex(List.of());
+    // refreshes the lists when the background refresher publishes new rates
+    private final Consumer<RateSnapshot> ratesListener =
+            snapshot -> Platform.runLater(() -> showCurrencies(snapshot.currencyCodes()));
 
     // initialise the ComboBoxes with currency list and set the user prompts
     @FXML
     public void initialize() {
-        loadCurrencyList(); // load the full list of currencies when the page is initialised
         setupComboBoxListeners(); // setup listeners to handle filtering and resetting the ComboBox
 
         // set prompt text to guide the user to select a currency
@@ -27,83 +40,98 @@ public class CurrencyConverterController {
         toCurrencyBox.setPromptText("Choose currency");
     }
 
-    // set the user ID for this scene
+    // set the user ID for this scene; SceneController keeps this screen, so this runs on every visit
     public void setUserId(int userId) {
         this.userId = userId;
-        System.out.println("DEBUG: Currency Converter - User ID: " + userId);  // debug log
+        loadCurrencyList(); // load the full list of currencies (from memory after the first visit)
+        CurrencyConverter.addRatesListener(ratesListener);  // removed again when leaving
     }
 
-    // load the currency list from the database into both ComboBoxes
+    // load the currency list from the database into both ComboBoxes in the background
     private void loadCurrencyList() {
-        ObservableList<String> currencies = FXCollections.observableArrayList();  // list to store currencies
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement("SELECT DISTINCT currency_code FROM exchange_rates");
-             ResultSet rs = pstmt.executeQuery()) {
-
-            // fetch and add all currencies to the list
-            while (rs.next()) {
-                currencies.add(rs.getString("currency_code"));
-            }
-
-            // set the list of currencies to the ComboBoxes
-            fromCurrencyBox.setItems(currencies);
-            toCurrencyBox.setItems(currencies);
+        DataAccessExecutor.onFxThread(
+                // only the first visit reads the database; later rate changes arrive through ratesListener
+                DataAccessExecutor.load(() -> currencyConverter.rates().currencyCodes()),
+                this::showCurrencies,
+                error -> {
+                    showAlert("❌ Error", "Failed to load currencies.");
+                    UI_ERRORS.increment();
+                });
+    }
 
-        } catch (SQLException e) {
-            showAlert("❌ Error", "Failed to load currencies.");
-            e.printStackTrace();
+    // rebuilds the search index and the shared list behind both ComboBoxes (only when the rates change)
+    private void showCurrencies(List<String> codes) {
+        if (codes.equals(allCurrencies)) {
+            return;  // e.g. a revisit with the same rates, keep the current picks
         }
+        currencyIndex = new CurrencySearchIndex(codes);
+        allCurrencies.setAll(codes);
     }
 
     // setup listeners for ComboBoxes to handle filtering and resetting based on user input
     private void setupComboBoxListeners() {
-        // listener for user typing into the 'from' currency ComboBox
-        fromCurrencyBox.setEditable(true);
-        fromCurrencyBox.setOnKeyReleased(event -> filterComboBox(fromCurrencyBox));  // filter list based on input
+        setupComboBox(fromCurrencyBox, fromCurrencies);
+        setupComboBox(toCurrencyBox, toCurrencies);
+    }
+
+    private void setupComboBox(ComboBox<String> comboBox, FilteredList<String> currencies) {
+        comboBox.setEditable(true);
+        comboBox.setItems(currencies);
 
-        // listener for user typing into the 'to' currency ComboBox
-        toCurrencyBox.setEditable(true);
-        toCurrencyBox.setOnKeyReleased(event -> filterComboBox(toCurrencyBox));  // filter list based on input
+        // items are currency codes, shown as "GBP - British Pound"
+        comboBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(String code) {
+                return code == null ? "" : currencyIndex.label(code);
+            }
+
+            @Override
+            public String fromString(String text) {
+                return currencyIndex.resolve(text);
+            }
+        });
+
+        // listener for user typing into the ComboBox
+        comboBox.setOnKeyReleased(event -> filterComboBox(comboBox, currencies));  // filter list based on input
 
         // listener to reset ComboBox when clicked without input (show full list)
-        fromCurrencyBox.setOnMouseClicked(event -> resetComboBoxList(fromCurrencyBox));
-        toCurrencyBox.setOnMouseClicked(event -> resetComboBoxList(toCurrencyBox));
+        comboBox.setOnMouseClicked(event -> resetComboBoxList(comboBox, currencies));
     }
 
-    // filter the ComboBox list based on user input
-    private void filterComboBox(ComboBox<String> comboBox) {
-        String filterText = comboBox.getEditor().getText().toUpperCase();  // get the text input and convert to uppercase
-
-        ObservableList<String> filteredList = FXCollections.observableArrayList();  // list to store filtered results
+    // filter the ComboBox list based on user input, using the prefix index instead of scanning every item
+    private void filterComboBox(ComboBox<String> comboBox, FilteredList<String> currencies) {
+        String filterText = comboBox.getEditor().getText();
 
-        // check if there's any filter text
-        if (!filterText.isEmpty()) {
-            // add currencies that match the filter
-            for (String currency : comboBox.getItems()) {
-                if (currency.toUpperCase().contains(filterText)) {
-                    filteredList.add(currency); // add matching currencies
-                }
+        // check if there's any filter text (the label of the selected currency counts as none)
+        if (!filterText.isEmpty() && !filterText.equals(currencyIndex.label(comboBox.getValue()))) {
+            currencies.setPredicate(currencyIndex.matcher(filterText));  // update ComboBox with matching currencies
+            if (!currencies.isEmpty()) {
+                comboBox.show();
             }
-            comboBox.setItems(filteredList);  // update ComboBox with filtered list
         } else {
-            resetComboBoxList(comboBox);  // reset ComboBox to full list if input is empty
+            currencies.setPredicate(null);  // show the full list if input is empty
         }
     }
 
     // reset the ComboBox to show the full list of currencies
-    private void resetComboBoxList(ComboBox<String> comboBox) {
-        if (!comboBox.getItems().isEmpty()) {
-            loadCurrencyList();  // reset to the full list of currencies
+    private void resetComboBoxList(ComboBox<String> comboBox, FilteredList<String> currencies) {
+        if (currencies.getPredicate() != null) {
+            currencies.setPredicate(null);  // reset to the full list of currencies, no database round trip
             comboBox.getEditor().clear();  // clear the input field
         }
     }
 
+    // the currency chosen in a ComboBox, or typed into it but not yet committed
+    private String selectedCurrency(ComboBox<String> comboBox) {
+        String value = comboBox.getValue();
+        return value != null ? value : currencyIndex.resolve(comboBox.getEditor().getText());
+    }
+
     // handle the currency conversion logic
     @FXML
     private void handleConvert() {
-        String fromCurrency = fromCurrencyBox.getValue();  // get the selected 'from' currency
-        String toCurrency = toCurrencyBox.getValue();      // get the selected 'to' currency
+        String fromCurrency = selectedCurrency(fromCurrencyBox);  // get the selected 'from' currency
+        String toCurrency = selectedCurrency(toCurrencyBox);      // get the selected 'to' currency
         String amountText = amountField.getText();         // get the amount to convert
 
         // validate user input: ensure both currencies are selected and amount is entered
@@ -112,36 +140,49 @@ public class CurrencyConverterController {
             return;
         }
 
+        Money amount;
         try {
-            double amount = Double.parseDouble(amountText);  // convert the entered amount to a double
-
-            // perform the currency conversion
-            double convertedAmount = currencyConverter.convertCurrency(amount, fromCurrency, toCurrency);
-            resultLabel.setText(String.format("💰 %.2f %s = %.2f %s", amount, fromCurrency, convertedAmount, toCurrency));
-
+            amount = Money.parse(amountText, fromCurrency);  // exact, in the currency's minor unit
         } catch (NumberFormatException e) {
             showAlert("❌ Error", "Invalid amount entered.");  // handle invalid amount
-        } catch (Exception e) {
-            showAlert("❌ Error", "Conversion failed.");
-            e.printStackTrace();
+            return;
         }
+
+        // perform the currency conversion in the background
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.load(() -> currencyConverter.convertCurrency(amount, toCurrency)),
+                convertedAmount -> resultLabel.setText(
+                        String.format("💰 %s %s = %s %s", amount.toPlainString(), fromCurrency,
+                                convertedAmount.toPlainString(), toCurrency)),
+                error -> {
+                    showAlert("❌ Error", "Conversion failed.");
+                    UI_ERRORS.increment();
+                });
     }
 
     // handle updating exchange rates from the API
     @FXML
     private void handleUpdateRates() {
-        boolean success = currencyConverter.updateCurrencyRates();  // update exchange rates from the API
-        if (success) {
-            showAlert("✅ Success", "Exchange rates updated successfully!");
-            loadCurrencyList();  // refresh currency list after update
-        } else {
-            showAlert("❌ Error", "Failed to update exchange rates.");
-        }
+        // update exchange rates from the API without blocking the UI
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.write(currencyConverter::updateCurrencyRates),
+                success -> {
+                    if (success) {
+                        showAlert("✅ Success", "Exchange rates updated successfully!");  // lists refresh via ratesListener
+                    } else {
+                        showAlert("❌ Error", "Failed to update exchange rates.");
+                    }
+                },
+                error -> {
+                    showAlert("❌ Error", "Failed to update exchange rates.");
+                    UI_ERRORS.increment();
+                });
     }
 
     // navigate back to the main screen
     @FXML
     private void handleBack() {
+        CurrencyConverter.removeRatesListener(ratesListener);  // this screen is going away
         SceneController sceneController = new SceneController(SceneManager.getPrimaryStage());
         sceneController.switchToSceneWithUser("main.fxml", userId);  // switch to main scene with user ID
     }
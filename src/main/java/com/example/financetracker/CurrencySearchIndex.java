@@ -0,0 +1,132 @@
+package com.example.financetracker;
+
+import java.util.BitSet;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+// a prefix index over currency codes and their display names, built once when the rates are loaded.
+// typing "eu" or "pou" looks up a precomputed set instead of scanning and upper-casing every entry
+public final class CurrencySearchIndex {
+    // prefixes up to this length are indexed directly; longer queries are checked against those candidates
+    private static final int INDEXED_PREFIX_LENGTH = 3;
+    // what separates words, in labels and in queries alike
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[\\s()\\-]+");
+
+    private final String[] codes;
+    private final String[] labels;  // "GBP - British Pound"
+    private final String[][] tokens;  // lower-case code and name words, per currency
+    private final Map<String, Integer> positionByCode = new HashMap<>();
+    private final Map<String, Integer> positionByLabel = new HashMap<>();
+    private final Map<String, BitSet> byPrefix = new HashMap<>();
+
+    public CurrencySearchIndex(List<String> currencyCodes) {
+        int size = currencyCodes.size();
+        codes = currencyCodes.toArray(new String[0]);
+        labels = new String[size];
+        tokens = new String[size][];
+
+        for (int i = 0; i < size; i++) {
+            String code = codes[i];
+            String name = displayName(code);
+            labels[i] = name.equals(code) ? code : code + " - " + name;
+            tokens[i] = words(code + " " + name);
+            positionByCode.put(code, i);
+            positionByLabel.put(labels[i], i);
+
+            for (String token : tokens[i]) {
+                for (int length = 1; length <= Math.min(INDEXED_PREFIX_LENGTH, token.length()); length++) {
+                    byPrefix.computeIfAbsent(token.substring(0, length), key -> new BitSet(size)).set(i);
+                }
+            }
+        }
+    }
+
+    // what a combo box shows for a currency code
+    public String label(String code) {
+        Integer position = positionByCode.get(code);
+        return position == null ? code : labels[position];
+    }
+
+    // turns typed or selected text back into a currency code, or null if it isn't one
+    public String resolve(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String trimmed = text.trim();
+        Integer position = positionByLabel.get(trimmed);
+        if (position == null) {
+            position = positionByCode.get(trimmed.toUpperCase(Locale.ROOT));
+        }
+        return position == null ? null : codes[position];
+    }
+
+    // a predicate for FilteredList that keeps the currencies where every word of the query starts a word of the
+    // code or name, e.g. "us dol" finds "USD - US Dollar" and "a d" finds "AUD - Australian Dollar"
+    public Predicate<String> matcher(String query) {
+        String[] queryWords = query == null ? new String[0] : words(query);
+        if (queryWords.length == 0) {
+            return null;  // no filter, show everything
+        }
+
+        BitSet result = null;
+        for (String word : queryWords) {
+            BitSet matches = wordMatches(word);
+            if (result == null) {
+                result = matches;
+            } else {
+                result.and(matches);
+            }
+            if (result.isEmpty()) {
+                return code -> false;
+            }
+        }
+
+        BitSet matched = result;
+        return code -> {
+            Integer position = positionByCode.get(code);
+            return position != null && matched.get(position);
+        };
+    }
+
+    // the currencies with a word starting with the given one, as a new set the caller may change
+    private BitSet wordMatches(String word) {
+        BitSet candidates = byPrefix.get(word.substring(0, Math.min(INDEXED_PREFIX_LENGTH, word.length())));
+        if (candidates == null) {
+            return new BitSet();
+        }
+        if (word.length() <= INDEXED_PREFIX_LENGTH) {
+            return (BitSet) candidates.clone();
+        }
+        // only the few candidates that share the first characters need a full check
+        BitSet matches = new BitSet(codes.length);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            for (String token : tokens[i]) {
+                if (token.startsWith(word)) {
+                    matches.set(i);
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    // lower-case words, without the empty ones a leading separator leaves
+    private static String[] words(String text) {
+        return WORD_SEPARATOR.splitAsStream(text.trim().toLowerCase(Locale.ROOT))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static String displayName(String code) {
+        try {
+            return Currency.getInstance(code).getDisplayName(Locale.UK);
+        } catch (IllegalArgumentException e) {
+            return code;  // e.g. BTC isn't an ISO 4217 currency
+        }
+    }
+}
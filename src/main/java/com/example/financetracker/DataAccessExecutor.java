@@ -0,0 +1,97 @@
+package com.example.financetracker;
+
+import javafx.application.Platform;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+// runs database and network work off the JavaFX Application Thread so slow queries never freeze the UI
+public final class DataAccessExecutor {
+    // one cheap virtual thread per task; blocking JDBC calls park the virtual thread, not a platform thread
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("data-access-", 0).factory());
+
+    // loads started by the current screen, cancelled when the user navigates away
+    private static final Set<CompletableFuture<?>> PENDING_LOADS = ConcurrentHashMap.newKeySet();
+
+    // a unit of data access work that may throw (SQLException, IOException, ...)
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws Exception;
+    }
+
+    private DataAccessExecutor() {
+    }
+
+    // runs a read for the current screen; it is cancelled if the scene is switched before it finishes
+    public static <T> CompletableFuture<T> load(Task<T> task) {
+        CompletableFuture<T> future = submit(task);
+        PENDING_LOADS.add(future);
+        future.whenComplete((value, error) -> PENDING_LOADS.remove(future));
+        return future;
+    }
+
+    // runs a write; writes are never cancelled by navigation so user changes are not lost
+    public static <T> CompletableFuture<T> write(Task<T> task) {
+        return submit(task);
+    }
+
+    // delivers the result of a future on the JavaFX Application Thread; cancelled futures are dropped silently
+    public static <T> void onFxThread(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        future.whenComplete((value, error) -> {
+            if (future.isCancelled() || error instanceof CancellationException) {
+                return;  // the screen that asked for this result is gone
+            }
+            Platform.runLater(() -> {
+                if (error == null) {
+                    onSuccess.accept(value);
+                } else {
+                    onFailure.accept(unwrap(error));
+                }
+            });
+        });
+    }
+
+    // cancels every in-flight load, called by SceneController before switching scenes
+    public static void cancelPendingLoads() {
+        for (CompletableFuture<?> future : PENDING_LOADS) {
+            future.cancel(true);
+        }
+        PENDING_LOADS.clear();
+    }
+
+    // stops accepting work, called when the application exits
+    public static void shutdown() {
+        cancelPendingLoads();
+        EXECUTOR.shutdownNow();
+    }
+
+    private static <T> CompletableFuture<T> submit(Task<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = EXECUTOR.submit(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        // CompletableFuture.cancel doesn't interrupt anything, so forward it to the worker thread
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.financetracker;
 
+import javafx.application.Platform;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
 
+import java.io.File;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 public class DatabaseManager {
+    // which backend to use: "sqlserver" (default) or "sqlite" for a local file with no server
+    private static final SqlDialect DIALECT = SqlDialect.fromName(System.getProperty("financetracker.storage", "sqlserver"));
+    // file used by the embedded backend. not the finance.db in the project folder, which has an older, incompatible schema
+    private static final String SQLITE_PATH = System.getProperty("financetracker.sqlite.path",
+            System.getProperty("user.home") + File.separator + ".financetracker" + File.separator + "finance.db");
+
     // URL for the database connection, which specifies the server, port, and database name
     private static final String DB_URL = "jdbc:sqlserver://localhost:1433;databaseName=FinanceDB;encrypt=true;trustServerCertificate=true";
     // Username for accessing the database
@@ -16,11 +24,26 @@ public class DatabaseManager {
     // Password for accessing the database
     private static final String DB_PASSWORD = "Passw0rd";
 
-    // method to establish and return a connection to the database
+    // pool settings, overridable with -D system properties
+    private static final int POOL_SIZE = Integer.getInteger("financetracker.pool.size", 10);
+    private static final long POOL_CHECKOUT_TIMEOUT_MS = Long.getLong("financetracker.pool.checkoutTimeoutMs", 10_000);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("financetracker.pool.idleTimeoutMs", 300_000);
+    private static final long POOL_LEAK_THRESHOLD_MS = Long.getLong("financetracker.pool.leakThresholdMs", 60_000);
+    private static final int POOL_STATEMENT_CACHE_SIZE = Integer.getInteger("financetracker.pool.statementCacheSize", 50);
+
+    // shared pool of open connections; closing a connection returns it to the pool
+    private static final ConnectionPool POOL = createPool();
+
+    // the SQL flavour of the configured backend, used by the repositories to build their statements
+    public static SqlDialect dialect() {
+        return DIALECT;
+    }
+
+    // method to check out a pooled connection to the database
     public static Connection getConnection() {
         try {
-            // attempt to get a connection to the database using the provided URL, username, and password
-            return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            // reuse an open connection if one is idle, otherwise open a new one (up to the pool size)
+            return POOL.getConnection();
         } catch (SQLException e) {
             // if the connection fails, display an error alert to the user and print the error stack trace for debugging
             showError("Could not connect to the database. Please check your connection settings.");
@@ -30,8 +53,46 @@ public class DatabaseManager {
         }
     }
 
-    // method to show an error message to the user
+    // returns the current pool metrics (active, idle, wait times)
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    // closes all pooled connections, called when the application exits
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+
+    private static ConnectionPool createPool() {
+        Properties properties = DIALECT.connectionProperties();
+        String url;
+        if (DIALECT == SqlDialect.SQLITE) {
+            File file = new File(SQLITE_PATH);
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();  // the driver creates the file but not its folder
+            }
+            url = "jdbc:sqlite:" + file.getPath();
+        } else {
+            url = DB_URL;
+            properties.setProperty("user", DB_USER);
+            properties.setProperty("password", DB_PASSWORD);
+        }
+        return new ConnectionPool(url, properties, POOL_SIZE,
+                POOL_CHECKOUT_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS, POOL_STATEMENT_CACHE_SIZE);
+    }
+
+    // method to show an error message to the user; safe to call from background data access threads
     private static void showError(String message) {
+        if (!Platform.isFxApplicationThread()) {
+            try {
+                Platform.runLater(() -> showError(message));
+            } catch (IllegalStateException e) {
+                // no JavaFX toolkit (e.g. DatabaseSetup run from the command line), just log it
+                System.err.println("❌ " + message);
+            }
+            return;
+        }
+
         // create an alert to display the error message to the user
         Alert alert = new Alert(AlertType.ERROR);
         alert.setTitle("❌ Database Connection Failed"); // set the alert's title
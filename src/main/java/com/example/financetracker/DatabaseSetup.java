@@ -1,82 +1,295 @@
 package com.example.financetracker;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 public class DatabaseSetup {
+    // every schema change, in order. never edit a migration that has shipped, add a new one instead.
+    // each backend has its own list; a change gets the same version number in both
+    private static final List<Migration> SQL_SERVER_MIGRATIONS = List.of(
+            new Migration(1, "baseline tables",
+                    // Users Table: stores user details including username, password (hashed), and email
+                    """
+                    IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='Users')
+                    CREATE TABLE Users (
+                        id INT IDENTITY(1,1) PRIMARY KEY,        -- Unique ID for each user
+                        username NVARCHAR(50) UNIQUE NOT NULL,    -- Username must be unique and not null
+                        password NVARCHAR(255) NOT NULL,          -- Store hashed password
+                        email NVARCHAR(100) UNIQUE NULL           -- Optional email address (unique if provided)
+                    )
+                    """,
+                    // Expenses Table: stores expense details for each user including amount, category, and description
+                    """
+                    IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='Expenses')
+                    CREATE TABLE Expenses (
+                        id INT IDENTITY(1,1) PRIMARY KEY,        -- Unique ID for each expense
+                        user_id INT NOT NULL,                     -- Foreign key to associate the expense with a user
+                        amount DECIMAL(10,2) NOT NULL,            -- The amount of the expense
+                        category NVARCHAR(50) NOT NULL,           -- Category of the expense (e.g., "Food", "Transport")
+                        description NVARCHAR(255) NULL,           -- Optional description for the expense
+                        date DATE DEFAULT GETDATE(),              -- Date of the expense, defaulting to the current date
+                        FOREIGN KEY (user_id) REFERENCES Users(id) ON DELETE CASCADE  -- Ensure expenses are deleted if the user is deleted
+                    )
+                    """,
+                    // Budgets Table: stores user budgets including monthly budget and alert threshold
+                    """
+                    IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='Budgets')
+                    CREATE TABLE Budgets (
+                        id INT IDENTITY(1,1) PRIMARY KEY,        -- Unique ID for each budget
+                        user_id INT NOT NULL,                     -- Foreign key to associate the budget with a user
+                        monthly_budget DECIMAL(10,2) NOT NULL,    -- Monthly budget amount for the user
+                        alert_threshold DECIMAL(5,2) DEFAULT 80,  -- Threshold percentage for alerting the user (default is 80%)
+                        FOREIGN KEY (user_id) REFERENCES Users(id) ON DELETE CASCADE  -- Ensure budgets are deleted if the user is deleted
+                    )
+                    """,
+                    // Exchange Rates Table: stores live exchange rates for different currencies
+                    """
+                    IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='ExchangeRates')
+                    CREATE TABLE ExchangeRates (
+                        id INT IDENTITY(1,1) PRIMARY KEY,        -- Unique ID for each exchange rate entry
+                        currency_code NVARCHAR(10) NOT NULL UNIQUE, -- Currency code (e.g., "USD", "EUR")
+                        rate_to_base DECIMAL(10,6) NOT NULL,       -- Exchange rate to the base currency
+                        last_updated DATETIME DEFAULT GETDATE()    -- Timestamp for when the rate was last updated
+                    )
+                    """,
+                    // Currency Cache Table: stores the full API response for offline conversion data
+                    """
+                    IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='CurrencyCache')
+                    CREATE TABLE CurrencyCache (
+                        id INT IDENTITY(1,1) PRIMARY KEY,        -- Unique ID for the cache entry
+                        rates NVARCHAR(MAX) NOT NULL,             -- Full JSON response containing exchange rates
+                        date_saved DATETIME DEFAULT GETDATE()     -- Timestamp of when the data was saved
+                    )
+                    """),
+            new Migration(2, "user categories and exchange_rates tables used by the app",
+                    // UserCategories Table: custom expense categories created by each user
+                    """
+                    IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='UserCategories')
+                    CREATE TABLE UserCategories (
+                        id INT IDENTITY(1,1) PRIMARY KEY,        -- Unique ID for each custom category
+                        user_id INT NOT NULL,                     -- Foreign key to the user who created the category
+                        category_name NVARCHAR(50) NOT NULL,      -- Name of the category
+                        CONSTRAINT UQ_UserCategories_user_name UNIQUE (user_id, category_name),
+                        FOREIGN KEY (user_id) REFERENCES Users(id) ON DELETE CASCADE
+                    )
+                    """,
+                    // exchange_rates Table: the rates CurrencyConverter reads and writes
+                    """
+                    IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='exchange_rates')
+                    CREATE TABLE exchange_rates (
+                        currency_code NVARCHAR(10) NOT NULL PRIMARY KEY, -- Currency code (e.g., "USD", "EUR")
+                        rate_to_base DECIMAL(18,6) NOT NULL,       -- Exchange rate to the base currency (wide enough for e.g. IDR)
+                        last_updated DATETIME DEFAULT GETDATE()    -- Timestamp for when the rate was last updated
+                    )
+                    """),
+            new Migration(3, "covering indexes for the hot expense queries",
+                    // expense table pages and monthly totals: seek on user, read in (date, id) order
+                    "CREATE INDEX IX_Expenses_user_date ON Expenses (user_id, date DESC, id DESC) INCLUDE (amount, category)",
+                    // per-category totals for the pie chart
+                    "CREATE INDEX IX_Expenses_user_category ON Expenses (user_id, category) INCLUDE (amount)",
+                    // one budget per user, looked up by user
+                    "CREATE UNIQUE INDEX IX_Budgets_user ON Budgets (user_id)",
+                    // the last fetch is found by date_saved
+                    "CREATE INDEX IX_CurrencyCache_date_saved ON CurrencyCache (date_saved DESC)"),
+            new Migration(4, "monthly spend rollup",
+                    // MonthlySpend Table: total spent per user, month and category, maintained by ExpenseRepository
+                    """
+                    CREATE TABLE MonthlySpend (
+                        user_id INT NOT NULL,                     -- Foreign key to the user
+                        year_month INT NOT NULL,                  -- Month as yyyymm, e.g. 202410
+                        category NVARCHAR(50) NOT NULL,           -- Category of the expenses
+                        total DECIMAL(14,2) NOT NULL,             -- Sum of the expenses in this month and category
+                        CONSTRAINT PK_MonthlySpend PRIMARY KEY (user_id, year_month, category),
+                        FOREIGN KEY (user_id) REFERENCES Users(id) ON DELETE CASCADE
+                    )
+                    """,
+                    // backfill from the expenses recorded so far
+                    """
+                    INSERT INTO MonthlySpend (user_id, year_month, category, total)
+                    SELECT user_id, YEAR(date) * 100 + MONTH(date), category, SUM(amount)
+                    FROM Expenses
+                    GROUP BY user_id, YEAR(date) * 100 + MONTH(date), category
+                    """)
+    );
+
+    // the same schema for the embedded SQLite backend
+    private static final List<Migration> SQLITE_MIGRATIONS = List.of(
+            new Migration(1, "baseline tables",
+                    """
+                    CREATE TABLE IF NOT EXISTS Users (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        username TEXT UNIQUE NOT NULL,
+                        password TEXT NOT NULL,
+                        email TEXT UNIQUE NULL
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS Expenses (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        user_id INTEGER NOT NULL,
+                        amount DECIMAL(10,2) NOT NULL,
+                        category TEXT NOT NULL,
+                        description TEXT NULL,
+                        date DATETIME DEFAULT (datetime('now', 'localtime')),  -- stored as 'yyyy-MM-dd HH:mm:ss' text
+                        FOREIGN KEY (user_id) REFERENCES Users(id) ON DELETE CASCADE
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS Budgets (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        user_id INTEGER NOT NULL,
+                        monthly_budget DECIMAL(10,2) NOT NULL,
+                        alert_threshold DECIMAL(5,2) DEFAULT 80,
+                        FOREIGN KEY (user_id) REFERENCES Users(id) ON DELETE CASCADE
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS CurrencyCache (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        rates TEXT NOT NULL,
+                        date_saved DATETIME DEFAULT (datetime('now', 'localtime'))
+                    )
+                    """),
+            new Migration(2, "user categories and exchange_rates tables used by the app",
+                    """
+                    CREATE TABLE IF NOT EXISTS UserCategories (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        user_id INTEGER NOT NULL,
+                        category_name TEXT NOT NULL,
+                        UNIQUE (user_id, category_name),
+                        FOREIGN KEY (user_id) REFERENCES Users(id) ON DELETE CASCADE
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS exchange_rates (
+                        currency_code TEXT NOT NULL PRIMARY KEY,
+                        rate_to_base DECIMAL(18,6) NOT NULL,
+                        last_updated DATETIME DEFAULT (datetime('now', 'localtime'))
+                    )
+                    """),
+            new Migration(3, "covering indexes for the hot expense queries",
+                    // SQLite has no INCLUDE, so the covered columns go at the end of the key
+                    "CREATE INDEX IX_Expenses_user_date ON Expenses (user_id, date DESC, id DESC, amount, category)",
+                    "CREATE INDEX IX_Expenses_user_category ON Expenses (user_id, category, amount)",
+                    "CREATE UNIQUE INDEX IX_Budgets_user ON Budgets (user_id)",
+                    "CREATE INDEX IX_CurrencyCache_date_saved ON CurrencyCache (date_saved DESC)"),
+            new Migration(4, "monthly spend rollup",
+                    """
+                    CREATE TABLE MonthlySpend (
+                        user_id INTEGER NOT NULL,
+                        year_month INTEGER NOT NULL,
+                        category TEXT NOT NULL,
+                        total DECIMAL(14,2) NOT NULL,
+                        PRIMARY KEY (user_id, year_month, category),
+                        FOREIGN KEY (user_id) REFERENCES Users(id) ON DELETE CASCADE
+                    ) WITHOUT ROWID
+                    """,
+                    """
+                    INSERT INTO MonthlySpend (user_id, year_month, category, total)
+                    SELECT user_id, CAST(strftime('%Y%m', date) AS INTEGER), category, SUM(amount)
+                    FROM Expenses
+                    GROUP BY user_id, CAST(strftime('%Y%m', date) AS INTEGER), category
+                    """)
+    );
+
     public static void main(String[] args) {
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement()) {
+        try (Connection conn = DatabaseManager.getConnection()) {
 
             // print a message indicating that the database setup process has started
             System.out.println("🚀 Setting up the database...");
 
-            // Users Table: stores user details including username, password (hashed), and email
-            stmt.execute("""
-                IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='Users')
-                CREATE TABLE Users (
-                    id INT IDENTITY(1,1) PRIMARY KEY,        -- Unique ID for each user
-                    username NVARCHAR(50) UNIQUE NOT NULL,    -- Username must be unique and not null
-                    password NVARCHAR(255) NOT NULL,          -- Store hashed password
-                    email NVARCHAR(100) UNIQUE NULL           -- Optional email address (unique if provided)
-                )
-            """);
-
-            // Expenses Table: stores expense details for each user including amount, category, and description
-            stmt.execute("""
-                IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='Expenses')
-                CREATE TABLE Expenses (
-                    id INT IDENTITY(1,1) PRIMARY KEY,        -- Unique ID for each expense
-                    user_id INT NOT NULL,                     -- Foreign key to associate the expense with a user
-                    amount DECIMAL(10,2) NOT NULL,            -- The amount of the expense
-                    category NVARCHAR(50) NOT NULL,           -- Category of the expense (e.g., "Food", "Transport")
-                    description NVARCHAR(255) NULL,           -- Optional description for the expense
-                    date DATE DEFAULT GETDATE(),              -- Date of the expense, defaulting to the current date
-                    FOREIGN KEY (user_id) REFERENCES Users(id) ON DELETE CASCADE  -- Ensure expenses are deleted if the user is deleted
-                )
-            """);
-
-            // Budgets Table: stores user budgets including monthly budget and alert threshold
-            stmt.execute("""
-                IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='Budgets')
-                CREATE TABLE Budgets (
-                    id INT IDENTITY(1,1) PRIMARY KEY,        -- Unique ID for each budget
-                    user_id INT NOT NULL,                     -- Foreign key to associate the budget with a user
-                    monthly_budget DECIMAL(10,2) NOT NULL,    -- Monthly budget amount for the user
-                    alert_threshold DECIMAL(5,2) DEFAULT 80,  -- Threshold percentage for alerting the user (default is 80%)
-                    FOREIGN KEY (user_id) REFERENCES Users(id) ON DELETE CASCADE  -- Ensure budgets are deleted if the user is deleted
-                )
-            """);
-
-            // Exchange Rates Table: stores live exchange rates for different currencies
-            stmt.execute("""
-                IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='ExchangeRates')
-                CREATE TABLE ExchangeRates (
-                    id INT IDENTITY(1,1) PRIMARY KEY,        -- Unique ID for each exchange rate entry
-                    currency_code NVARCHAR(10) NOT NULL UNIQUE, -- Currency code (e.g., "USD", "EUR")
-                    rate_to_base DECIMAL(10,6) NOT NULL,       -- Exchange rate to the base currency
-                    last_updated DATETIME DEFAULT GETDATE()    -- Timestamp for when the rate was last updated
-                )
-            """);
-
-            // Currency Cache Table: stores the full API response for offline conversion data
-            stmt.execute("""
-                IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='CurrencyCache')
-                CREATE TABLE CurrencyCache (
-                    id INT IDENTITY(1,1) PRIMARY KEY,        -- Unique ID for the cache entry
-                    rates NVARCHAR(MAX) NOT NULL,             -- Full JSON response containing exchange rates
-                    date_saved DATETIME DEFAULT GETDATE()     -- Timestamp of when the data was saved
-                )
-            """);
+            int applied = migrate(conn);
 
             // print a message indicating that the database setup was successful
-            System.out.println("✅ Database setup complete!");
+            System.out.println("✅ Database setup complete! (" + applied + " migration(s) applied)");
 
         } catch (SQLException e) {
             // print an error message and stack trace if the database setup fails
             System.err.println("❌ Database setup failed!");
             e.printStackTrace();
+        } finally {
+            DatabaseManager.shutdown();
+        }
+    }
+
+    // brings the schema up to date using a pooled connection, called at application startup
+    public static int migrate() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return migrate(conn);
+        }
+    }
+
+    // brings the schema up to date and returns how many migrations were applied. already applied versions
+    // are recorded in SchemaVersion, so an up-to-date database costs a single query
+    public static int migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(DatabaseManager.dialect() == SqlDialect.SQLITE
+                    ? """
+                    CREATE TABLE IF NOT EXISTS SchemaVersion (
+                        version INTEGER PRIMARY KEY,
+                        description TEXT NOT NULL,
+                        applied_at DATETIME DEFAULT (datetime('now', 'localtime'))
+                    )
+                    """
+                    : """
+                    IF NOT EXISTS (SELECT * FROM sys.tables WHERE name='SchemaVersion')
+                    CREATE TABLE SchemaVersion (
+                        version INT PRIMARY KEY,                  -- Migration number
+                        description NVARCHAR(255) NOT NULL,       -- What the migration did
+                        applied_at DATETIME DEFAULT GETDATE()     -- When it was applied
+                    )
+                    """);
         }
+
+        int current = currentVersion(conn);
+        int applied = 0;
+        List<Migration> migrations = DatabaseManager.dialect() == SqlDialect.SQLITE
+                ? SQLITE_MIGRATIONS : SQL_SERVER_MIGRATIONS;
+        for (Migration migration : migrations) {
+            if (migration.version() <= current) {
+                continue;
+            }
+            apply(conn, migration);
+            applied++;
+        }
+        return applied;
+    }
+
+    // highest applied migration, 0 for a new database
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT MAX(version) AS version FROM SchemaVersion");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt("version") : 0;
+        }
+    }
+
+    // runs one migration and records it, all or nothing
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        System.out.println("⏳ Applying migration " + migration.version() + ": " + migration.description());
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement();
+             PreparedStatement record = conn.prepareStatement(
+                     "INSERT INTO SchemaVersion (version, description) VALUES (?, ?)")) {
+            for (String sql : migration.statements()) {
+                stmt.execute(sql);
+            }
+            record.setInt(1, migration.version());
+            record.setString(2, migration.description());
+            record.executeUpdate();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    // one numbered schema change
+    private record Migration(int version, String description, String... statements) {
     }
 }
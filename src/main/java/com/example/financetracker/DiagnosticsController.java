@@ -0,0 +1,140 @@
+package com.example.financetracker;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+
+import java.time.format.DateTimeFormatter;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// shows the slow query log and the metrics snapshot, to find which query degrades as data grows
+public class DiagnosticsController {
+    @FXML private TextField thresholdField;  // slow query threshold in milliseconds
+    @FXML private Label summaryLabel;         // how many slow queries there have been
+    @FXML private TableView<SlowQueryLog.SlowQuery> slowQueryTable;  // recent slow queries, newest first
+    @FXML private TableColumn<SlowQueryLog.SlowQuery, String> timeColumn;
+    @FXML private TableColumn<SlowQueryLog.SlowQuery, String> queryColumn;
+    @FXML private TableColumn<SlowQueryLog.SlowQuery, String> millisColumn;
+    @FXML private TableColumn<SlowQueryLog.SlowQuery, String> rowsColumn;
+    @FXML private TableColumn<SlowQueryLog.SlowQuery, String> threadColumn;
+    @FXML private TextArea detailArea;   // SQL, parameters and plan of the selected query
+    @FXML private TextArea metricsArea;  // Metrics.snapshot()
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final Metrics.Counter UI_ERRORS = Metrics.counter("ui.errors", "screen", "diagnostics");
+
+    private int userId;  // user id to return to the main screen with
+    // plans already worked out for entries of the log, so selecting one again doesn't run EXPLAIN again
+    private final Map<SlowQueryLog.SlowQuery, String> plans = new IdentityHashMap<>();
+
+    @FXML
+    public void initialize() {
+        timeColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().at().format(TIME_FORMAT)));
+        queryColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().query()));
+        millisColumn.setCellValueFactory(cellData ->
+                new SimpleStringProperty(String.format("%.1f", cellData.getValue().millis())));
+        rowsColumn.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().rows())));
+        threadColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().thread()));
+        slowQueryTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        slowQueryTable.getSelectionModel().selectedItemProperty().addListener((obs, oldQuery, newQuery) -> showDetail(newQuery));
+
+    }
+
+    // set the user ID for this scene; SceneController keeps this screen, so this runs on every visit
+    public void setUserId(int userId) {
+        this.userId = userId;
+        thresholdField.setText(String.valueOf(SlowQueryLog.thresholdMillis()));
+        refresh();
+    }
+
+    @FXML
+    private void handleApplyThreshold() {
+        try {
+            SlowQueryLog.setThresholdMillis(Long.parseLong(thresholdField.getText().trim()));
+        } catch (IllegalArgumentException e) {  // also NumberFormatException
+            showAlert("❌ Error", "Enter the threshold as a whole number of milliseconds.");
+            thresholdField.setText(String.valueOf(SlowQueryLog.thresholdMillis()));
+        }
+    }
+
+    @FXML
+    private void handleRefresh() {
+        refresh();
+    }
+
+    @FXML
+    private void handleClear() {
+        SlowQueryLog.clear();
+        refresh();
+    }
+
+    // reads the log and the metrics again; both are in memory, so this stays on the FX thread
+    private void refresh() {
+        plans.clear();  // the data may have changed since, so plans are worked out afresh
+        slowQueryTable.getItems().setAll(SlowQueryLog.recent());
+        summaryLabel.setText(SlowQueryLog.recorded() + " slow queries, showing the last "
+                + slowQueryTable.getItems().size());
+        metricsArea.setText(Metrics.snapshot());
+        showDetail(null);
+    }
+
+    // shows the SQL and parameters straight away and the plan once it has been worked out in the background
+    private void showDetail(SlowQueryLog.SlowQuery query) {
+        if (query == null) {
+            detailArea.clear();
+            return;
+        }
+        if (plans.containsKey(query)) {
+            showDetail(query, plans.get(query));
+            return;
+        }
+        showDetail(query, "  (working it out...)\n");
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.load(() -> SlowQueryLog.explain(query)),
+                plan -> {
+                    String shown = plan == null ? "  (not available)\n" : plan;
+                    plans.put(query, shown);
+                    // only if the query is still the one selected
+                    if (slowQueryTable.getSelectionModel().getSelectedItem() == query) {
+                        showDetail(query, shown);
+                    }
+                },
+                error -> {
+                    if (slowQueryTable.getSelectionModel().getSelectedItem() == query) {
+                        showDetail(query, "  (could not be worked out: " + error.getMessage() + ")\n");
+                    }
+                    UI_ERRORS.increment();
+                });
+    }
+
+    private void showDetail(SlowQueryLog.SlowQuery query, String plan) {
+        StringBuilder detail = new StringBuilder();
+        detail.append(query.succeeded() ? "" : "FAILED\n")
+                .append(query.sql().strip()).append("\n\n");
+        if (!query.binds().isEmpty()) {
+            detail.append("Parameters:\n");
+            for (int i = 0; i < query.binds().size(); i++) {
+                detail.append("  ").append(i + 1).append(" = ").append(query.binds().get(i)).append('\n');
+            }
+            detail.append('\n');
+        }
+        detail.append("Plan:\n").append(plan);
+        detailArea.setText(detail.toString());
+    }
+
+    // navigate back to the main screen
+    @FXML
+    private void handleBack() {
+        SceneController sceneController = new SceneController(SceneManager.getPrimaryStage());
+        sceneController.switchToSceneWithUser("main.fxml", userId);
+    }
+
+    // utility method to show alerts
+    private void showAlert(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);  // create an info alert
+        alert.setTitle(title);  // set the alert title
+        alert.setContentText(message);  // set the message content
+        alert.showAndWait();  // display the alert and wait for user interaction
+    }
+}
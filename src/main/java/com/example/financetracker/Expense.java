@@ -1,20 +1,39 @@
 package com.example.financetracker;
 
-public class Expense {
-    private final String category;
-    private final double amount;
-    private final String date;
-    private final String time;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
-    public Expense(String category, double amount, String date, String time) {
-        this.category = category;
-        this.amount = amount;
-        this.date = date;
-        this.time = time;
+// one expense: a flyweight view of a row in an ExpenseStore, nothing is copied out until a getter is called
+public final class Expense {
+    private static final DateTimeFormatter UK_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter UK_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final ExpenseStore store;
+    private final int row;
+
+    Expense(ExpenseStore store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+
+    public int getId() { return store.id(row); }  // primary key of the row in the Expenses table
+    public String getCategory() { return store.category(row); }
+    public String getDescription() { return store.description(row); }  // null when none was entered
+    public long getAmountInPence() { return store.amountInPence(row); }
+    public Money getAmount() { return Money.ofPence(store.amountInPence(row)); }
+    public LocalDateTime getDateTime() { return store.dateTime(row); }
+    public long getEpochSecond() { return store.epochSecond(row); }  // for sorting without building a date
+    public String getDate() { return getDateTime().format(UK_DATE_FORMAT); }
+    public String getTime() { return getDateTime().format(UK_TIME_FORMAT); }
+
+    // two views are equal when they show the same row of the same store
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Expense expense && expense.store == store && expense.row == row;
     }
 
-    public String getCategory() { return category; }
-    public double getAmount() { return amount; }
-    public String getDate() { return date; }
-    public String getTime() { return time; }
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(store) * 31 + row;
+    }
 }
@@ -0,0 +1,102 @@
+package com.example.financetracker;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// running totals for one user (per category, overall and for the current month) plus their monthly budget.
+// loaded once with a single GROUP BY query, then kept up to date with deltas as expenses are added and deleted
+// so the expense screen never has to re-query totals after a change. totals are kept in pence, so any number
+// of adds and removes leaves them exact
+public class ExpenseAggregates {
+    // aggregates for users that have been loaded during this session
+    private static final Map<Integer, ExpenseAggregates> CACHE = new ConcurrentHashMap<>();
+
+    private final int userId;
+    private final YearMonth month;  // the month monthlyTotal refers to
+    private final Map<String, long[]> categoryTotals = new LinkedHashMap<>();  // category -> {pence}
+    private long grandTotal;
+    private long monthlyTotal;
+    private Money monthlyBudget = Money.ZERO;
+
+    public ExpenseAggregates(int userId, YearMonth month) {
+        this.userId = userId;
+        this.month = month;
+    }
+
+    // returns the cached aggregates for a user, or null if they need to be (re)loaded
+    public static ExpenseAggregates cached(int userId) {
+        ExpenseAggregates aggregates = CACHE.get(userId);
+        if (aggregates != null && !aggregates.month.equals(YearMonth.now())) {
+            CACHE.remove(userId, aggregates);  // a new month has started, the monthly total is stale
+            return null;
+        }
+        return aggregates;
+    }
+
+    public static void cache(ExpenseAggregates aggregates) {
+        CACHE.put(aggregates.userId, aggregates);
+    }
+
+    // drops a user's aggregates, for writes that don't go through add/remove
+    public static void invalidate(int userId) {
+        CACHE.remove(userId);
+    }
+
+    // seeds a category from the initial GROUP BY query
+    public synchronized void putCategory(String category, Money total, Money monthTotal) {
+        categoryTotals.computeIfAbsent(category, key -> new long[1])[0] += total.minorUnits();
+        grandTotal += total.minorUnits();
+        monthlyTotal += monthTotal.minorUnits();
+    }
+
+    // applies a newly inserted expense
+    public synchronized void add(String category, Money amount, LocalDate date) {
+        long pence = amount.minorUnits();
+        categoryTotals.computeIfAbsent(category, key -> new long[1])[0] += pence;
+        grandTotal += pence;
+        if (YearMonth.from(date).equals(month)) {
+            monthlyTotal += pence;
+        }
+    }
+
+    // applies a deleted expense
+    public synchronized void remove(String category, Money amount, LocalDate date) {
+        long pence = amount.minorUnits();
+        long[] total = categoryTotals.get(category);
+        if (total != null && (total[0] -= pence) == 0) {
+            categoryTotals.remove(category);  // nothing left in this category, drop its chart slice
+        }
+        grandTotal -= pence;
+        if (YearMonth.from(date).equals(month)) {
+            monthlyTotal -= pence;
+        }
+    }
+
+    public synchronized void setMonthlyBudget(Money monthlyBudget) {
+        this.monthlyBudget = monthlyBudget;
+    }
+
+    // copy of the per-category totals, safe to iterate while the aggregates change
+    public synchronized Map<String, Money> categoryTotals() {
+        Map<String, Money> totals = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> entry : categoryTotals.entrySet()) {
+            totals.put(entry.getKey(), Money.ofPence(entry.getValue()[0]));
+        }
+        return totals;
+    }
+
+    public synchronized Money grandTotal() {
+        return Money.ofPence(grandTotal);
+    }
+
+    public synchronized Money monthlyTotal() {
+        return Money.ofPence(monthlyTotal);
+    }
+
+    public synchronized Money monthlyBudget() {
+        return monthlyBudget;
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.financetracker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// exports a user's expenses to a file while they stream out of the database, one row at a time, so memory stays
+// flat however many rows there are. text formats go through a reused row buffer and a 64 KB direct buffer straight
+// into a FileChannel. the file is written next to the target and moved into place when complete.
+// blocking, run it through DataAccessExecutor.write
+public class ExpenseExporter {
+    private static final int CHANNEL_BUFFER_SIZE = 1 << 16;
+    private static final DateTimeFormatter CSV_TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter JSON_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    public enum Format {
+        CSV("csv"),
+        JSON_LINES("jsonl"),
+        COLUMNAR("ftcx");  // see ColumnarExpenseFile
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        // picks the format from a file name, CSV if the extension isn't recognised
+        public static Format forFile(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            for (Format format : values()) {
+                if (name.endsWith("." + format.extension)) {
+                    return format;
+                }
+            }
+            return name.endsWith(".json") ? JSON_LINES : CSV;
+        }
+    }
+
+    // what an export did
+    public record Result(long rows, long bytes, double seconds) {
+        public double rowsPerSecond() {
+            return seconds <= 0 ? 0 : rows / seconds;
+        }
+    }
+
+    private final ExpenseRepository expenseRepository = new ExpenseRepository();
+
+    public Result export(int userId, Path target, Format format) throws IOException, SQLException {
+        long start = System.nanoTime();
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        long rows;
+        try {
+            rows = switch (format) {
+                case CSV -> exportText(userId, partial, true);
+                case JSON_LINES -> exportText(userId, partial, false);
+                case COLUMNAR -> exportColumnar(userId, partial);
+            };
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(partial);  // only still there if the export failed
+        }
+        return new Result(rows, Files.size(target), (System.nanoTime() - start) / 1e9);
+    }
+
+    private long exportText(int userId, Path file, boolean csv) throws IOException, SQLException {
+        try (ChannelTextWriter writer = new ChannelTextWriter(file)) {
+            StringBuilder line = new StringBuilder(256);  // reused for every row
+            if (csv) {
+                // "Paid out" rather than "Amount" so the file can be imported again as spending
+                writer.write("Date,Time,Category,Description,Paid out\n");
+            }
+            return expenseRepository.forEach(userId, (id, date, category, description, amountPence) -> {
+                line.setLength(0);
+                if (csv) {
+                    appendCsvRow(line, date, category, description, amountPence);
+                } else {
+                    appendJsonRow(line, id, date, category, description, amountPence);
+                }
+                writer.write(line);
+            });
+        }
+    }
+
+    private long exportColumnar(int userId, Path file) throws IOException, SQLException {
+        try (ColumnarExpenseFile.Writer writer = new ColumnarExpenseFile.Writer(file)) {
+            return expenseRepository.forEach(userId, (id, date, category, description, amountPence) ->
+                    writer.append(date.toLocalDateTime().toLocalDate(), category, amountPence));
+        }
+    }
+
+    // 2024-01-15,09:30:00,Food,"Tesco, Camden",12.50
+    private static void appendCsvRow(StringBuilder line, Timestamp date, String category, String description,
+                                     long amountPence) {
+        LocalDateTime dateTime = date.toLocalDateTime();
+        line.append(dateTime.toLocalDate()).append(',');
+        CSV_TIME.formatTo(dateTime, line);
+        line.append(',');
+        appendCsvField(line, category);
+        line.append(',');
+        appendCsvField(line, description == null ? "" : description);
+        line.append(',');
+        Money.appendPlain(line, amountPence, Money.fractionDigits(Money.HOME_CURRENCY));
+        line.append('\n');
+    }
+
+    // {"id":1,"date":"2024-01-15T09:30:00","category":"Food","description":"Tesco","amount":12.50}
+    private static void appendJsonRow(StringBuilder line, int id, Timestamp date, String category, String description,
+                                      long amountPence) {
+        line.append("{\"id\":").append(id).append(",\"date\":\"");
+        JSON_DATE.formatTo(date.toLocalDateTime(), line);
+        line.append("\",\"category\":");
+        appendJsonString(line, category);
+        line.append(",\"description\":");
+        if (description == null) {
+            line.append("null");
+        } else {
+            appendJsonString(line, description);
+        }
+        line.append(",\"amount\":");
+        Money.appendPlain(line, amountPence, Money.fractionDigits(Money.HOME_CURRENCY));
+        line.append("}\n");
+    }
+
+    private static void appendCsvField(StringBuilder line, String value) {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    // UTF-8 text into a FileChannel through one reused direct buffer
+    private static final class ChannelTextWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(CHANNEL_BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+        private ChannelTextWriter(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+        }
+
+        void write(CharSequence text) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(text);
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, false);
+                if (result.isUnderflow()) {
+                    return;
+                }
+                if (result.isOverflow()) {
+                    drain();
+                } else {
+                    result.throwException();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                encoder.encode(CharBuffer.allocate(0), buffer, true);
+                encoder.flush(buffer);
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.financetracker;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+
+// which expenses a query looks at: a date range [from, to), one category and an amount range, each optional (null).
+// the conditions are added to the SQL after "user_id = ?", so the (user_id, date) index narrows the date range
+// and category and amount are checked from the columns it includes, without fetching rows into the client
+public record ExpenseFilter(LocalDateTime from, LocalDateTime to, String category, Money minAmount, Money maxAmount) {
+    public static final ExpenseFilter ALL = new ExpenseFilter(null, null, null, null, null);
+
+    public ExpenseFilter {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("The start of a date range must be before its end.");
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new IllegalArgumentException("The minimum amount is larger than the maximum.");
+        }
+    }
+
+    // from the first day of from up to, but not including, the day toExclusive
+    public static ExpenseFilter between(LocalDate from, LocalDate toExclusive) {
+        return new ExpenseFilter(from.atStartOfDay(), toExclusive.atStartOfDay(), null, null, null);
+    }
+
+    public static ExpenseFilter thisMonth() {
+        YearMonth month = YearMonth.now();
+        return between(month.atDay(1), month.plusMonths(1).atDay(1));
+    }
+
+    public static ExpenseFilter thisYear() {
+        int year = LocalDate.now().getYear();
+        return between(LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+    }
+
+    // the last n days, today included
+    public static ExpenseFilter lastDays(int days) {
+        LocalDate today = LocalDate.now();
+        return between(today.minusDays(days - 1), today.plusDays(1));
+    }
+
+    public ExpenseFilter withCategory(String category) {
+        return new ExpenseFilter(from, to, category, minAmount, maxAmount);
+    }
+
+    public ExpenseFilter withAmountRange(Money minAmount, Money maxAmount) {
+        return new ExpenseFilter(from, to, category, minAmount, maxAmount);
+    }
+
+    public boolean isAll() {
+        return from == null && to == null && category == null && minAmount == null && maxAmount == null;
+    }
+
+    // true when the rollup can answer totals: no amount range and the dates (if any) are whole months
+    boolean coversWholeMonths() {
+        return minAmount == null && maxAmount == null && isMonthStart(from) && isMonthStart(to);
+    }
+
+    // whether an expense already in memory (e.g. one just added) belongs in the filtered view
+    public boolean matches(Expense expense) {
+        LocalDateTime date = expense.getDateTime();
+        long pence = expense.getAmountInPence();
+        return (from == null || !date.isBefore(from))
+                && (to == null || date.isBefore(to))
+                && (category == null || category.equals(expense.getCategory()))
+                && (minAmount == null || pence >= minAmount.minorUnits())
+                && (maxAmount == null || pence <= maxAmount.minorUnits());
+    }
+
+    // the conditions for a query on Expenses, each starting with " AND "; bind them with bind()
+    String sql() {
+        StringBuilder sql = new StringBuilder();
+        if (from != null) {
+            sql.append(" AND date >= ?");
+        }
+        if (to != null) {
+            sql.append(" AND date < ?");
+        }
+        if (category != null) {
+            sql.append(" AND category = ?");
+        }
+        if (minAmount != null) {
+            sql.append(" AND amount >= ?");
+        }
+        if (maxAmount != null) {
+            sql.append(" AND amount <= ?");
+        }
+        return sql.toString();
+    }
+
+    // the same conditions for MonthlySpend, only valid when coversWholeMonths()
+    String rollupSql() {
+        StringBuilder sql = new StringBuilder();
+        if (from != null) {
+            sql.append(" AND year_month >= ?");
+        }
+        if (to != null) {
+            sql.append(" AND year_month < ?");
+        }
+        if (category != null) {
+            sql.append(" AND category = ?");
+        }
+        return sql.toString();
+    }
+
+    // binds the parameters of sql() starting at index, returns the next free index
+    int bind(PreparedStatement pstmt, int index) throws SQLException {
+        if (from != null) {
+            pstmt.setTimestamp(index++, Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            pstmt.setTimestamp(index++, Timestamp.valueOf(to));
+        }
+        if (category != null) {
+            pstmt.setString(index++, category);
+        }
+        if (minAmount != null) {
+            pstmt.setBigDecimal(index++, minAmount.toDecimal());
+        }
+        if (maxAmount != null) {
+            pstmt.setBigDecimal(index++, maxAmount.toDecimal());
+        }
+        return index;
+    }
+
+    // binds the parameters of rollupSql() starting at index, returns the next free index
+    int bindRollup(PreparedStatement pstmt, int index) throws SQLException {
+        if (from != null) {
+            pstmt.setInt(index++, MonthlySpendRollup.yearMonthKey(YearMonth.from(from)));
+        }
+        if (to != null) {
+            pstmt.setInt(index++, MonthlySpendRollup.yearMonthKey(YearMonth.from(to)));
+        }
+        if (category != null) {
+            pstmt.setString(index++, category);
+        }
+        return index;
+    }
+
+    private static boolean isMonthStart(LocalDateTime date) {
+        return date == null || (date.getDayOfMonth() == 1 && date.toLocalTime().equals(LocalTime.MIDNIGHT));
+    }
+}
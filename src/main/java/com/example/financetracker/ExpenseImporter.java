@@ -0,0 +1,261 @@
+package com.example.financetracker;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// imports a CSV or OFX bank statement as expenses. the file is streamed a chunk of records at a time: while one
+// chunk is parsed and validated in parallel, the previous one is written with a single JDBC batch and transaction.
+// money coming in (salary, refunds) is skipped, only spending is imported. blocking, run it through
+// DataAccessExecutor.write so it stays off the FX thread and isn't cancelled by a scene switch
+public class ExpenseImporter {
+    // records per chunk, i.e. per batch and transaction
+    private static final int CHUNK_SIZE = Integer.getInteger("financetracker.import.chunkSize", 5_000);
+    // rejected rows listed in the result, the rest are only counted
+    private static final int MAX_REPORTED_ERRORS = 20;
+    // Expenses.amount is DECIMAL(10,2)
+    private static final Money MAX_AMOUNT = Money.ofPence(9_999_999_999L);
+
+    // marks a parsed row that is money in rather than spending
+    private static final Object SKIPPED = new Object();
+
+    // description keywords for statements that don't say the category themselves, checked in order
+    private static final Map<String, List<String>> CATEGORY_KEYWORDS = new LinkedHashMap<>();
+
+    static {
+        CATEGORY_KEYWORDS.put("Rent", List.of("rent", "landlord", "letting", "mortgage"));
+        CATEGORY_KEYWORDS.put("Transport", List.of("tfl", "trainline", "national rail", "uber trip", "rail",
+                "petrol", "shell", "esso", "parking", "taxi"));
+        CATEGORY_KEYWORDS.put("Food", List.of("tesco", "sainsbury", "asda", "aldi", "lidl", "morrisons", "waitrose",
+                "co-op", "deliveroo", "just eat", "uber eats", "mcdonald", "greggs", "pret", "starbucks", "costa",
+                "restaurant", "cafe"));
+        CATEGORY_KEYWORDS.put("Shopping", List.of("amazon", "argos", "ebay", "primark", "john lewis", "boots",
+                "asos", "ikea"));
+    }
+
+    private final List<String> categories;  // the user's categories, matched by name before the keywords
+
+    public ExpenseImporter(List<String> categories) {
+        this.categories = List.copyOf(categories);
+    }
+
+    // how far an import has got, reported after every chunk
+    public record Progress(long processed, long imported, long skipped, long rejected,
+                           long bytesRead, long totalBytes, double rowsPerSecond) {
+        // 0..1, for a progress bar
+        public double fraction() {
+            return totalBytes <= 0 ? 0 : Math.min(1, (double) bytesRead / totalBytes);
+        }
+    }
+
+    // what an import did. skipped rows are money in; rejected rows couldn't be read (see errors)
+    public record Result(long imported, long skipped, long rejected, List<String> errors, double seconds) {
+        public double rowsPerSecond() {
+            return seconds <= 0 ? 0 : (imported + skipped + rejected) / seconds;
+        }
+    }
+
+    // .ofx/.qfx files are read as OFX, anything else as CSV
+    public Result importFile(int userId, Path file, Consumer<Progress> onProgress) throws IOException, SQLException {
+        long totalBytes = Files.size(file);
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean ofx = name.endsWith(".ofx") || name.endsWith(".qfx");
+
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            StatementFormat format = ofx ? new OfxStatementFormat() : new CsvStatementFormat(reader);
+            return run(userId, format, reader, in, totalBytes, onProgress);
+        } finally {
+            // totals and the search index are rebuilt next time the expense screen asks for them
+            ExpenseAggregates.invalidate(userId);
+            ExpenseSearchIndex.invalidate(userId);
+        }
+    }
+
+    private Result run(int userId, StatementFormat format, BufferedReader reader, CountingInputStream in,
+                       long totalBytes, Consumer<Progress> onProgress) throws IOException, SQLException {
+        ExpenseRepository repository = new ExpenseRepository();
+        long start = System.nanoTime();
+        long recordsRead = 0;
+        long imported = 0;
+        long skipped = 0;
+        long rejected = 0;
+        List<String> errors = new ArrayList<>();
+
+        List<String> records = readChunk(format, reader);
+        CompletableFuture<Chunk> parsing = parseAsync(format, records, recordsRead);
+        recordsRead += records.size();
+
+        while (parsing != null) {
+            // read the next chunk while this one is still being parsed
+            List<String> nextRecords = readChunk(format, reader);
+
+            Chunk chunk = join(parsing);
+            parsing = nextRecords.isEmpty() ? null : parseAsync(format, nextRecords, recordsRead);
+            recordsRead += nextRecords.size();
+
+            // ...and write this chunk while the next one is parsed
+            imported += repository.insertBatch(userId, chunk.expenses());
+            skipped += chunk.skipped();
+            rejected += chunk.errors().size();
+            for (String error : chunk.errors()) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(error);
+                }
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long processed = imported + skipped + rejected;
+            onProgress.accept(new Progress(processed, imported, skipped, rejected, in.count(), totalBytes,
+                    seconds <= 0 ? 0 : processed / seconds));
+        }
+        return new Result(imported, skipped, rejected, Collections.unmodifiableList(errors),
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    private static List<String> readChunk(StatementFormat format, BufferedReader reader) throws IOException {
+        List<String> records = new ArrayList<>(CHUNK_SIZE);
+        String record;
+        while (records.size() < CHUNK_SIZE && (record = format.nextRecord(reader)) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    // parses and validates a chunk on the common fork/join pool, keeping the file's order
+    private CompletableFuture<Chunk> parseAsync(StatementFormat format, List<String> records, long firstRecord) {
+        return CompletableFuture.supplyAsync(() -> {
+            Object[] rows = new Object[records.size()];  // NewExpense, SKIPPED or an error message
+            IntStream.range(0, rows.length).parallel().forEach(i -> {
+                try {
+                    rows[i] = toExpense(format.parse(records.get(i)));
+                } catch (IllegalArgumentException e) {
+                    rows[i] = "record " + (firstRecord + i + 1) + ": " + e.getMessage();
+                }
+            });
+
+            List<ExpenseRepository.NewExpense> expenses = new ArrayList<>(rows.length);
+            List<String> errors = new ArrayList<>();
+            int skipped = 0;
+            for (Object row : rows) {
+                if (row instanceof ExpenseRepository.NewExpense expense) {
+                    expenses.add(expense);
+                } else if (row == SKIPPED) {
+                    skipped++;
+                } else {
+                    errors.add((String) row);
+                }
+            }
+            return new Chunk(expenses, skipped, errors);
+        });
+    }
+
+    // a statement line as an expense, SKIPPED for money coming in
+    private Object toExpense(StatementFormat.Transaction transaction) {
+        if (transaction.amount().signum() >= 0) {
+            return SKIPPED;
+        }
+        Money amount = transaction.amount().negate();
+        if (amount.compareTo(MAX_AMOUNT) > 0) {
+            throw new IllegalArgumentException("amount too large: " + amount.toPlainString());
+        }
+        String description = truncate(transaction.description(), 255);
+        String category = transaction.category() != null
+                ? truncate(transaction.category(), 50)
+                : categorise(description);
+        return new ExpenseRepository.NewExpense(transaction.date().atStartOfDay(), amount, category,
+                description.isEmpty() ? null : description);
+    }
+
+    // picks a category from the description: one of the user's own category names, then the keyword list
+    private String categorise(String description) {
+        String text = description.toLowerCase(Locale.ROOT);
+        for (String category : categories) {
+            if (!category.isEmpty() && containsWord(text, category.toLowerCase(Locale.ROOT))) {
+                return category;
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : CATEGORY_KEYWORDS.entrySet()) {
+            for (String keyword : entry.getValue()) {
+                if (containsWord(text, keyword)) {
+                    return entry.getKey();
+                }
+            }
+        }
+        return "Other";
+    }
+
+    // true if a word in the text starts with the keyword, so "rent" matches "rental" but not "current account"
+    private static boolean containsWord(String text, String keyword) {
+        for (int i = text.indexOf(keyword); i >= 0; i = text.indexOf(keyword, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String truncate(String text, int maxLength) {
+        return text.length() <= maxLength ? text : text.substring(0, maxLength);
+    }
+
+    private static Chunk join(CompletableFuture<Chunk> parsing) {
+        try {
+            return parsing.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+
+    // one parsed chunk, ready to write
+    private record Chunk(List<ExpenseRepository.NewExpense> expenses, int skipped, List<String> errors) {
+    }
+
+    // counts the bytes read from the file so progress can be shown as a fraction
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count = new AtomicLong();
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+
+        long count() {
+            return count.get();
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.example.financetracker;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// blocking data access for expenses and user categories; run these through DataAccessExecutor from the UI
+public class ExpenseRepository {
+    // SQL Server allows 2100 parameters per statement (SQLite 32766), stay well below it
+    private static final int MAX_IN_LIST = 1000;
+    // rows sent to the database per executeBatch call
+    private static final int MAX_BATCH_SIZE = 1000;
+    // rows the driver fetches per round trip when streaming a whole table
+    private static final int STREAM_FETCH_SIZE = 5000;
+
+    // loads one page of a user's expenses, newest first, starting after the given cursor (null for the first page).
+    // keyset pagination on (date, id) lets the database seek straight to the page instead of skipping rows
+    public Page findPage(int userId, Cursor after, int pageSize) throws SQLException {
+        return findPage(userId, ExpenseFilter.ALL, after, pageSize);
+    }
+
+    // the same for the expenses that match a filter
+    public Page findPage(int userId, ExpenseFilter filter, Cursor after, int pageSize) throws SQLException {
+        String sql = DatabaseManager.dialect().limit(
+                "SELECT id, category, description, amount, date FROM Expenses WHERE user_id = ?" + filter.sql() +
+                (after == null ? "" : " AND (date < ? OR (date = ? AND id < ?))") +
+                " ORDER BY date DESC, id DESC", pageSize);
+
+        ExpenseStore expenses = new ExpenseStore(pageSize);
+        Cursor last = null;
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int parameter = filter.bind(pstmt, 2);
+            pstmt.setInt(1, userId);
+            if (after != null) {
+                pstmt.setTimestamp(parameter++, after.date());
+                pstmt.setTimestamp(parameter++, after.date());
+                pstmt.setInt(parameter, after.id());
+            }
+            pstmt.setFetchSize(pageSize);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    Timestamp date = rs.getTimestamp("date");
+                    expenses.add(id, date.toLocalDateTime(), rs.getString("category"), rs.getString("description"),
+                            pence(rs, "amount"));
+                    last = new Cursor(date, id);
+                }
+            }
+        }
+        // a short page means there is nothing left to fetch
+        return new Page(expenses.views(), expenses.size() < pageSize ? null : last);
+    }
+
+    // every expense of a user in one compact store, oldest first, for analytics over the whole history.
+    // streamed through forEach, so only the store itself is ever held in memory
+    public ExpenseStore loadStore(int userId) throws SQLException {
+        ExpenseStore store = new ExpenseStore(1024);
+        try {
+            forEach(userId, (id, date, category, description, amountPence) ->
+                    store.add(id, date.toLocalDateTime(), category, description, amountPence));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);  // the visitor above doesn't do any I/O
+        }
+        return store;
+    }
+
+    // streams every expense of a user, oldest first, to the visitor without holding them in memory, returns the
+    // number of rows. the result set is forward-only and read-only with a large fetch size, so the driver pulls
+    // rows in big round trips and never buffers the whole table
+    public long forEach(int userId, ExpenseVisitor visitor) throws SQLException, IOException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT id, date, category, description, amount FROM Expenses WHERE user_id = ? ORDER BY date, id",
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            long rows = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    // read by position, the column order is fixed above
+                    visitor.visit(rs.getInt(1), rs.getTimestamp(2), rs.getString(3), rs.getString(4),
+                            Money.of(rs.getBigDecimal(5), Money.HOME_CURRENCY).minorUnits());
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+
+    // inserts a new expense dated now and returns it as stored (with its generated id and date).
+    // the MonthlySpend rollup is updated in the same transaction
+    public Expense insert(int userId, Money amount, String category) throws SQLException {
+        return insert(userId, amount, category, null);
+    }
+
+    // the same with a description (null or blank for none)
+    public Expense insert(int userId, Money amount, String category, String description) throws SQLException {
+        String storedDescription = description == null || description.isBlank() ? null : description.strip();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(DatabaseManager.dialect().insertReturning("Expenses",
+                     List.of("user_id", "amount", "category", "description", "date"),
+                     "?, ?, ?, ?, " + DatabaseManager.dialect().now(),
+                     List.of("id", "amount", "date")))) {
+
+            conn.setAutoCommit(false);
+            try {
+                pstmt.setInt(1, userId);
+                pstmt.setBigDecimal(2, amount.toDecimal());
+                pstmt.setString(3, category);
+                pstmt.setString(4, storedDescription);
+
+                Expense expense;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Insert did not return the new expense.");
+                    }
+                    expense = new ExpenseStore(1).add(rs.getInt("id"), rs.getTimestamp("date").toLocalDateTime(),
+                            category, storedDescription, pence(rs, "amount"));
+                }
+
+                MonthlySpendRollup rollup = new MonthlySpendRollup();
+                rollup.add(userId, expense.getDateTime().toLocalDate(), category, expense.getAmount());
+                rollup.apply(conn);
+
+                conn.commit();
+                return expense;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // inserts many expenses for one user with a single JDBC batch and one transaction, e.g. a chunk of an import.
+    // the MonthlySpend rollup gets one update per month and category instead of one per row
+    public int insertBatch(int userId, List<NewExpense> expenses) throws SQLException {
+        if (expenses.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO Expenses (user_id, amount, category, description, date) VALUES (?, ?, ?, ?, ?)")) {
+
+            conn.setAutoCommit(false);
+            try {
+                MonthlySpendRollup rollup = new MonthlySpendRollup();
+                int pending = 0;
+                for (NewExpense expense : expenses) {
+                    pstmt.setInt(1, userId);
+                    pstmt.setBigDecimal(2, expense.amount().toDecimal());
+                    pstmt.setString(3, expense.category());
+                    pstmt.setString(4, expense.description());
+                    pstmt.setTimestamp(5, Timestamp.valueOf(expense.date()));
+                    pstmt.addBatch();
+                    rollup.add(userId, expense.date().toLocalDate(), expense.category(), expense.amount());
+
+                    // send the rows in slices so the driver never buffers a whole import
+                    if (++pending == MAX_BATCH_SIZE) {
+                        pstmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    pstmt.executeBatch();
+                }
+                rollup.apply(conn);
+
+                conn.commit();
+                return expenses.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // deletes the given expenses by primary key in one batch and one transaction, returns the number of rows removed.
+    // user_id is checked as well so a user can never delete someone else's expense. the MonthlySpend rollup is
+    // reduced by exactly the rows that were deleted
+    public int delete(int userId, List<Integer> expenseIds) throws SQLException {
+        if (expenseIds.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "DELETE FROM Expenses WHERE id = ? AND user_id = ?")) {
+
+            conn.setAutoCommit(false);
+            try {
+                // amount, category and month of each row, needed to adjust the rollup
+                Map<Integer, RollupRow> rows = findRollupRows(conn, userId, expenseIds);
+
+                for (int expenseId : expenseIds) {
+                    pstmt.setInt(1, expenseId);
+                    pstmt.setInt(2, userId);
+                    pstmt.addBatch();
+                }
+
+                int rowsAffected = 0;
+                MonthlySpendRollup rollup = new MonthlySpendRollup();
+                int[] counts = pstmt.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    // drivers may report SUCCESS_NO_INFO (-2) instead of a row count
+                    int count = counts[i] == Statement.SUCCESS_NO_INFO ? 1 : Math.max(counts[i], 0);
+                    RollupRow row = rows.get(expenseIds.get(i));
+                    if (count > 0 && row != null) {
+                        rollup.add(userId, row.date(), row.category(), row.amount().negate());
+                    }
+                    rowsAffected += count;
+                }
+                rollup.apply(conn);
+
+                conn.commit();
+                return rowsAffected;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // reads the rollup-relevant columns of the given expenses, in chunks to stay under the parameter limit
+    private static Map<Integer, RollupRow> findRollupRows(Connection conn, int userId, List<Integer> expenseIds)
+            throws SQLException {
+        Map<Integer, RollupRow> rows = new HashMap<>();
+        for (int from = 0; from < expenseIds.size(); from += MAX_IN_LIST) {
+            List<Integer> chunk = expenseIds.subList(from, Math.min(from + MAX_IN_LIST, expenseIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT id, amount, category, date FROM Expenses WHERE user_id = ? AND id IN (" + placeholders + ")")) {
+                pstmt.setInt(1, userId);
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setInt(i + 2, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.put(rs.getInt("id"), new RollupRow(Money.ofPence(pence(rs, "amount")), rs.getString("category"),
+                                rs.getDate("date").toLocalDate()));
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    // loads the per-category, overall and monthly totals for a user from the MonthlySpend rollup,
+    // which has one row per month and category instead of one per expense
+    public ExpenseAggregates loadAggregates(int userId, YearMonth month) throws SQLException {
+        ExpenseAggregates aggregates = new ExpenseAggregates(userId, month);
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT category, SUM(total) as total, " +
+                             "SUM(CASE WHEN year_month = ? THEN total ELSE 0 END) as month_total " +
+                             "FROM MonthlySpend WHERE user_id = ? GROUP BY category HAVING SUM(total) <> 0")) {
+
+            pstmt.setInt(1, MonthlySpendRollup.yearMonthKey(month));
+            pstmt.setInt(2, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    aggregates.putCategory(rs.getString("category"), Money.ofPence(pence(rs, "total")),
+                            Money.ofPence(pence(rs, "month_total")));
+                }
+            }
+        }
+        return aggregates;
+    }
+
+    // total per category for the expenses that match a filter, largest first. whole months without an amount range
+    // are read from the MonthlySpend rollup (one row per month and category); anything else is summed in the
+    // database from the (user_id, date) index, so only one row per category comes back either way
+    public Map<String, Money> loadCategoryTotals(int userId, ExpenseFilter filter) throws SQLException {
+        boolean rollup = filter.coversWholeMonths();
+        String sql = rollup
+                ? "SELECT category, SUM(total) AS total FROM MonthlySpend WHERE user_id = ?" + filter.rollupSql() +
+                  " GROUP BY category HAVING SUM(total) <> 0 ORDER BY total DESC"
+                : "SELECT category, SUM(amount) AS total FROM Expenses WHERE user_id = ?" + filter.sql() +
+                  " GROUP BY category ORDER BY total DESC";
+
+        Map<String, Money> totals = new LinkedHashMap<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            if (rollup) {
+                filter.bindRollup(pstmt, 2);
+            } else {
+                filter.bind(pstmt, 2);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.put(rs.getString("category"), Money.ofPence(pence(rs, "total")));
+                }
+            }
+        }
+        return totals;
+    }
+
+    // spending per day, week (from Monday) or month for the expenses that match a filter, oldest first.
+    // grouped in the database, so a year of daily totals is at most 366 rows whatever the number of expenses
+    public List<BucketTotal> loadBucketTotals(int userId, ExpenseFilter filter, ChronoUnit unit) throws SQLException {
+        String bucket = DatabaseManager.dialect().bucketStart(unit, "date");
+        List<BucketTotal> buckets = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT " + bucket + " AS bucket, COUNT(*) AS expenses, SUM(amount) AS total " +
+                     "FROM Expenses WHERE user_id = ?" + filter.sql() +
+                     " GROUP BY " + bucket + " ORDER BY bucket")) {
+
+            pstmt.setInt(1, userId);
+            filter.bind(pstmt, 2);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    buckets.add(new BucketTotal(unit, LocalDate.parse(rs.getString("bucket").trim()),
+                            rs.getLong("expenses"), Money.ofPence(pence(rs, "total"))));
+                }
+            }
+        }
+        return buckets;
+    }
+
+    // loads the custom categories a user has created
+    public List<String> findCategories(int userId) throws SQLException {
+        List<String> categories = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT category_name FROM UserCategories WHERE user_id = ?")) {
+
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    categories.add(rs.getString("category_name"));
+                }
+            }
+        }
+        return categories;
+    }
+
+    // saves a custom category for a user
+    public void addCategory(int userId, String category) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO UserCategories (user_id, category_name) VALUES (?, ?)")) {
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, category);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // removes a custom category, returns the number of rows removed
+    public int deleteCategory(int userId, String category) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "DELETE FROM UserCategories WHERE category_name = ? AND user_id = ?")) {
+            pstmt.setString(1, category);
+            pstmt.setInt(2, userId);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    // a DECIMAL money column in pence, read exactly (SQLite stores it as REAL and is rounded to the penny)
+    private static long pence(ResultSet rs, String column) throws SQLException {
+        return Money.of(rs.getBigDecimal(column), Money.HOME_CURRENCY).minorUnits();
+    }
+
+    // receives one expense row at a time from forEach; amounts are in pence
+    @FunctionalInterface
+    public interface ExpenseVisitor {
+        void visit(int id, Timestamp date, String category, String description, long amountPence) throws IOException;
+    }
+
+    // an expense that hasn't been stored yet, e.g. a row of an imported bank statement
+    public record NewExpense(LocalDateTime date, Money amount, String category, String description) {
+    }
+
+    // what a delete needs to know about a row to adjust the rollup
+    private record RollupRow(Money amount, String category, LocalDate date) {
+    }
+
+    // spending in one day, week or month; start is the first day of it
+    public record BucketTotal(ChronoUnit unit, LocalDate start, long expenses, Money total) {
+    }
+
+    // position of the last row of a page: the (date, id) to continue after
+    public record Cursor(Timestamp date, int id) {
+    }
+
+    // one page of expenses and the cursor for the next page (null when this is the last page)
+    public record Page(List<Expense> expenses, Cursor next) {
+    }
+}
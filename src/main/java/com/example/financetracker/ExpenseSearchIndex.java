@@ -0,0 +1,227 @@
+package com.example.financetracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// an in-memory inverted index over one user's expense descriptions, so a search is a few posting list lookups
+// instead of a LIKE '%...%' scan of the Expenses table. built once from ExpenseRepository.loadStore, then kept up
+// to date as expenses are added and deleted, like ExpenseAggregates.
+//
+// each word maps to the store rows that contain it, in ascending order (rows are only appended, so adding keeps
+// the lists sorted). the words are kept sorted, so the last word of a query also matches as a prefix while typing
+// ("cof" finds "coffee"). deleted rows are only marked, they are skipped when results are collected
+public class ExpenseSearchIndex {
+    // indexes for users that have been loaded during this session
+    private static final Map<Integer, ExpenseSearchIndex> CACHE = new ConcurrentHashMap<>();
+
+    private final int userId;
+    private final ExpenseStore store;
+    private final NavigableMap<String, Postings> words = new TreeMap<>();
+    private final Map<Integer, Integer> rowsById = new HashMap<>();  // expense id -> store row, for deletes
+    private final BitSet deleted = new BitSet();
+    // true while the store's rows are in (date, id) order, as loadStore returns them and as new expenses (dated
+    // now) keep them; results can then be read newest first straight off the row numbers
+    private boolean inDateOrder = true;
+
+    // indexes every row already in the store
+    public ExpenseSearchIndex(int userId, ExpenseStore store) {
+        this.userId = userId;
+        this.store = store;
+        for (int row = 0; row < store.size(); row++) {
+            index(row);
+            inDateOrder &= row == 0 || compareRows(row, row - 1) > 0;
+        }
+    }
+
+    // returns the cached index for a user, or null if it needs to be (re)built
+    public static ExpenseSearchIndex cached(int userId) {
+        return CACHE.get(userId);
+    }
+
+    public static void cache(ExpenseSearchIndex index) {
+        CACHE.put(index.userId, index);
+    }
+
+    // drops a user's index, for writes that don't go through add/remove
+    public static void invalidate(int userId) {
+        CACHE.remove(userId);
+    }
+
+    // adds an expense that was just inserted
+    public synchronized void add(Expense expense) {
+        if (rowsById.containsKey(expense.getId())) {
+            return;  // already indexed, e.g. it was loaded after the insert
+        }
+        store.add(expense.getId(), expense.getDateTime(), expense.getCategory(), expense.getDescription(),
+                expense.getAmountInPence());
+        index(store.size() - 1);
+        inDateOrder &= store.size() < 2 || compareRows(store.size() - 1, store.size() - 2) > 0;
+    }
+
+    // removes a deleted expense from the results
+    public synchronized void remove(int expenseId) {
+        Integer row = rowsById.remove(expenseId);
+        if (row != null) {
+            deleted.set(row);
+        }
+    }
+
+    // the expenses whose description contains every word of the query and that include accepts, newest first,
+    // at most limit of them. the last word may be the start of a word
+    public synchronized List<Expense> search(String query, Predicate<Expense> include, int limit) {
+        List<String> terms = words(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        // the complete words narrow the result first, shortest posting list first
+        int[] rows = null;
+        int count = 0;
+        List<Postings> complete = new ArrayList<>();
+        for (String term : terms.subList(0, terms.size() - 1)) {
+            Postings postings = words.get(term);
+            if (postings == null) {
+                return List.of();
+            }
+            complete.add(postings);
+        }
+        complete.sort((a, b) -> Integer.compare(a.size, b.size));
+        for (Postings postings : complete) {
+            if (rows == null) {
+                rows = Arrays.copyOf(postings.rows, postings.size);
+                count = postings.size;
+            } else {
+                count = intersect(rows, count, postings);
+            }
+        }
+
+        // then the prefix: the union of every word that starts with it
+        String prefix = terms.get(terms.size() - 1);
+        BitSet matches = new BitSet(store.size());
+        for (Postings postings : words.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for (int i = 0; i < postings.size; i++) {
+                matches.set(postings.rows[i]);
+            }
+        }
+        if (rows != null) {
+            BitSet narrowed = new BitSet(store.size());
+            for (int i = 0; i < count; i++) {
+                if (matches.get(rows[i])) {
+                    narrowed.set(rows[i]);
+                }
+            }
+            matches = narrowed;
+        }
+        matches.andNot(deleted);
+
+        List<Expense> results = new ArrayList<>(Math.min(matches.cardinality(), limit));
+        if (inDateOrder) {
+            // newest first is simply the highest rows first, and only as many as are needed are looked at
+            for (int row = matches.length() - 1; row >= 0 && results.size() < limit;
+                 row = matches.previousSetBit(row - 1)) {
+                collect(row, include, results);
+            }
+            return results;
+        }
+
+        Integer[] found = new Integer[matches.cardinality()];
+        int next = 0;
+        for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+            found[next++] = row;
+        }
+        Arrays.sort(found, (a, b) -> compareRows(b, a));
+        for (int i = 0; i < found.length && results.size() < limit; i++) {
+            collect(found[i], include, results);
+        }
+        return results;
+    }
+
+    public synchronized int size() {
+        return rowsById.size();
+    }
+
+    private void collect(int row, Predicate<Expense> include, List<Expense> results) {
+        Expense expense = store.get(row);
+        if (include.test(expense)) {
+            results.add(expense);
+        }
+    }
+
+    // orders rows by date, then id
+    private int compareRows(int a, int b) {
+        int byDate = Long.compare(store.epochSecond(a), store.epochSecond(b));
+        return byDate != 0 ? byDate : Integer.compare(store.id(a), store.id(b));
+    }
+
+    private void index(int row) {
+        rowsById.put(store.id(row), row);
+        String description = store.description(row);
+        if (description != null) {
+            for (String word : words(description)) {
+                words.computeIfAbsent(word, w -> new Postings()).add(row);
+            }
+        }
+    }
+
+    // lower-case words of letters and digits; each word once, in order
+    static List<String> words(String text) {
+        List<String> found = new ArrayList<>();
+        if (text == null) {
+            return found;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!found.contains(word)) {
+                    found.add(word);
+                }
+                start = -1;
+            }
+        }
+        return found;
+    }
+
+    // keeps the rows of rows[0..count) that are also in postings, returns how many are left
+    private static int intersect(int[] rows, int count, Postings postings) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < postings.size; i++) {
+            while (j < postings.size && postings.rows[j] < rows[i]) {
+                j++;
+            }
+            if (j < postings.size && postings.rows[j] == rows[i]) {
+                rows[kept++] = rows[i];
+            }
+        }
+        return kept;
+    }
+
+    // the rows containing one word, ascending
+    private static final class Postings {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (size > 0 && rows[size - 1] == row) {
+                return;
+            }
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+    }
+}
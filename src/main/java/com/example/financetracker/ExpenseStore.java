@@ -0,0 +1,166 @@
+package com.example.financetracker;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// expenses held column by column in primitive arrays instead of one object per row: an id, the date and time as
+// seconds since 1970-01-01 (local wall-clock time, no zone), the amount in pence and the category as an index
+// into a dictionary. a row costs 24 bytes, and totals are plain loops over the arrays. the optional description is
+// the only per-row object; its column is only allocated once a row has one. Expense objects are flyweight views of
+// a row, created only when something (e.g. the table) needs one.
+//
+// rows are only ever appended. not thread-safe: fill a store on one thread, then hand it over (e.g. through a
+// DataAccessExecutor future) and only read it from then on
+public final class ExpenseStore {
+    private int[] ids;
+    private long[] epochSeconds;
+    private long[] amountsInPence;
+    private int[] categoryIds;
+    private String[] descriptions;  // null until a row has a description
+    private int size;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private String[] categories = new String[8];
+
+    public ExpenseStore() {
+        this(16);
+    }
+
+    public ExpenseStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        ids = new int[capacity];
+        epochSeconds = new long[capacity];
+        amountsInPence = new long[capacity];
+        categoryIds = new int[capacity];
+    }
+
+    // appends a row and returns a view of it
+    public Expense add(int id, LocalDateTime dateTime, String category, long amountInPence) {
+        return add(id, dateTime, category, null, amountInPence);
+    }
+
+    public Expense add(int id, LocalDateTime dateTime, String category, String description, long amountInPence) {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1) + 1;
+            ids = Arrays.copyOf(ids, capacity);
+            epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+            amountsInPence = Arrays.copyOf(amountsInPence, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            if (descriptions != null) {
+                descriptions = Arrays.copyOf(descriptions, capacity);
+            }
+        }
+        ids[size] = id;
+        epochSeconds[size] = dateTime.toEpochSecond(ZoneOffset.UTC);
+        amountsInPence[size] = amountInPence;
+        categoryIds[size] = categoryId(category);
+        if (description != null) {
+            if (descriptions == null) {
+                descriptions = new String[ids.length];
+            }
+            descriptions[size] = description;
+        }
+        return new Expense(this, size++);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Expense get(int row) {
+        checkRow(row);
+        return new Expense(this, row);
+    }
+
+    // views of every row in order; each view is created when the list is read, not held by the store
+    public List<Expense> views() {
+        return new AbstractList<>() {
+            @Override
+            public Expense get(int row) {
+                return ExpenseStore.this.get(row);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    int id(int row) {
+        return ids[row];
+    }
+
+    long epochSecond(int row) {
+        return epochSeconds[row];
+    }
+
+    LocalDateTime dateTime(int row) {
+        return LocalDateTime.ofEpochSecond(epochSeconds[row], 0, ZoneOffset.UTC);
+    }
+
+    long amountInPence(int row) {
+        return amountsInPence[row];
+    }
+
+    String category(int row) {
+        return categories[categoryIds[row]];
+    }
+
+    String description(int row) {
+        return descriptions == null ? null : descriptions[row];
+    }
+
+    // total spent between from (inclusive) and to (exclusive), in pence
+    public long totalInPence(LocalDateTime from, LocalDateTime to) {
+        long start = from.toEpochSecond(ZoneOffset.UTC);
+        long end = to.toEpochSecond(ZoneOffset.UTC);
+        long total = 0;
+        for (int row = 0; row < size; row++) {
+            long second = epochSeconds[row];
+            if (second >= start && second < end) {
+                total += amountsInPence[row];
+            }
+        }
+        return total;
+    }
+
+    // total per category over every row, in pence, in order of first appearance
+    public Map<String, Long> totalsByCategoryInPence() {
+        // summed per dictionary id first, the names are only looked up once per category
+        long[] totals = new long[dictionary.size()];
+        for (int row = 0; row < size; row++) {
+            totals[categoryIds[row]] += amountsInPence[row];
+        }
+        Map<String, Long> byCategory = new LinkedHashMap<>();
+        for (int id = 0; id < totals.length; id++) {
+            byCategory.put(categories[id], totals[id]);
+        }
+        return byCategory;
+    }
+
+    private int categoryId(String category) {
+        Integer id = dictionary.get(category);
+        if (id == null) {
+            id = dictionary.size();
+            if (id == categories.length) {
+                categories = Arrays.copyOf(categories, id * 2);
+            }
+            categories[id] = category;
+            dictionary.put(category, id);
+        }
+        return id;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+    }
+}
@@ -8,18 +8,19 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.text.DecimalFormat;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
 
 public class ExpenseTracker extends Application {
-    private Connection conn;
+    private final UserRepository userRepository = new UserRepository();
+    private final ExpenseRepository expenseRepository = new ExpenseRepository();
     private String currentUser;
 
     public ExpenseTracker() {
-        this.conn = DatabaseManager.getConnection();
         this.currentUser = "defaultUser"; // Placeholder; replace with actual user authentication logic
     }
 
@@ -39,7 +40,7 @@ public class ExpenseTracker extends Application {
 
         addButton.setOnAction(e -> {
             try {
-                double amount = Double.parseDouble(amountField.getText());
+                Money amount = Money.parse(amountField.getText(), Money.HOME_CURRENCY);
                 addExpense(amount, categoryBox.getValue());
                 amountField.clear();
                 refreshExpenseList(expenseList);
@@ -61,18 +62,19 @@ public class ExpenseTracker extends Application {
         primaryStage.show();
     }
 
-    private void addExpense(double amount, String category) {
+    private void addExpense(Money amount, String category) {
         if (category == null || category.isEmpty()) {
             showAlert("❌ Error", "Please select a category.");
             return;
         }
 
-        try (PreparedStatement pstmt = conn.prepareStatement(
-                "INSERT INTO Expenses (user_id, amount, category, date) VALUES ((SELECT id FROM Users WHERE username = ?), ?, ?, GETDATE())")) {
-            pstmt.setString(1, currentUser);
-            pstmt.setDouble(2, amount);
-            pstmt.setString(3, category);
-            pstmt.executeUpdate();
+        try {
+            OptionalInt userId = userRepository.findId(currentUser);
+            if (userId.isEmpty()) {
+                showAlert("❌ Error", "Unknown user.");
+                return;
+            }
+            expenseRepository.insert(userId.getAsInt(), amount, category);
             showAlert("✅ Success", "Expense added successfully!");
         } catch (SQLException e) {
             showAlert("❌ Database Error", "Could not add expense.");
@@ -82,20 +84,23 @@ public class ExpenseTracker extends Application {
 
     private void refreshExpenseList(ListView<String> expenseList) {
         expenseList.getItems().clear();
-        try (PreparedStatement pstmt = conn.prepareStatement(
-                "SELECT amount, category, date FROM Expenses WHERE user_id = (SELECT id FROM Users WHERE username = ?) ORDER BY date DESC")) {
-            pstmt.setString(1, currentUser);
-            ResultSet rs = pstmt.executeQuery();
-
-            DecimalFormat currencyFormat = new DecimalFormat("£#,##0.00");
-
-            while (rs.next()) {
-                String expenseDetails = String.format("%s - %s - %s",
-                        currencyFormat.format(rs.getDouble("amount")),
-                        rs.getString("category"),
-                        rs.getString("date"));
-                expenseList.getItems().add(expenseDetails);
+        try {
+            OptionalInt userId = userRepository.findId(currentUser);
+            if (userId.isEmpty()) {
+                return;
+            }
+
+            // one streaming pass into a compact store, then listed newest first
+            ExpenseStore store = expenseRepository.loadStore(userId.getAsInt());
+            List<String> lines = new ArrayList<>(store.size());
+            for (int row = store.size() - 1; row >= 0; row--) {
+                Expense expense = store.get(row);
+                lines.add(String.format("%s - %s - %s %s",
+                        expense.getAmount().format(),
+                        expense.getCategory(),
+                        expense.getDate(), expense.getTime()));
             }
+            expenseList.getItems().setAll(lines);
         } catch (SQLException e) {
             showAlert("❌ Error", "Could not fetch expenses.");
         }
@@ -103,16 +108,16 @@ public class ExpenseTracker extends Application {
 
     private void updateChart(PieChart chart) {
         chart.getData().clear();
-        try (PreparedStatement pstmt = conn.prepareStatement(
-                "SELECT category, SUM(amount) as total FROM Expenses WHERE user_id = (SELECT id FROM Users WHERE username = ?) GROUP BY category")) {
-            pstmt.setString(1, currentUser);
-            ResultSet rs = pstmt.executeQuery();
-
-            DecimalFormat currencyFormat = new DecimalFormat("£#,##0.00");
+        try {
+            OptionalInt userId = userRepository.findId(currentUser);
+            if (userId.isEmpty()) {
+                return;
+            }
 
-            while (rs.next()) {
-                PieChart.Data data = new PieChart.Data(rs.getString("category"), rs.getDouble("total"));
-                data.setName(String.format("%s - %s", rs.getString("category"), currencyFormat.format(rs.getDouble("total"))));
+            Map<String, Money> totals = expenseRepository.loadAggregates(userId.getAsInt(), YearMonth.now()).categoryTotals();
+            for (Map.Entry<String, Money> total : totals.entrySet()) {
+                PieChart.Data data = new PieChart.Data(total.getKey(), total.getValue().toDouble());
+                data.setName(String.format("%s - %s", total.getKey(), total.getValue().format()));
                 chart.getData().add(data);
             }
         } catch (SQLException e) {
@@ -1,22 +1,38 @@
 package com.example.financetracker;
 
-import javafx.beans.property.SimpleDoubleProperty;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.fxml.FXML;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.chart.PieChart;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.io.File;
 import java.text.DecimalFormat;
-import java.time.LocalDateTime;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 public class ExpenseTrackerController {
     @FXML private TextField expenseField;  // field for entering expense amount
+    @FXML private TextField descriptionField;  // optional note, e.g. the shop
     @FXML private ComboBox<String> categoryBox;  // drop-down for selecting category
     @FXML private PieChart expenseChart;  // pie chart to show expense distribution
     @FXML private TextField customCategoryField;  // text field for adding a custom category
@@ -24,47 +40,153 @@ public class ExpenseTrackerController {
     @FXML private Label budgetStatusLabel;  // Label for displaying monthly budget
     @FXML private TableView<Expense> expenseTable;
     @FXML private TableColumn<Expense, String> categoryColumn;
-    @FXML private TableColumn<Expense, Double> amountColumn;
-    @FXML private TableColumn<Expense, String> dateColumn;
+    @FXML private TableColumn<Expense, String> descriptionColumn;
+    @FXML private TableColumn<Expense, Expense> amountColumn;  // cells read the row's pence directly, no boxing
+    @FXML private TableColumn<Expense, Expense> dateColumn;
     @FXML private TableColumn<Expense, String> timeColumn;
+    @FXML private Button importButton;  // starts a bank statement import
+    @FXML private Button exportButton;  // writes every expense to a file
+    @FXML private HBox importStatusBox;  // progress of a running import
+    @FXML private ProgressBar importProgressBar;
+    @FXML private Label importStatusLabel;
+    @FXML private ComboBox<String> periodBox;  // date range the table, chart and totals show
+    @FXML private ComboBox<String> filterCategoryBox;
+    @FXML private TextField minAmountField;
+    @FXML private TextField maxAmountField;
+    @FXML private TextField searchField;  // words to look for in descriptions
+    @FXML private ComboBox<String> bucketBox;  // daily, weekly or monthly totals
+    @FXML private TableView<ExpenseRepository.BucketTotal> bucketTable;
+    @FXML private TableColumn<ExpenseRepository.BucketTotal, String> bucketPeriodColumn;
+    @FXML private TableColumn<ExpenseRepository.BucketTotal, String> bucketCountColumn;
+    @FXML private TableColumn<ExpenseRepository.BucketTotal, String> bucketTotalColumn;
 
 
     private int userId;  // user id to identify the current user
+    private final ExpenseRepository expenseRepository = new ExpenseRepository();
+    private final BudgetRepository budgetRepository = new BudgetRepository();
     private static final DecimalFormat currencyFormat = new DecimalFormat("£#,##0.00");
+    // failed background calls on this screen; the alert tells the user, the count shows up in Metrics
+    private static final Metrics.Counter UI_ERRORS = Metrics.counter("ui.errors", "screen", "expenses");
+
+    // number of expenses fetched per page as the table is scrolled
+    private static final int PAGE_SIZE = 200;
+    // start fetching the next page when the table is scrolled this close to the bottom (0..1)
+    private static final double PREFETCH_THRESHOLD = 0.9;
+
+    private ExpenseRepository.Cursor nextPageCursor;  // where the next page starts, null when everything is loaded
+    private boolean pageLoading;  // true while a page request is in flight
+    private int pageGeneration;  // bumped on reload so late pages from an older load are ignored
+
+    private ExpenseAggregates aggregates;  // running totals for the chart and labels, null until loaded
+    // the totals load and the bucket table load; an add or delete while either is in flight makes it load again
+    private final LoadGuard aggregatesLoad = new LoadGuard();
+    private final LoadGuard bucketsLoad = new LoadGuard();
+    private final Map<String, PieChart.Data> chartSlices = new HashMap<>();  // pie slice per category
+
+    private static final String ALL_CATEGORIES = "All categories";
+    // the choices of periodBox, in order
+    private static final Map<String, Supplier<ExpenseFilter>> PERIODS = new LinkedHashMap<>();
+    // the choices of bucketBox, in order
+    private static final Map<String, ChronoUnit> BUCKETS = new LinkedHashMap<>();
+
+    static {
+        PERIODS.put("All time", () -> ExpenseFilter.ALL);
+        PERIODS.put("This month", ExpenseFilter::thisMonth);
+        PERIODS.put("Last 30 days", () -> ExpenseFilter.lastDays(30));
+        PERIODS.put("Last 90 days", () -> ExpenseFilter.lastDays(90));
+        PERIODS.put("This year", ExpenseFilter::thisYear);
+        BUCKETS.put("Daily", ChronoUnit.DAYS);
+        BUCKETS.put("Weekly", ChronoUnit.WEEKS);
+        BUCKETS.put("Monthly", ChronoUnit.MONTHS);
+    }
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.UK);
+
+    private ExpenseFilter filter = ExpenseFilter.ALL;  // what the table, chart and bucket totals show
+
+    // search results shown at once; there's no paging through results
+    private static final int SEARCH_LIMIT = 1000;
+    private static final int MAX_DESCRIPTION_LENGTH = 255;  // size of Expenses.description
 
+    private ExpenseSearchIndex searchIndex;  // null until the first search
+    private boolean searchIndexLoading;
+    // changes made while the index was being built, applied once it's ready
+    private final List<Expense> pendingSearchAdds = new ArrayList<>();
+    private final List<Integer> pendingSearchRemovals = new ArrayList<>();
 
-    // method to set user id and load expenses and categories
+
+    // method to set user id and load expenses and categories in the background. SceneController keeps this
+    // screen, so this runs on every visit
     public void setUserId(int userId) {
         this.userId = userId;
-        System.out.println("DEBUG: ExpenseTracker - User ID set to " + userId);
+        // loads in flight when the screen was last left were cancelled and never reported back. an index built
+        // earlier this session is still cached and kept up to date, so pick it up rather than leaving the field
+        // empty (adds and deletes would miss it and the next search would find it stale)
+        searchIndex = ExpenseSearchIndex.cached(userId);
+        searchIndexLoading = false;
+        pendingSearchAdds.clear();
+        pendingSearchRemovals.clear();
         loadCategories();  // load categories from database
         loadExpenses();  // load expenses from database
-        updateChart();  // update pie chart
+        loadAggregates();  // load totals and update pie chart
+        loadBuckets();  // per day/week/month totals
     }
     @FXML
     public void initialize() {
         categoryColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getCategory()));
-        amountColumn.setCellValueFactory(cellData -> new SimpleDoubleProperty(cellData.getValue().getAmount()).asObject());
-        dateColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getDate()));
+        descriptionColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getDescription()));
+        amountColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue()));
+        dateColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue()));
         timeColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getTime()));
 
+        // sort on the stored numbers rather than the displayed text (dd/MM/yyyy doesn't sort as text)
+        amountColumn.setComparator(Comparator.comparingLong(Expense::getAmountInPence));
+        dateColumn.setComparator(Comparator.comparingLong(Expense::getEpochSecond));
+
+        // filters: nothing is filtered until the user applies one
+        periodBox.getItems().setAll(PERIODS.keySet());
+        periodBox.getSelectionModel().selectFirst();
+        filterCategoryBox.getItems().setAll(ALL_CATEGORIES);
+        filterCategoryBox.getSelectionModel().selectFirst();
+        filterCategoryBox.setOnShowing(event -> refreshFilterCategories());
+        bucketBox.getItems().setAll(BUCKETS.keySet());
+        bucketBox.getSelectionModel().select("Monthly");
+        bucketBox.setOnAction(event -> loadBuckets());
+
+        bucketPeriodColumn.setCellValueFactory(cellData -> new SimpleStringProperty(bucketLabel(cellData.getValue())));
+        bucketCountColumn.setCellValueFactory(cellData ->
+                new SimpleStringProperty(String.valueOf(cellData.getValue().expenses())));
+        bucketTotalColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().total().format()));
+        bucketTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        // search as the user types; clearing the field goes back to the paged list
+        searchField.textProperty().addListener((obs, oldText, newText) -> loadExpenses());
+
         expenseTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        expenseTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);  // allow bulk delete
 
-        loadExpenses();  // Load the expenses when the app starts
+        // expenses are loaded by setUserId once the user is known; more pages are fetched as the table scrolls
+        expenseTable.skinProperty().addListener((obs, oldSkin, newSkin) -> Platform.runLater(this::attachPagingScrollListener));
         // format the amount column to display in £0.00 format
         amountColumn.setCellFactory(column -> new TableCell<>() {
-            private final DecimalFormat df = new DecimalFormat("£#,##0.00");
-
             @Override
-            protected void updateItem(Double amount, boolean empty) {
-                super.updateItem(amount, empty);
-                if (empty || amount == null) {
+            protected void updateItem(Expense expense, boolean empty) {
+                super.updateItem(expense, empty);
+                if (empty || expense == null) {
                     setText(null);
                 } else {
-                    setText(df.format(amount));
+                    setText(expense.getAmount().format());
                 }
             }
         });
+        dateColumn.setCellFactory(column -> new TableCell<>() {
+            @Override
+            protected void updateItem(Expense expense, boolean empty) {
+                super.updateItem(expense, empty);
+                setText(empty || expense == null ? null : expense.getDate());
+            }
+        });
     }
 
 
@@ -73,126 +195,338 @@ public class ExpenseTrackerController {
     private void handleAddExpense() {
         String category = categoryBox.getValue();
         String amountText = expenseField.getText();
+        String description = descriptionField.getText();
 
         if (category == null || amountText.isEmpty()) {
             showAlert("❌ Error", "Please enter an amount and select a category.");
             return;
         }
 
+        Money amount;
         try {
-            double amount = Double.parseDouble(amountText);
-            try (Connection conn = DatabaseManager.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(
-                         "INSERT INTO Expenses (user_id, amount, category, date) VALUES (?, ?, ?, GETDATE())")) {
-
-                pstmt.setInt(1, userId);
-                pstmt.setDouble(2, amount);
-                pstmt.setString(3, category);
-                pstmt.executeUpdate();
-
-                showAlert("✅ Success", "Expense added successfully!");
-                loadExpenses();
-                updateChart();
-            }
+            amount = Money.parse(amountText, Money.HOME_CURRENCY);  // exact pence, no rounding through a double
         } catch (NumberFormatException e) {
             showAlert("❌ Error", "Invalid amount entered.");
-        } catch (SQLException e) {
-            showAlert("❌ Database Error", "Could not add expense.");
-            e.printStackTrace();
+            return;
+        }
+
+        if (description != null && description.strip().length() > MAX_DESCRIPTION_LENGTH) {
+            showAlert("❌ Error", "Description must be " + MAX_DESCRIPTION_LENGTH + " characters or fewer.");
+            return;
+        }
+
+        int currentUserId = userId;
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.write(() -> expenseRepository.insert(currentUserId, amount, category, description)),
+                expense -> {
+                    showAlert("✅ Success", "Expense added successfully!");
+                    descriptionField.clear();
+                    addToSearchIndex(expense);
+                    // newest first, so the new row goes to the top; totals are updated by delta, no reload
+                    if (isSearching()) {
+                        showSearchResults();
+                    } else if (filter.matches(expense)) {
+                        expenseTable.getItems().add(0, expense);
+                    }
+                    addToAggregates(expense);
+                    updateBucket(expense, 1);
+                },
+                error -> {
+                    showAlert("❌ Database Error", "Could not add expense.");
+                    UI_ERRORS.increment();
+                });
+    }
+    // (re)load expenses from the first page in the background, or show search results while searching
+    private void loadExpenses() {
+        pageGeneration++;
+        nextPageCursor = null;
+        pageLoading = false;
+        if (isSearching()) {
+            showSearchResults();
+        } else {
+            loadPage(true);
         }
     }
-    private String convertToSQLDateTimeFormat(String ukDate, String time) {
-        try {
-            DateTimeFormatter ukFormat = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-            DateTimeFormatter sqlFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-            // Combine UK Date and Time before converting
-            String combinedDateTime = ukDate + " " + time;
-            LocalDateTime parsedDateTime = LocalDateTime.parse(combinedDateTime, ukFormat);
+    private boolean isSearching() {
+        return !searchField.getText().isBlank();
+    }
 
-            return parsedDateTime.format(sqlFormat);
-        } catch (Exception e) {
-            showAlert("❌ Error", "Failed to convert date format.");
-            e.printStackTrace();
-            return null;
+    // the matches for the search field within the current filter; the index is built on the first search
+    private void showSearchResults() {
+        if (searchIndex == null) {
+            loadSearchIndex();  // shows the results once it's ready
+            return;
         }
+        expenseTable.getItems().setAll(searchIndex.search(searchField.getText(), filter::matches, SEARCH_LIMIT));
     }
 
-    // load expenses
-    private void loadExpenses() {
-        expenseTable.getItems().clear();
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT category, amount, date FROM Expenses WHERE user_id = ? ORDER BY date DESC")) {
+    // reuses the index from an earlier visit, or builds it from the whole history in the background
+    private void loadSearchIndex() {
+        searchIndex = ExpenseSearchIndex.cached(userId);
+        if (searchIndex != null) {
+            showSearchResults();
+            return;
+        }
+        if (searchIndexLoading) {
+            return;
+        }
+
+        int currentUserId = userId;
+        searchIndexLoading = true;
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.load(() ->
+                        new ExpenseSearchIndex(currentUserId, expenseRepository.loadStore(currentUserId))),
+                loaded -> {
+                    searchIndexLoading = false;
+                    // catch up with adds and deletes made while the history was being read
+                    pendingSearchAdds.forEach(loaded::add);
+                    pendingSearchRemovals.forEach(loaded::remove);
+                    pendingSearchAdds.clear();
+                    pendingSearchRemovals.clear();
+                    ExpenseSearchIndex.cache(loaded);
+                    searchIndex = loaded;
+                    if (isSearching()) {
+                        showSearchResults();
+                    }
+                },
+                error -> {
+                    searchIndexLoading = false;
+                    showAlert("❌ Error", "Could not search expenses.");
+                    UI_ERRORS.increment();
+                });
+    }
+
+    private void addToSearchIndex(Expense expense) {
+        useCachedSearchIndex();
+        if (searchIndex != null) {
+            searchIndex.add(expense);
+        } else if (searchIndexLoading) {
+            pendingSearchAdds.add(expense);
+        }
+    }
 
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
+    private void removeFromSearchIndex(List<Integer> expenseIds) {
+        useCachedSearchIndex();
+        if (searchIndex != null) {
+            expenseIds.forEach(searchIndex::remove);
+        } else if (searchIndexLoading) {
+            pendingSearchRemovals.addAll(expenseIds);
+        }
+    }
 
-            DateTimeFormatter ukDateFormat = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            DateTimeFormatter ukTimeFormat = DateTimeFormatter.ofPattern("HH:mm:ss");
+    // a user's index may be cached without this screen holding it; changes must reach it either way
+    private void useCachedSearchIndex() {
+        if (searchIndex == null && !searchIndexLoading) {
+            searchIndex = ExpenseSearchIndex.cached(userId);
+        }
+    }
 
-            while (rs.next()) {
-                double amount = rs.getDouble("amount");
-                String category = rs.getString("category");
+    // fetch the next page when the user scrolls near the bottom of the table
+    private void loadNextPage() {
+        if (nextPageCursor != null && !pageLoading) {
+            loadPage(false);
+        }
+    }
 
-                LocalDateTime dateTime = rs.getTimestamp("date").toLocalDateTime();
-                String formattedDate = dateTime.format(ukDateFormat);
-                String formattedTime = dateTime.format(ukTimeFormat);
+    private void loadPage(boolean firstPage) {
+        int currentUserId = userId;
+        int generation = pageGeneration;
+        ExpenseRepository.Cursor after = firstPage ? null : nextPageCursor;
+        ExpenseFilter pageFilter = filter;
+        pageLoading = true;
+
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.load(() -> expenseRepository.findPage(currentUserId, pageFilter, after, PAGE_SIZE)),
+                page -> {
+                    if (generation != pageGeneration) {
+                        return;  // the table was reloaded while this page was in flight
+                    }
+                    // one bulk change per page instead of one list change event per row
+                    if (firstPage) {
+                        expenseTable.getItems().setAll(page.expenses());
+                    } else {
+                        expenseTable.getItems().addAll(page.expenses());
+                    }
+                    nextPageCursor = page.next();
+                    pageLoading = false;
+                },
+                error -> {
+                    pageLoading = false;
+                    showAlert("❌ Error", "Could not fetch expenses.");
+                    UI_ERRORS.increment();
+                });
+    }
 
-                expenseTable.getItems().add(new Expense(category, amount, formattedDate, formattedTime));
+    // the table's vertical scroll bar only exists once its skin has been created
+    private void attachPagingScrollListener() {
+        for (Node node : expenseTable.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                scrollBar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= scrollBar.getMax() * PREFETCH_THRESHOLD) {
+                        loadNextPage();
+                    }
+                });
+                return;
             }
-
-        } catch (SQLException e) {
-            showAlert("❌ Error", "Could not fetch expenses.");
-            e.printStackTrace();
         }
     }
-    // delete expense
+    // delete the selected expenses (several rows can be selected with Ctrl/Shift)
     @FXML
     private void handleDeleteExpense() {
-        Expense selectedExpense = expenseTable.getSelectionModel().getSelectedItem();
+        List<Expense> selectedExpenses = List.copyOf(expenseTable.getSelectionModel().getSelectedItems());
 
-        if (selectedExpense == null) {
+        if (selectedExpenses.isEmpty()) {
             showAlert("❌ Error", "Please select an expense to delete.");
             return;
         }
 
         Alert confirmationAlert = new Alert(Alert.AlertType.CONFIRMATION);
         confirmationAlert.setTitle("Confirm Deletion");
-        confirmationAlert.setHeaderText("Are you sure you want to delete this expense?");
+        confirmationAlert.setHeaderText(selectedExpenses.size() == 1
+                ? "Are you sure you want to delete this expense?"
+                : "Are you sure you want to delete these " + selectedExpenses.size() + " expenses?");
         confirmationAlert.setContentText("This action cannot be undone.");
         Optional<ButtonType> result = confirmationAlert.showAndWait();
 
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            try (Connection conn = DatabaseManager.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(
-                         "DELETE FROM Expenses WHERE user_id = ? AND amount = ? AND category = ? " +
-                                 "AND CONVERT(VARCHAR, date, 120) = ?")) { // Ensures exact match
+            List<Integer> expenseIds = new ArrayList<>(selectedExpenses.size());
+            for (Expense expense : selectedExpenses) {
+                expenseIds.add(expense.getId());
+            }
 
-                pstmt.setInt(1, userId);
-                pstmt.setBigDecimal(2, java.math.BigDecimal.valueOf(selectedExpense.getAmount())); // Prevents floating-point issues
-                pstmt.setString(3, selectedExpense.getCategory());
+            int currentUserId = userId;
+            DataAccessExecutor.onFxThread(
+                    DataAccessExecutor.write(() -> expenseRepository.delete(currentUserId, expenseIds)),
+                    rowsAffected -> {
+                        if (rowsAffected > 0) {
+                            showAlert("✅ Success", rowsAffected == 1
+                                    ? "Expense deleted successfully!"
+                                    : rowsAffected + " expenses deleted successfully!");
+                            expenseTable.getItems().removeAll(selectedExpenses);
+                            removeFromSearchIndex(expenseIds);
+                            removeFromAggregates(selectedExpenses);
+                            for (Expense expense : selectedExpenses) {
+                                updateBucket(expense, -1);
+                            }
+                        } else {
+                            showAlert("❌ Error", "Could not delete expense. No match found.");
+                        }
+                    },
+                    error -> {
+                        showAlert("❌ Error", "Failed to delete expense.");
+                        UI_ERRORS.increment();
+                    });
+        }
+    }
+
+    // import a CSV or OFX bank statement; spending rows become expenses, the rest is skipped
+    @FXML
+    private void handleImportStatement() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Bank Statement");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Bank statements (*.csv, *.ofx, *.qfx)", "*.csv", "*.ofx", "*.qfx"),
+                new FileChooser.ExtensionFilter("All files", "*.*"));
+        File file = fileChooser.showOpenDialog(expenseTable.getScene().getWindow());
+        if (file == null) {
+            return;  // cancelled
+        }
 
-                // Ensure date format matches database format exactly
-                String sqlFormattedDate = convertToSQLDateTimeFormat(selectedExpense.getDate(), selectedExpense.getTime());
-                pstmt.setString(4, sqlFormattedDate);
+        int currentUserId = userId;
+        ExpenseImporter importer = new ExpenseImporter(List.copyOf(categoryBox.getItems()));
+        importButton.setDisable(true);
+        importStatusBox.setVisible(true);
+        importStatusBox.setManaged(true);
+        importProgressBar.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        importStatusLabel.setText("Importing " + file.getName() + "...");
+
+        // the import runs in the background and reports after every chunk it writes
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.write(() -> importer.importFile(currentUserId, file.toPath(),
+                        progress -> Platform.runLater(() -> {
+                            importProgressBar.setProgress(progress.fraction());
+                            importStatusLabel.setText(String.format("%,d imported, %,d skipped (%,.0f rows/s)",
+                                    progress.imported(), progress.skipped(), progress.rowsPerSecond()));
+                        }))),
+                result -> {
+                    finishImport();
+                    StringBuilder message = new StringBuilder(String.format(
+                            "%,d expenses imported, %,d incoming payments skipped in %.1f s (%,.0f rows/s).",
+                            result.imported(), result.skipped(), result.seconds(), result.rowsPerSecond()));
+                    if (result.rejected() > 0) {
+                        message.append(String.format("%n%n%,d rows could not be read:", result.rejected()));
+                        for (String error : result.errors()) {
+                            message.append('\n').append(error);
+                        }
+                    }
+                    showAlert("✅ Import Complete", message.toString());
+                    // the import bypassed the running totals and the search index, so reload them and the table
+                    searchIndex = null;
+                    loadExpenses();
+                    loadAggregates();
+                    loadBuckets();
+                },
+                error -> {
+                    finishImport();
+                    showAlert("❌ Import Failed", "Could not import " + file.getName() + ": " + error.getMessage());
+                    UI_ERRORS.increment();
+                    searchIndex = null;
+                    loadExpenses();  // chunks written before the failure are kept
+                    loadAggregates();
+                    loadBuckets();
+                });
+    }
 
-                System.out.println("Deleting expense with date: " + sqlFormattedDate); // Debugging log
+    private void finishImport() {
+        importButton.setDisable(false);
+        importStatusBox.setVisible(false);
+        importStatusBox.setManaged(false);
+    }
 
-                int rowsAffected = pstmt.executeUpdate();
+    // export every expense to CSV, JSON lines or the compact columnar format, picked by the file type
+    @FXML
+    private void handleExportExpenses() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Expenses");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV (*.csv)", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON lines (*.jsonl)", "*.jsonl"),
+                new FileChooser.ExtensionFilter("Columnar (*.ftcx)", "*.ftcx"));
+        fileChooser.setInitialFileName("expenses-" + LocalDate.now() + ".csv");
+        File chosen = fileChooser.showSaveDialog(expenseTable.getScene().getWindow());
+        if (chosen == null) {
+            return;  // cancelled
+        }
 
-                if (rowsAffected > 0) {
-                    showAlert("✅ Success", "Expense deleted successfully!");
-                    loadExpenses();
-                    updateChart();
-                } else {
-                    showAlert("❌ Error", "Could not delete expense. No match found.");
+        // the chosen filter decides the format when the name has no recognised extension
+        ExpenseExporter.Format format = ExpenseExporter.Format.forFile(chosen.toPath());
+        FileChooser.ExtensionFilter filter = fileChooser.getSelectedExtensionFilter();
+        if (filter != null && !chosen.getName().contains(".")) {
+            for (ExpenseExporter.Format candidate : ExpenseExporter.Format.values()) {
+                if (filter.getExtensions().contains("*." + candidate.extension())) {
+                    format = candidate;
+                    chosen = new File(chosen.getPath() + "." + candidate.extension());
                 }
-            } catch (SQLException e) {
-                showAlert("❌ Error", "Failed to delete expense.");
-                e.printStackTrace();
             }
         }
+
+        File file = chosen;
+        ExpenseExporter.Format exportFormat = format;
+        int currentUserId = userId;
+        exportButton.setDisable(true);
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.write(() -> new ExpenseExporter().export(currentUserId, file.toPath(), exportFormat)),
+                result -> {
+                    exportButton.setDisable(false);
+                    showAlert("✅ Export Complete", String.format("%,d expenses written to %s (%,d KB) in %.1f s.",
+                            result.rows(), file.getName(), result.bytes() / 1024, result.seconds()));
+                },
+                error -> {
+                    exportButton.setDisable(false);
+                    showAlert("❌ Export Failed", "Could not export to " + file.getName() + ": " + error.getMessage());
+                    UI_ERRORS.increment();
+                });
     }
 
     // method to navigate back to the main screen
@@ -219,22 +553,22 @@ public class ExpenseTrackerController {
         }
 
         // save custom category to the database
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "INSERT INTO UserCategories (user_id, category_name) VALUES (?, ?)")) {
-            pstmt.setInt(1, userId);
-            pstmt.setString(2, customCategory);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            showAlert("❌ Error", "Could not save custom category.");
-            e.printStackTrace();
-            return;
-        }
-
-        // instead of clearing everything, just add the new category
-        categoryBox.getItems().add(customCategory);
-        customCategoryField.clear();
-        showAlert("✅ Success", "Custom category added: " + customCategory);
+        int currentUserId = userId;
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.write(() -> {
+                    expenseRepository.addCategory(currentUserId, customCategory);
+                    return null;
+                }),
+                ignored -> {
+                    // instead of clearing everything, just add the new category
+                    categoryBox.getItems().add(customCategory);
+                    customCategoryField.clear();
+                    showAlert("✅ Success", "Custom category added: " + customCategory);
+                },
+                error -> {
+                    showAlert("❌ Error", "Could not save custom category.");
+                    UI_ERRORS.increment();
+                });
     }
 
 
@@ -256,127 +590,319 @@ public class ExpenseTrackerController {
         Optional<ButtonType> result = confirmationAlert.showAndWait();
 
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            try (Connection conn = DatabaseManager.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(
-                         "DELETE FROM UserCategories WHERE category_name = ? AND user_id = ?")) {
-
-                pstmt.setString(1, selectedCategory);  // set selected category in query
-                pstmt.setInt(2, userId);  // set user id in query
-                int rowsAffected = pstmt.executeUpdate();  // execute delete query
-
-                if (rowsAffected > 0) {
-                    categoryBox.getItems().remove(selectedCategory);  // remove category from ComboBox
-                    showAlert("✅ Success", "Category deleted: " + selectedCategory);
-                } else {
-                    showAlert("❌ Error", "Could not delete category.");
-                }
-            } catch (SQLException e) {
-                showAlert("❌ Error", "Failed to delete category from the database.");
-                e.printStackTrace();
-            }
+            int currentUserId = userId;
+            DataAccessExecutor.onFxThread(
+                    DataAccessExecutor.write(() -> expenseRepository.deleteCategory(currentUserId, selectedCategory)),
+                    rowsAffected -> {
+                        if (rowsAffected > 0) {
+                            categoryBox.getItems().remove(selectedCategory);  // remove category from ComboBox
+                            showAlert("✅ Success", "Category deleted: " + selectedCategory);
+                        } else {
+                            showAlert("❌ Error", "Could not delete category.");
+                        }
+                    },
+                    error -> {
+                        showAlert("❌ Error", "Failed to delete category from the database.");
+                        UI_ERRORS.increment();
+                    });
         }
     }
 
-    // method to get the user's monthly budget from the database
-    private double getMonthlyBudget() {
-        double budget = 0;  // initialise budget to 0
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement("SELECT monthly_budget FROM Budgets WHERE user_id = ?")) {
+    // loads the user's totals and budget once (or reuses them from an earlier visit) and draws the chart
+    private void loadAggregates() {
+        aggregates = ExpenseAggregates.cached(userId);
+        if (aggregates != null) {
+            aggregatesLoad.start();
+            aggregatesLoad.finish();  // nothing to load, and any load still in flight is now stale
+            updateChart();
+            return;
+        }
 
-            pstmt.setInt(1, userId);  // set the user id in the query
-            ResultSet rs = pstmt.executeQuery();  // execute the query
+        int currentUserId = userId;
+        int generation = aggregatesLoad.start();
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.load(() -> {
+                    ExpenseAggregates loaded = expenseRepository.loadAggregates(currentUserId, YearMonth.now());
+                    loaded.setMonthlyBudget(budgetRepository.findMonthlyBudget(currentUserId).orElse(Money.ZERO));
+                    return loaded;
+                }),
+                loaded -> {
+                    if (!aggregatesLoad.isCurrent(generation)) {
+                        return;  // a newer load has started
+                    }
+                    if (!aggregatesLoad.finish()) {
+                        // an add or delete committed while this ran, so it may or may not be in these totals
+                        loadAggregates();
+                        return;
+                    }
+                    ExpenseAggregates.cache(loaded);
+                    aggregates = loaded;
+                    updateChart();
+                },
+                error -> {
+                    aggregatesLoad.fail(generation);
+                    showAlert("❌ Error", "Could not update chart.");
+                    UI_ERRORS.increment();
+                });
+    }
 
-            if (rs.next()) {  // if a result is found
-                budget = rs.getDouble("monthly_budget");  // get the monthly budget
+    // applies a new expense to the running totals; while they are loading the load is repeated instead
+    private void addToAggregates(Expense expense) {
+        if (!aggregatesLoad.changed() && aggregates != null) {
+            aggregates.add(expense.getCategory(), expense.getAmount(), expenseDate(expense));
+            updateChart();
+        }
+    }
+
+    private void removeFromAggregates(List<Expense> expenses) {
+        if (!aggregatesLoad.changed() && aggregates != null) {
+            for (Expense expense : expenses) {
+                aggregates.remove(expense.getCategory(), expense.getAmount(), expenseDate(expense));
             }
-        } catch (SQLException e) {
-            showAlert("❌ Error", "Could not load budget.");  // show error if query fails
-            e.printStackTrace();
+            updateChart();
         }
-        return budget;  // return the budget
     }
 
-    // method to update the pie chart with expense data
+    // method to update the pie chart and summary labels from the in-memory totals
     private void updateChart() {
-        expenseChart.getData().clear();  // clear previous chart data
+        refreshTotals();
 
-        try (Connection conn = DatabaseManager.getConnection();
-             // Use a scrollable ResultSet to allow resetting the cursor
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT category, SUM(amount) as total FROM Expenses WHERE user_id = ? GROUP BY category",
-                     ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)) {
+        // the budget always compares this month's spending, whatever the filter
+        Money monthlyBudget = aggregates.monthlyBudget();
+        budgetStatusLabel.setText("Monthly Budget: " + monthlyBudget.format());
 
-            pstmt.setInt(1, userId);  // set user id in the query
-            ResultSet rs = pstmt.executeQuery();  // execute query to get expense totals per category
-
-            double totalExpenses = 0;  // variable to hold total expenses
+        // trigger alert if this month's expenses exceed the monthly budget
+        if (aggregates.monthlyTotal().compareTo(monthlyBudget) >= 0) {
+            showAlert("⚠️ Budget Alert", "You have reached or exceeded your monthly budget!");
+        }
+    }
 
-            // First pass: calculate the total expenses
-            while (rs.next()) {
-                totalExpenses += rs.getDouble("total");  // add each category's total to total expenses
+    // the chart and total for the current filter: the running totals when nothing is filtered, otherwise
+    // one row per category summed by the database
+    private void refreshTotals() {
+        if (filter.isAll()) {
+            if (aggregates != null) {
+                showCategoryTotals(aggregates.categoryTotals(), aggregates.grandTotal());
             }
+            return;
+        }
 
-            // Reset the cursor back to the beginning to calculate percentages
-            rs.beforeFirst();
+        int currentUserId = userId;
+        ExpenseFilter totalsFilter = filter;
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.load(() -> expenseRepository.loadCategoryTotals(currentUserId, totalsFilter)),
+                totals -> {
+                    if (totalsFilter != filter) {
+                        return;  // the filter changed while this was loading
+                    }
+                    Money total = Money.ZERO;
+                    for (Money categoryTotal : totals.values()) {
+                        total = total.plus(categoryTotal);
+                    }
+                    showCategoryTotals(totals, total);
+                },
+                error -> {
+                    showAlert("❌ Error", "Could not update chart.");
+                    UI_ERRORS.increment();
+                });
+    }
+
+    private void showCategoryTotals(Map<String, Money> categoryTotals, Money totalExpenses) {
+        // drop slices for categories that no longer have any expenses
+        chartSlices.keySet().removeIf(category -> {
+            if (categoryTotals.containsKey(category)) {
+                return false;
+            }
+            expenseChart.getData().remove(chartSlices.get(category));
+            return true;
+        });
 
-            // Second pass: create the chart and calculate percentages
-            while (rs.next()) {
-                String category = rs.getString("category");
-                double totalAmount = rs.getDouble("total");
+        // update existing slices in place and add slices for new categories
+        for (Map.Entry<String, Money> entry : categoryTotals.entrySet()) {
+            String category = entry.getKey();
+            Money totalAmount = entry.getValue();
 
+            PieChart.Data data = chartSlices.get(category);
+            if (data == null) {
                 // create PieChart data for each category
-                PieChart.Data data = new PieChart.Data(category, totalAmount);
+                data = new PieChart.Data(category, totalAmount.toDouble());
+                chartSlices.put(category, data);
                 expenseChart.getData().add(data);
-
-                // calculate percentage based on total expenses
-                double percentage = (totalAmount / totalExpenses) * 100;
-
-                // label each slice with the amount and percentage
-                data.setName(String.format("%s - £%.2f (%.2f%%)", category, totalAmount, percentage));
+            } else {
+                data.setPieValue(totalAmount.toDouble());
             }
 
-            // fetch the monthly budget from the database
-            double monthlyBudget = getMonthlyBudget();
+            // calculate percentage based on total expenses
+            double percentage = totalAmount.ratioTo(totalExpenses) * 100;
 
-            // display the total amount and budget in the labels
-            totalAmountLabel.setText(String.format("Total Expenses: £%.2f", totalExpenses));
-            budgetStatusLabel.setText(String.format("Monthly Budget: £%.2f", monthlyBudget));
+            // label each slice with the amount and percentage
+            data.setName(String.format("%s - %s (%.2f%%)", category, totalAmount.format(), percentage));
+        }
 
-            // trigger alert if total expenses exceed monthly budget
-            if (totalExpenses >= monthlyBudget) {
-                showAlert("⚠️ Budget Alert", "You have reached or exceeded your monthly budget!");
-            }
+        // display the total amount for the period shown
+        totalAmountLabel.setText((filter.isAll() ? "Total Expenses: " : "Total (" + periodBox.getValue() + "): ")
+                + totalExpenses.format());
+    }
 
-        } catch (SQLException e) {
-            showAlert("❌ Error", "Could not update chart.");
-            e.printStackTrace();  // Print stack trace for debugging
+    // apply the period, category and amount range chosen in the filter bar
+    @FXML
+    private void handleApplyFilter() {
+        ExpenseFilter chosen = PERIODS.getOrDefault(periodBox.getValue(), () -> ExpenseFilter.ALL).get();
+        String category = filterCategoryBox.getValue();
+        if (category != null && !category.equals(ALL_CATEGORIES)) {
+            chosen = chosen.withCategory(category);
+        }
+        try {
+            Money minAmount = parseOptionalAmount(minAmountField.getText());
+            Money maxAmount = parseOptionalAmount(maxAmountField.getText());
+            chosen = chosen.withAmountRange(minAmount, maxAmount);
+        } catch (NumberFormatException e) {
+            showAlert("❌ Error", "Invalid amount entered.");
+            return;
+        } catch (IllegalArgumentException e) {
+            showAlert("❌ Error", e.getMessage());  // e.g. minimum above maximum
+            return;
         }
+        setFilter(chosen);
     }
 
+    // back to every expense
+    @FXML
+    private void handleClearFilter() {
+        periodBox.getSelectionModel().selectFirst();
+        filterCategoryBox.getSelectionModel().selectFirst();
+        minAmountField.clear();
+        maxAmountField.clear();
+        setFilter(ExpenseFilter.ALL);
+    }
 
-    // method to load categories for the current user from the database
-    private void loadCategories() {
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement("SELECT category_name FROM UserCategories WHERE user_id = ?")) {
+    private void setFilter(ExpenseFilter newFilter) {
+        filter = newFilter;
+        loadExpenses();
+        refreshTotals();
+        loadBuckets();
+    }
 
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
+    // blank means no limit
+    private static Money parseOptionalAmount(String text) {
+        return text == null || text.isBlank() ? null : Money.parse(text, Money.HOME_CURRENCY);
+    }
 
-            // Ensure default categories are kept
-            if (categoryBox.getItems().isEmpty()) {
-                categoryBox.getItems().addAll("Food", "Transport", "Rent", "Shopping", "Other");
-            }
+    // the filter's category list follows the categories the user can pick for an expense
+    private void refreshFilterCategories() {
+        String selected = filterCategoryBox.getValue();
+        List<String> choices = new ArrayList<>();
+        choices.add(ALL_CATEGORIES);
+        choices.addAll(categoryBox.getItems());
+        filterCategoryBox.getItems().setAll(choices);
+        filterCategoryBox.setValue(selected != null && choices.contains(selected) ? selected : ALL_CATEGORIES);
+    }
 
-            while (rs.next()) {
-                String category = rs.getString("category_name");
-                if (!categoryBox.getItems().contains(category)) {
-                    categoryBox.getItems().add(category);  // Add only new categories
-                }
+    // loads per day, week or month totals for the current filter in the background. only needed when the
+    // filter or bucket size changes; adds and deletes update the matching row with updateBucket
+    private void loadBuckets() {
+        int currentUserId = userId;
+        ExpenseFilter bucketFilter = filter;
+        ChronoUnit unit = bucketUnit();
+        int generation = bucketsLoad.start();
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.load(() -> expenseRepository.loadBucketTotals(currentUserId, bucketFilter, unit)),
+                buckets -> {
+                    if (!bucketsLoad.isCurrent(generation)) {
+                        return;  // the filter or bucket size changed while this was loading
+                    }
+                    if (!bucketsLoad.finish()) {
+                        loadBuckets();  // the query may have run before the change was written, so ask again
+                        return;
+                    }
+                    // newest first, like the expense table
+                    List<ExpenseRepository.BucketTotal> newestFirst = new ArrayList<>(buckets);
+                    Collections.reverse(newestFirst);
+                    bucketTable.getItems().setAll(newestFirst);
+                },
+                error -> {
+                    bucketsLoad.fail(generation);
+                    showAlert("❌ Error", "Could not load totals.");
+                    UI_ERRORS.increment();
+                });
+    }
+
+    // adds (sign 1) or removes (sign -1) one expense in the bucket row it falls in, without a query
+    private void updateBucket(Expense expense, int sign) {
+        if (bucketsLoad.changed()) {
+            return;  // the load in flight is repeated instead
+        }
+        if (!filter.matches(expense)) {
+            return;
+        }
+        ChronoUnit unit = bucketUnit();
+        LocalDate start = bucketStart(expenseDate(expense), unit);
+        Money amount = sign > 0 ? expense.getAmount() : expense.getAmount().negate();
+
+        List<ExpenseRepository.BucketTotal> rows = bucketTable.getItems();
+        int index = 0;
+        while (index < rows.size() && rows.get(index).start().isAfter(start)) {
+            index++;  // rows are newest first
+        }
+        if (index < rows.size() && rows.get(index).start().equals(start)) {
+            ExpenseRepository.BucketTotal row = rows.get(index);
+            long expenses = row.expenses() + sign;
+            if (expenses <= 0) {
+                rows.remove(index);
+            } else {
+                rows.set(index, new ExpenseRepository.BucketTotal(unit, start, expenses, row.total().plus(amount)));
             }
+        } else if (sign > 0) {
+            rows.add(index, new ExpenseRepository.BucketTotal(unit, start, 1, amount));
+        }
+    }
+
+    private ChronoUnit bucketUnit() {
+        return BUCKETS.getOrDefault(bucketBox.getValue(), ChronoUnit.MONTHS);
+    }
+
+    // the first day of the bucket a date falls in, the same as SqlDialect.bucketStart (weeks start on Monday)
+    private static LocalDate bucketStart(LocalDate date, ChronoUnit unit) {
+        return switch (unit) {
+            case WEEKS -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHS -> date.withDayOfMonth(1);
+            default -> date;
+        };
+    }
 
-        } catch (SQLException e) {
-            showAlert("❌ Error", "Could not load categories.");
+    // "15/01/2024", "w/c 15/01/2024" or "January 2024"
+    private static String bucketLabel(ExpenseRepository.BucketTotal bucket) {
+        return switch (bucket.unit()) {
+            case WEEKS -> "w/c " + bucket.start().format(DAY_FORMAT);
+            case MONTHS -> bucket.start().format(MONTH_FORMAT);
+            default -> bucket.start().format(DAY_FORMAT);
+        };
+    }
+
+    // the date an expense was made, as used for the monthly total
+    private static LocalDate expenseDate(Expense expense) {
+        return expense.getDateTime().toLocalDate();
+    }
+
+
+    // method to load categories for the current user from the database
+    private void loadCategories() {
+        // Ensure default categories are kept
+        if (categoryBox.getItems().isEmpty()) {
+            categoryBox.getItems().addAll("Food", "Transport", "Rent", "Shopping", "Other");
         }
+
+        int currentUserId = userId;
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.load(() -> expenseRepository.findCategories(currentUserId)),
+                categories -> {
+                    for (String category : categories) {
+                        if (!categoryBox.getItems().contains(category)) {
+                            categoryBox.getItems().add(category);  // Add only new categories
+                        }
+                    }
+                },
+                error -> showAlert("❌ Error", "Could not load categories."));
     }
 
     // method to show alerts to the user
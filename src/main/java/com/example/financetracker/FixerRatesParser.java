@@ -0,0 +1,92 @@
+package com.example.financetracker;
+
+import org.json.JSONException;
+import org.json.JSONTokener;
+
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// reads a fixer.io "latest" response straight off the HTTP body, one token at a time.
+// only the rates are kept, so the response is never buffered as a string or built into a JSONObject
+public final class FixerRatesParser {
+
+    private FixerRatesParser() {
+    }
+
+    // the parts of the response we use
+    public record Result(boolean success, Map<String, Double> rates) {
+    }
+
+    public static Result parse(Reader body) {
+        JSONTokener tokener = new JSONTokener(body);
+        boolean success = false;
+        Map<String, Double> rates = new LinkedHashMap<>();
+
+        expect(tokener, '{');
+        if (!consumeIf(tokener, '}')) {
+            do {
+                String key = nextKey(tokener);
+                if (key.equals("rates")) {
+                    readRates(tokener, rates);
+                } else {
+                    // small values (success, base, date, error) are cheap to read whole
+                    Object value = tokener.nextValue();
+                    if (key.equals("success")) {
+                        success = Boolean.TRUE.equals(value);
+                    }
+                }
+            } while (nextMember(tokener));
+        }
+        return new Result(success, rates);
+    }
+
+    // reads "rates": {"AED": 3.97, ...} into the map
+    private static void readRates(JSONTokener tokener, Map<String, Double> rates) {
+        expect(tokener, '{');
+        if (consumeIf(tokener, '}')) {
+            return;
+        }
+        do {
+            String currency = nextKey(tokener);
+            Object value = tokener.nextValue();
+            if (value instanceof Number number) {
+                rates.put(currency, number.doubleValue());
+            }
+        } while (nextMember(tokener));
+    }
+
+    // reads "key": and returns the key
+    private static String nextKey(JSONTokener tokener) {
+        expect(tokener, '"');
+        String key = tokener.nextString('"');
+        expect(tokener, ':');
+        return key;
+    }
+
+    // true if another member follows (','), false at the end of the object ('}')
+    private static boolean nextMember(JSONTokener tokener) {
+        char c = tokener.nextClean();
+        if (c == ',') {
+            return true;
+        }
+        if (c == '}') {
+            return false;
+        }
+        throw tokener.syntaxError("Expected ',' or '}'");
+    }
+
+    private static boolean consumeIf(JSONTokener tokener, char expected) {
+        if (tokener.nextClean() == expected) {
+            return true;
+        }
+        tokener.back();
+        return false;
+    }
+
+    private static void expect(JSONTokener tokener, char expected) throws JSONException {
+        if (tokener.nextClean() != expected) {
+            throw tokener.syntaxError("Expected '" + expected + "'");
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.financetracker;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// wraps the statements ConnectionPool hands out so every execute is measured: a db.call timer, a db.rows counter
+// and a db.errors counter labelled by query name, plus a JfrEvents.DatabaseCall event. the query name is the verb
+// and the first table, e.g. "select Expenses", which groups the many variants of a filtered query together.
+// a query is timed until its result set is closed (or the statement is closed or re-executed), so the rows
+// it returned and the time spent reading them are part of the call. calls over the slow query threshold also go
+// to SlowQueryLog, with the values that were bound
+final class InstrumentedStatement implements InvocationHandler {
+    // the first table named after FROM, INTO, UPDATE, TABLE or (for CREATE INDEX) ON
+    private static final Pattern TABLE = Pattern.compile(
+            "\\b(?:FROM|INTO|UPDATE|TABLE|ON)\\s+(?:IF\\s+(?:NOT\\s+)?EXISTS\\s+)?([\\w.\\[\\]\"]+)",
+            Pattern.CASE_INSENSITIVE);
+    // sql -> its query's metrics; repositories use a bounded set of statements, the cap only guards against
+    // ad hoc SQL
+    private static final Map<String, Query> QUERIES = new ConcurrentHashMap<>();
+    private static final int MAX_QUERIES = 1_000;
+    private static final Object[] NO_BINDS = new Object[0];
+
+    private final Statement statement;
+    private final String sql;  // null for a plain Statement, whose SQL comes with each execute
+    private Call open;  // the query whose result set is still being read
+    private Object[] binds = NO_BINDS;  // values set on a prepared statement, by parameter index - 1
+    private int bindCount;  // the highest parameter index set
+
+    private InstrumentedStatement(Statement statement, String sql) {
+        this.statement = statement;
+        this.sql = sql;
+    }
+
+    static PreparedStatement wrap(PreparedStatement statement, String sql) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                InstrumentedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new InstrumentedStatement(statement, sql));
+    }
+
+    static Statement wrap(Statement statement) {
+        return (Statement) Proxy.newProxyInstance(
+                InstrumentedStatement.class.getClassLoader(),
+                new Class<?>[]{Statement.class},
+                new InstrumentedStatement(statement, null));
+    }
+
+    // "SELECT e.amount FROM Expenses e WHERE ..." -> "select Expenses"
+    private static String queryName(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String name = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        Matcher table = TABLE.matcher(trimmed);
+        if (table.find()) {
+            name += " " + table.group(1).replaceAll("[\\[\\]\"]", "");
+        }
+        return name;
+    }
+
+    private static Query query(String sql) {
+        Query query = QUERIES.get(sql);
+        if (query == null) {
+            query = Query.named(queryName(sql));
+            if (QUERIES.size() < MAX_QUERIES) {
+                QUERIES.put(sql, query);
+            }
+        }
+        return query;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (!name.startsWith("execute")) {
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);  // setString(1, value), setNull(1, type), ...
+            }
+            switch (name) {
+                case "close":
+                    finishOpen();
+                    break;
+                case "clearParameters":
+                    binds = NO_BINDS;
+                    bindCount = 0;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "InstrumentedStatement[" + statement + "]";
+                default:
+                    break;
+            }
+            return forward(method, args);
+        }
+
+        finishOpen();  // re-executing closes the previous result set
+        String executed = sql != null ? sql : args != null && args.length > 0 ? (String) args[0] : "";
+        Object[] bound = bindCount == 0 ? NO_BINDS : Arrays.copyOf(binds, bindCount);
+        Call call = new Call(query(executed), executed, bound);
+        Object result;
+        try {
+            result = forward(method, args);
+        } catch (Throwable e) {
+            call.finish(0, false);
+            throw e;
+        }
+
+        if (result instanceof ResultSet resultSet) {
+            open = call;
+            return CountingResultSet.wrap(resultSet, this, call);
+        }
+        call.finish(rowsAffected(result), true);
+        return result;
+    }
+
+    private Object forward(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void bind(int index, Object value) {
+        if (index < 1) {
+            return;  // the driver will reject it
+        }
+        if (index > binds.length) {
+            binds = Arrays.copyOf(binds, Math.max(index, Math.max(8, binds.length * 2)));
+        }
+        binds[index - 1] = value;
+        bindCount = Math.max(bindCount, index);
+    }
+
+    private void finishOpen() {
+        if (open != null) {
+            open.finishRead();
+            open = null;
+        }
+    }
+
+    // update counts for executeUpdate and executeBatch, nothing for a plain execute
+    private static long rowsAffected(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(0, count);
+        }
+        if (result instanceof Long count) {
+            return Math.max(0, count);
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);  // SUCCESS_NO_INFO is negative
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    // the metrics of one query name, looked up once rather than on every call
+    private record Query(String name, Metrics.Timer calls, Metrics.Counter rows, Metrics.Counter errors,
+                         Metrics.Counter slow) {
+        private static Query named(String name) {
+            return new Query(name, Metrics.timer("db.call", "query", name),
+                    Metrics.counter("db.rows", "query", name), Metrics.counter("db.errors", "query", name),
+                    Metrics.counter("db.slow", "query", name));
+        }
+    }
+
+    // one execute, finished exactly once
+    private static final class Call {
+        private final Query query;
+        private final String sql;
+        private final Object[] binds;
+        private final long start = System.nanoTime();
+        private final JfrEvents.DatabaseCall event = new JfrEvents.DatabaseCall();
+        private long rows;
+        private boolean finished;
+
+        private Call(Query query, String sql, Object[] binds) {
+            this.query = query;
+            this.sql = sql;
+            this.binds = binds;
+            event.begin();
+        }
+
+        private void finishRead() {
+            finish(rows, true);
+        }
+
+        private void finish(long rows, boolean succeeded) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            long nanos = System.nanoTime() - start;
+            query.calls.record(nanos);
+            query.rows.add(rows);
+            if (!succeeded) {
+                query.errors.increment();
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.query = query.name;
+                event.sql = sql;
+                event.rows = rows;
+                event.succeeded = succeeded;
+                event.commit();
+            }
+            if (SlowQueryLog.isSlow(nanos)) {
+                query.slow.increment();
+                SlowQueryLog.record(query.name, sql, binds, rows, nanos, succeeded);
+            }
+        }
+    }
+
+    // counts the rows read and finishes the call when the result set is closed
+    private static final class CountingResultSet implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final InstrumentedStatement owner;
+        private final Call call;
+
+        private CountingResultSet(ResultSet resultSet, InstrumentedStatement owner, Call call) {
+            this.resultSet = resultSet;
+            this.owner = owner;
+            this.call = call;
+        }
+
+        private static ResultSet wrap(ResultSet resultSet, InstrumentedStatement owner, Call call) {
+            return (ResultSet) Proxy.newProxyInstance(
+                    InstrumentedStatement.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    new CountingResultSet(resultSet, owner, call));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    boolean hasRow = resultSet.next();
+                    if (hasRow) {
+                        call.rows++;
+                    }
+                    return hasRow;
+                case "close":
+                    resultSet.close();
+                    if (owner.open == call) {
+                        owner.finishOpen();
+                    }
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CountingResultSet[" + resultSet + "]";
+                default:
+                    try {
+                        return method.invoke(resultSet, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
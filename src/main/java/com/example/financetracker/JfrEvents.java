@@ -0,0 +1,74 @@
+package com.example.financetracker;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// custom Java Flight Recorder events for the points Metrics measures, so a recording shows database calls, pool
+// waits, rate refreshes and scene switches next to GC, locks and I/O on the same timeline. record with e.g.
+// -XX:StartFlightRecording=filename=financetracker.jfr and open the file in JDK Mission Control. an event that is
+// not being recorded costs next to nothing
+final class JfrEvents {
+    private JfrEvents() {
+    }
+
+    @Name("com.example.financetracker.DatabaseCall")
+    @Label("Database Call")
+    @Category({"Finance Tracker", "Database"})
+    @Description("A JDBC execute, up to the result set being closed for queries")
+    static final class DatabaseCall extends Event {
+        @Label("Query")
+        String query;
+
+        @Label("SQL")
+        String sql;
+
+        @Label("Rows")
+        long rows;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("com.example.financetracker.PoolWait")
+    @Label("Connection Pool Wait")
+    @Category({"Finance Tracker", "Database"})
+    @Description("Time spent waiting for a pooled connection")
+    static final class PoolWait extends Event {
+        @Label("Active Connections")
+        int active;
+
+        @Label("Pool Size")
+        int maxSize;
+    }
+
+    @Name("com.example.financetracker.RateRefresh")
+    @Label("Exchange Rate Refresh")
+    @Category({"Finance Tracker", "Rates"})
+    static final class RateRefresh extends Event {
+        @Label("Fetched From API")
+        boolean fetched;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("com.example.financetracker.SceneSwitch")
+    @Label("Scene Switch")
+    @Category({"Finance Tracker", "UI"})
+    @Description("Switching the window to another screen, including loading its FXML")
+    static final class SceneSwitch extends Event {
+        @Label("FXML File")
+        String fxml;
+    }
+
+    @Name("com.example.financetracker.FxmlLoad")
+    @Label("FXML Load")
+    @Category({"Finance Tracker", "UI"})
+    static final class FxmlLoad extends Event {
+        @Label("FXML File")
+        String fxml;
+    }
+}
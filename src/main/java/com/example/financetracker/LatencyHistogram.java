@@ -0,0 +1,96 @@
+package com.example.financetracker;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// a fixed-size latency histogram in the style of HdrHistogram: values (nanoseconds) are counted in buckets that
+// are exact below 128 and log-linear above, 64 buckets per power of two, so any percentile is within 1/64 (~1.6%)
+// of the true value whatever the range. recording is a couple of shifts and one atomic add, from any thread, and
+// memory is fixed (~20 KB) however many values are recorded
+public final class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 128;  // values below this are counted exactly
+    private static final int SUB_BUCKET_BITS = 6;  // 64 buckets per power of two above that
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 44;  // ~4.9 hours in nanoseconds, larger values are clamped
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - 6) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        long clamped = Math.max(0, Math.min(value, (1L << (MAX_EXPONENT + 1)) - 1));
+        counts.incrementAndGet(bucket(clamped));
+        count.incrementAndGet();
+        sum.addAndGet(clamped);
+        max.accumulateAndGet(clamped, Math::max);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long sum() {
+        return sum.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    // the value below which the given fraction (0..1) of the recorded values fall, 0 if nothing was recorded.
+    // reported as the top of the bucket it falls in, but never above the largest value recorded
+    public long percentile(double fraction) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(bucket), max.get());
+            }
+        }
+        return max.get();  // values recorded while we were reading
+    }
+
+    // how many recorded values are at or below the value, for Prometheus-style cumulative buckets
+    public long countAtOrBelow(long value) {
+        if (value < 0) {
+            return 0;
+        }
+        int last = bucket(Math.min(value, (1L << (MAX_EXPONENT + 1)) - 1));
+        long seen = 0;
+        for (int bucket = 0; bucket <= last; bucket++) {
+            seen += counts.get(bucket);
+        }
+        return seen;
+    }
+
+    private static int bucket(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);  // 7 or more here
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;  // 0..63
+        return LINEAR_BUCKETS + (exponent - 7) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = 7 + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+        long subBucket = SUB_BUCKETS + (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
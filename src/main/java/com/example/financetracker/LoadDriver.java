@@ -0,0 +1,259 @@
+package com.example.financetracker;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// replays a mixed workload against the synthetic users at a fixed rate and reports latency percentiles per
+// operation. each operation does what the matching screen does: log in, add an expense, open the expense
+// screen (first page, totals, budget, categories) or open the converter and convert.
+//
+// the schedule is open-loop: operation n is due at start + n / rate whether or not earlier ones have finished, and
+// its latency is measured from when it was due. if the system can't keep up, the waiting shows in the numbers
+// instead of the driver quietly slowing down
+public class LoadDriver {
+    public enum Operation { LOGIN, ADD_EXPENSE, DASHBOARD, CONVERT }
+
+    private static final int MAX_USERS = 10_000;  // synthetic users picked from
+    private static final int PAGE_SIZE = 200;  // as the expense screen fetches
+
+    private final double rate;  // operations per second
+    private final int seconds;
+    private final int threads;
+    private final Map<Operation, Integer> mix;
+    private final long seed;
+
+    private final UserRepository userRepository = new UserRepository();
+    private final ExpenseRepository expenseRepository = new ExpenseRepository();
+    private final BudgetRepository budgetRepository = new BudgetRepository();
+    private final CurrencyConverter converter = new CurrencyConverter();
+
+    public LoadDriver(double rate, int seconds, int threads, Map<Operation, Integer> mix, long seed) {
+        if (rate <= 0 || seconds <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Rate, duration and threads must be positive.");
+        }
+        this.rate = rate;
+        this.seconds = seconds;
+        this.threads = threads;
+        this.mix = mix;
+        this.seed = seed;
+    }
+
+    // "login=10,add=20,dashboard=50,convert=20" -> relative weights
+    public static Map<Operation, Integer> parseMix(String text) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : text.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected name=weight but found " + part);
+            }
+            Operation operation = switch (pair[0].trim().toLowerCase(Locale.ROOT)) {
+                case "login" -> Operation.LOGIN;
+                case "add" -> Operation.ADD_EXPENSE;
+                case "dashboard" -> Operation.DASHBOARD;
+                case "convert" -> Operation.CONVERT;
+                default -> throw new IllegalArgumentException("Unknown operation " + pair[0]);
+            };
+            mix.put(operation, Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+
+    public Report run() throws SQLException, InterruptedException {
+        List<UserRepository.Credentials> users =
+                userRepository.findByPrefix(SyntheticDataGenerator.USERNAME_PREFIX, MAX_USERS);
+        if (users.isEmpty()) {
+            throw new IllegalStateException("No synthetic users found, run SyntheticDataGenerator generate first.");
+        }
+        converter.rates();  // loaded once, as the app does at startup
+
+        Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder());
+        }
+        Operation[] schedule = weightedSchedule();
+        Random random = new Random(seed);
+        long total = Math.round(rate * seconds);
+        long intervalNanos = Math.round(1e9 / rate);
+
+        System.out.printf("⏳ Replaying %d operations at %.0f/s against %d users...%n", total, rate, users.size());
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            for (long n = 0; n < total; n++) {
+                long due = start + n * intervalNanos;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = schedule[random.nextInt(schedule.length)];
+                UserRepository.Credentials user = users.get(random.nextInt(users.size()));
+                Recorder recorder = recorders.get(operation);
+                workers.execute(new Scheduled(recorder, () -> {
+                    try {
+                        perform(operation, user);
+                        recorder.record(System.nanoTime() - due);
+                    } catch (Exception e) {
+                        recorder.fail();
+                        if (recorder.errors.get() == 1) {
+                            e.printStackTrace();  // the first failure of each kind is enough to see what's wrong
+                        }
+                    }
+                }));
+            }
+        } finally {
+            workers.shutdown();
+            // let the queue drain for as long again as the run (at least a minute); whatever is still queued after
+            // that never ran and counts as an error, rather than the report quietly leaving it out
+            if (!workers.awaitTermination(Math.max(60, seconds), TimeUnit.SECONDS)) {
+                List<Runnable> unstarted = workers.shutdownNow();
+                for (Runnable task : unstarted) {
+                    ((Scheduled) task).recorder().fail();
+                }
+                System.err.printf("⚠️ %d operations were still queued when the run ended, counted as errors%n",
+                        unstarted.size());
+                // the ones in flight were interrupted and record their failure as they stop
+                workers.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        }
+        return new Report(recorders, (System.nanoTime() - start) / 1e9);
+    }
+
+    // a queued operation, so the ones that never ran can still be counted against it
+    private record Scheduled(Recorder recorder, Runnable operation) implements Runnable {
+        @Override
+        public void run() {
+            operation.run();
+        }
+    }
+
+    private void perform(Operation operation, UserRepository.Credentials user) throws SQLException {
+        switch (operation) {
+            case LOGIN -> {
+                UserRepository.Credentials credentials = userRepository.findCredentials(user.username()).orElseThrow();
+                if (!BCrypt.checkpw(SyntheticDataGenerator.PASSWORD, credentials.passwordHash())) {
+                    throw new IllegalStateException("Login rejected for " + user.username());
+                }
+            }
+            case ADD_EXPENSE -> {
+                ExpenseRepository.NewExpense expense = SyntheticDataGenerator.randomExpense(ThreadLocalRandom.current());
+                expenseRepository.insert(user.id(), expense.amount(), expense.category(), expense.description());
+            }
+            case DASHBOARD -> {
+                expenseRepository.findCategories(user.id());
+                expenseRepository.findPage(user.id(), null, PAGE_SIZE);
+                expenseRepository.loadAggregates(user.id(), YearMonth.now());
+                budgetRepository.findMonthlyBudget(user.id());
+            }
+            case CONVERT -> {
+                List<String> currencies = SyntheticDataGenerator.currencies();
+                String to = currencies.get(ThreadLocalRandom.current().nextInt(currencies.size()));
+                converter.refreshRates().convert(Money.ofPence(1 + ThreadLocalRandom.current().nextInt(100_000)), to);
+            }
+        }
+    }
+
+    // one entry per unit of weight, so picking a random entry follows the mix
+    private Operation[] weightedSchedule() {
+        int total = 0;
+        for (int weight : mix.values()) {
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The workload mix is empty.");
+        }
+        Operation[] schedule = new Operation[total];
+        int next = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                schedule[next++] = entry.getKey();
+            }
+        }
+        return schedule;
+    }
+
+    // latencies of one operation in nanoseconds, kept in full so percentiles are exact
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private final AtomicLong errors = new AtomicLong();
+
+        synchronized void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void fail() {
+            errors.incrementAndGet();
+        }
+
+        synchronized long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    // what a run measured
+    public static final class Report {
+        private final Map<Operation, Recorder> recorders;
+        private final double seconds;
+
+        private Report(Map<Operation, Recorder> recorders, double seconds) {
+            this.recorders = recorders;
+            this.seconds = seconds;
+        }
+
+        // the latency below which the given fraction of an operation's calls finished, in milliseconds
+        public double percentileMillis(Operation operation, double fraction) {
+            return percentile(recorders.get(operation).sorted(), fraction) / 1e6;
+        }
+
+        public String report() {
+            StringBuilder text = new StringBuilder();
+            long operations = 0;
+            text.append(String.format("%-12s %8s %7s %9s %9s %9s %9s %9s%n",
+                    "operation", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+            for (Map.Entry<Operation, Recorder> entry : recorders.entrySet()) {
+                long[] sorted = entry.getValue().sorted();
+                long errors = entry.getValue().errors.get();
+                if (sorted.length == 0 && errors == 0) {
+                    continue;
+                }
+                operations += sorted.length + errors;
+                text.append(String.format("%-12s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                        entry.getKey().name().toLowerCase(Locale.ROOT), sorted.length, errors,
+                        percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.90) / 1e6,
+                        percentile(sorted, 0.99) / 1e6, percentile(sorted, 0.999) / 1e6,
+                        percentile(sorted, 1.0) / 1e6));
+            }
+            text.append(String.format("%d operations in %.1f s (%.1f/s)%n", operations, seconds,
+                    seconds <= 0 ? 0 : operations / seconds));
+            return text.toString();
+        }
+
+        // nearest-rank percentile of sorted values, 0 when there are none
+        private static long percentile(long[] sorted, double fraction) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(fraction * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+        }
+    }
+}
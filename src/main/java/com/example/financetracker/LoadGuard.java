@@ -0,0 +1,45 @@
+package com.example.financetracker;
+
+// one background load that writes on the same screen can race. a write that commits while the load is in flight
+// may or may not be in what the load read, so patching the result with the write could count it twice or not at
+// all; the result is thrown away and loaded again instead. a newer load also makes older results stale.
+// used on the JavaFX Application Thread only, so no locking
+final class LoadGuard {
+    private int generation;  // bumped per load so an older load's result is ignored
+    private boolean loading;
+    private boolean changedWhileLoading;
+
+    // a load is starting; keep the returned generation to check its result with isCurrent()
+    int start() {
+        loading = true;
+        changedWhileLoading = false;
+        return ++generation;
+    }
+
+    // a write committed; returns true if a load is in flight, so the caller should leave its result alone
+    // rather than applying the change to it
+    boolean changed() {
+        if (loading) {
+            changedWhileLoading = true;
+        }
+        return loading;
+    }
+
+    // whether a load's result is from the newest load; older results are ignored
+    boolean isCurrent(int loadGeneration) {
+        return loadGeneration == generation;
+    }
+
+    // the current load finished: true to use its result, false if a write committed while it ran (then load again)
+    boolean finish() {
+        loading = false;
+        return !changedWhileLoading;
+    }
+
+    // the load failed; nothing is loading any more
+    void fail(int loadGeneration) {
+        if (loadGeneration == generation) {
+            loading = false;
+        }
+    }
+}
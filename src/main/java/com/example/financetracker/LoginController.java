@@ -6,15 +6,17 @@ import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
 import org.mindrot.jbcrypt.BCrypt;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Optional;
+import java.util.OptionalInt;
 
 public class LoginController {
     @FXML private TextField usernameField; // Text field for entering the username
     @FXML private PasswordField passwordField; // Password field for entering the password
 
+    private final UserRepository userRepository = new UserRepository();
+    private static final Metrics.Counter UI_ERRORS = Metrics.counter("ui.errors", "screen", "login");
+
     // method to handle user registration
     @FXML
     private void handleRegister() {
@@ -33,29 +35,30 @@ public class LoginController {
             return;
         }
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement checkUser = conn.prepareStatement("SELECT id FROM Users WHERE username = ?")) {
-
-            checkUser.setString(1, username); // set the username in the query
-            ResultSet rs = checkUser.executeQuery();
-
-            if (rs.next()) {
-                showAlert("❌ Error", "User already exists."); // show alert if user already exists
-                return;
-            }
-
-            // hash the password for secure storage
-            String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
-            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO Users (username, password) VALUES (?, ?)")) {
-                pstmt.setString(1, username); // set the username in the query
-                pstmt.setString(2, hashedPassword); // set the hashed password in the query
-                pstmt.executeUpdate();
-                showAlert("✅ Registration Successful", "You can now log in.");
-            }
-        } catch (SQLException e) {
-            showAlert("❌ Database Error", "Registration failed.");
-            e.printStackTrace();
+        // hashing and the database round trips run in the background
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.write(() -> registerUser(username, password)),
+                registered -> {
+                    if (registered) {
+                        showAlert("✅ Registration Successful", "You can now log in.");
+                    } else {
+                        showAlert("❌ Error", "User already exists."); // show alert if user already exists
+                    }
+                },
+                error -> {
+                    showAlert("❌ Database Error", "Registration failed.");
+                    UI_ERRORS.increment();
+                });
+    }
+
+    // creates the user, returns false if the username is already taken
+    private boolean registerUser(String username, String password) throws SQLException {
+        if (userRepository.findId(username).isPresent()) {
+            return false;  // checked first so a taken name doesn't cost a BCrypt hash
         }
+        // hash the password for secure storage
+        String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
+        return userRepository.create(username, hashedPassword);
     }
 
     // method to handle user login
@@ -70,34 +73,34 @@ public class LoginController {
             return;
         }
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement("SELECT id, password FROM Users WHERE username = ?")) {
-
-            pstmt.setString(1, username); // set the username in the query
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                String storedPassword = rs.getString("password"); // retrieve stored hashed password
-                int userId = rs.getInt("id");
-
-                // check if entered password matches the stored hashed password
-                if (BCrypt.checkpw(password, storedPassword)) {
-                    showAlert("✅ Login Successful", "Welcome, " + username + "!");
-                    System.out.println("DEBUG: Logged-in user ID - " + userId);
-
-                    // pass user ID to the main scene
-                    SceneController sceneController = new SceneController(SceneManager.getPrimaryStage());
-                    sceneController.switchToSceneWithUser("main.fxml", userId);
-                } else {
-                    showAlert("❌ Login Failed", "Invalid username or password.");
-                }
-            } else {
-                showAlert("❌ Login Failed", "Invalid username or password.");
-            }
-        } catch (SQLException e) {
-            showAlert("❌ Database Error", "Login failed.");
-            e.printStackTrace();
+        // the lookup and the (deliberately slow) BCrypt check run in the background
+        DataAccessExecutor.onFxThread(
+                DataAccessExecutor.load(() -> authenticate(username, password)),
+                userId -> {
+                    if (userId.isPresent()) {
+                        showAlert("✅ Login Successful", "Welcome, " + username + "!");
+
+                        // pass user ID to the main scene
+                        SceneController sceneController = new SceneController(SceneManager.getPrimaryStage());
+                        sceneController.switchToSceneWithUser("main.fxml", userId.getAsInt());
+                    } else {
+                        showAlert("❌ Login Failed", "Invalid username or password.");
+                    }
+                },
+                error -> {
+                    showAlert("❌ Database Error", "Login failed.");
+                    UI_ERRORS.increment();
+                });
+    }
+
+    // returns the user's id if the credentials are valid
+    private OptionalInt authenticate(String username, String password) throws SQLException {
+        Optional<UserRepository.Credentials> credentials = userRepository.findCredentials(username);
+        // check if entered password matches the stored hashed password
+        if (credentials.isPresent() && BCrypt.checkpw(password, credentials.get().passwordHash())) {
+            return OptionalInt.of(credentials.get().id());
         }
+        return OptionalInt.empty();
     }
 
     // method to show alerts with a title and message
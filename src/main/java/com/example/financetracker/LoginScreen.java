@@ -8,13 +8,10 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import org.mindrot.jbcrypt.BCrypt;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public class LoginScreen extends Application {
-    private final Connection conn = DatabaseManager.getConnection(); // initialize connection to the database
+    private final UserRepository userRepository = new UserRepository(); // user lookups go through the repository
 
     @Override
     public void start(Stage primaryStage) {
@@ -72,26 +69,20 @@ public class LoginScreen extends Application {
     private boolean registerUser(String username, String password) {
         String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt()); // hash the password
 
-        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO Users (username, password) VALUES (?, ?)")) {
-            pstmt.setString(1, username);
-            pstmt.setString(2, hashedPassword);
-            pstmt.executeUpdate(); // insert new user into the database
-            return true;
+        try {
+            return userRepository.create(username, hashedPassword); // false if the user already exists
         } catch (SQLException e) {
-            return false; // user already exists, return false
+            e.printStackTrace(); // handle database errors
+            return false;
         }
     }
 
     // method to validate user login credentials
     private boolean validateLogin(String username, String password) {
-        try (PreparedStatement pstmt = conn.prepareStatement("SELECT password FROM Users WHERE username = ?")) {
-            pstmt.setString(1, username); // set the username in the query
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                String storedPassword = rs.getString("password"); // retrieve stored password
-                return BCrypt.checkpw(password, storedPassword); // compare hashed password
-            }
+        try {
+            return userRepository.findCredentials(username)
+                    .map(credentials -> BCrypt.checkpw(password, credentials.passwordHash())) // compare hashed password
+                    .orElse(false);
         } catch (SQLException e) {
             e.printStackTrace(); // handle database errors
         }
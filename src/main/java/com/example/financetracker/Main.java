@@ -1,12 +1,42 @@
 package com.example.financetracker;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
 import javafx.stage.Stage;
 
 public class Main extends Application {
+    private Exception migrationError;  // why the schema could not be brought up to date, null if it was
+
+    // bring the database schema up to date before any screen can query it. init runs on the launcher thread
+    // before start, so the login screen, its loads and the rate refresher all see the migrated schema
+    @Override
+    public void init() {
+        try {
+            int applied = DatabaseSetup.migrate();
+            if (applied > 0) {
+                System.out.println("✅ Database migrated (" + applied + " migration(s) applied)");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Database migration failed!");
+            e.printStackTrace();
+            migrationError = e;
+        }
+    }
 
     @Override
     public void start(Stage primaryStage) {
+        // the screens would only fail one query at a time against an old schema, so stop here instead
+        if (migrationError != null) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("❌ Error");
+            alert.setHeaderText("The database could not be updated.");
+            alert.setContentText(migrationError.getMessage());
+            alert.showAndWait();
+            Platform.exit();
+            return;
+        }
+
         // save the primary stage (main window) in SceneManager for later use
         SceneManager.setPrimaryStage(primaryStage);
 
@@ -22,6 +52,19 @@ public class Main extends Application {
 
         primaryStage.setResizable(false); // Disables maximise button
 
+        // keep exchange rates fresh in the background
+        RateRefresher.start();
+
+    }
+
+    // stop background data access and release pooled database connections when the application closes
+    @Override
+    public void stop() {
+        RateRefresher.stop();
+        DataAccessExecutor.shutdown();
+        DatabaseManager.shutdown();
+        // write -Dfinancetracker.metrics.file if one was asked for
+        Metrics.writeConfiguredFile();
     }
 
     // main method to launch the application
@@ -7,6 +7,7 @@ public class MainController {
     @FXML private Button budgetButton;    // button to open the budget tracker screen
     @FXML private Button expenseButton;   // button to open the expense tracker screen
     @FXML private Button currencyButton;  // button to open the currency converter screen
+    @FXML private Button diagnosticsButton;  // button to open the diagnostics screen
     @FXML private Button logoutButton;    // button to log out of the application
 
     private int userId; // stores the user ID for this session
@@ -14,7 +15,6 @@ public class MainController {
     // sets the user ID when logged in
     public void setUserId(int userId) {
         this.userId = userId;
-        System.out.println("DEBUG: User ID set to " + userId); // print the user ID for debugging purposes
     }
 
     // open the budget tracker screen
@@ -41,6 +41,13 @@ public class MainController {
         sceneController.switchToSceneWithUser("currency_converter.fxml", userId);
     }
 
+    // open the diagnostics screen (slow queries and metrics)
+    @FXML
+    private void openDiagnostics() {
+        SceneController sceneController = new SceneController(SceneManager.getPrimaryStage());
+        sceneController.switchToSceneWithUser("diagnostics.fxml", userId);
+    }
+
     // handle user logout and return to the login screen
     @FXML
     private void handleLogout() {
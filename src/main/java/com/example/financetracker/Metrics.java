@@ -0,0 +1,218 @@
+package com.example.financetracker;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// in-process metrics: named timers (with a LatencyHistogram for percentiles) and counters, optionally split by one
+// label, e.g. timer("db.call", "query", "select Expenses"). recording is lock-free and allocation-free once a
+// metric exists, so it can sit on every database call. what is measured:
+//
+//   db.call / db.rows / db.errors   every JDBC execute, by query name (see InstrumentedStatement)
+//   pool.wait                       time spent waiting for a pooled connection
+//   rates.refresh                   background exchange rate refreshes, plus rates.refresh.failures
+//   scene.switch / fxml.load        navigation in SceneController, by FXML file, plus scene.cache.hits
+//   ui.errors                       background calls that failed with an alert to the user, by screen
+//
+// the same points also emit JFR events (see JfrEvents). snapshot() gives a text table, and writeTo() writes it or
+// the Prometheus text format to a file; set -Dfinancetracker.metrics.file=metrics.prom (or .txt) to get one when
+// the app exits
+public final class Metrics {
+    // "name" or "name{label=value}" -> metric, sorted so exports are stable
+    private static final Map<String, Timer> TIMERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    // percentiles shown in snapshots and exported as Prometheus summary quantiles
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private Metrics() {
+    }
+
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, key -> new Timer(name, null, null));
+    }
+
+    public static Timer timer(String name, String label, String value) {
+        return TIMERS.computeIfAbsent(key(name, label, value), key -> new Timer(name, label, value));
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> new Counter(name, null, null));
+    }
+
+    public static Counter counter(String name, String label, String value) {
+        return COUNTERS.computeIfAbsent(key(name, label, value), key -> new Counter(name, label, value));
+    }
+
+    // a table of every timer and counter
+    public static String snapshot() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%-56s %9s %9s %9s %9s %9s %9s%n",
+                "timer", "count", "mean ms", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<String, Timer> entry : TIMERS.entrySet()) {
+            LatencyHistogram histogram = entry.getValue().histogram;
+            text.append(String.format("%-56s %9d %9.3f %9.3f %9.3f %9.3f %9.3f%n", entry.getKey(),
+                    histogram.count(), histogram.mean() / 1e6, histogram.percentile(0.5) / 1e6,
+                    histogram.percentile(0.99) / 1e6, histogram.percentile(0.999) / 1e6, histogram.max() / 1e6));
+        }
+        text.append(String.format("%n%-56s %9s%n", "counter", "value"));
+        for (Map.Entry<String, Counter> entry : COUNTERS.entrySet()) {
+            text.append(String.format("%-56s %9d%n", entry.getKey(), entry.getValue().value()));
+        }
+        return text.toString();
+    }
+
+    // the Prometheus text exposition format: timers as summaries in seconds, counters as counters
+    public static String prometheus() {
+        StringBuilder text = new StringBuilder();
+        Map<String, List<Timer>> timersByName = new ConcurrentSkipListMap<>();
+        for (Timer timer : TIMERS.values()) {
+            timersByName.computeIfAbsent(timer.name, name -> new ArrayList<>()).add(timer);
+        }
+        for (Map.Entry<String, List<Timer>> entry : timersByName.entrySet()) {
+            String name = prometheusName(entry.getKey()) + "_seconds";
+            text.append("# TYPE ").append(name).append(" summary\n");
+            for (Timer timer : entry.getValue()) {
+                LatencyHistogram histogram = timer.histogram;
+                for (double quantile : QUANTILES) {
+                    text.append(name).append(labels(timer.label, timer.value, "quantile", String.valueOf(quantile)))
+                            .append(' ').append(seconds(histogram.percentile(quantile))).append('\n');
+                }
+                text.append(name).append("_sum").append(labels(timer.label, timer.value, null, null))
+                        .append(' ').append(seconds(histogram.sum())).append('\n');
+                text.append(name).append("_count").append(labels(timer.label, timer.value, null, null))
+                        .append(' ').append(histogram.count()).append('\n');
+            }
+        }
+
+        Map<String, List<Counter>> countersByName = new ConcurrentSkipListMap<>();
+        for (Counter counter : COUNTERS.values()) {
+            countersByName.computeIfAbsent(counter.name, name -> new ArrayList<>()).add(counter);
+        }
+        for (Map.Entry<String, List<Counter>> entry : countersByName.entrySet()) {
+            String name = prometheusName(entry.getKey()) + "_total";
+            text.append("# TYPE ").append(name).append(" counter\n");
+            for (Counter counter : entry.getValue()) {
+                text.append(name).append(labels(counter.label, counter.value, null, null))
+                        .append(' ').append(counter.value()).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    // writes the Prometheus format for *.prom files and the text table otherwise, replacing the file in one step
+    // so a scraper never reads half a file
+    public static void writeTo(Path file) throws IOException {
+        boolean prometheus = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".prom");
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        Files.writeString(partial, prometheus ? prometheus() : snapshot(), StandardCharsets.UTF_8);
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // writes to -Dfinancetracker.metrics.file if it is set, e.g. when the app exits
+    public static void writeConfiguredFile() {
+        String file = System.getProperty("financetracker.metrics.file");
+        if (file == null || file.isBlank()) {
+            return;
+        }
+        try {
+            writeTo(Path.of(file));
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not write metrics to " + file);
+            e.printStackTrace();
+        }
+    }
+
+    private static String key(String name, String label, String value) {
+        return name + "{" + label + "=" + value + "}";
+    }
+
+    // db.call -> financetracker_db_call
+    private static String prometheusName(String name) {
+        return "financetracker_" + name.replaceAll("[^A-Za-z0-9_]", "_");
+    }
+
+    private static String labels(String label, String value, String extraLabel, String extraValue) {
+        if (label == null && extraLabel == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder("{");
+        if (label != null) {
+            text.append(label).append("=\"").append(escape(value)).append('"');
+        }
+        if (extraLabel != null) {
+            if (label != null) {
+                text.append(',');
+            }
+            text.append(extraLabel).append("=\"").append(extraValue).append('"');
+        }
+        return text.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String seconds(long nanos) {
+        return String.valueOf(nanos / 1e9);
+    }
+
+    // durations in nanoseconds
+    public static final class Timer {
+        private final String name;
+        private final String label;
+        private final String value;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Timer(String name, String label, String value) {
+            this.name = name;
+            this.label = label;
+            this.value = value;
+        }
+
+        public void record(long nanos) {
+            histogram.record(nanos);
+        }
+
+        // records the time since a System.nanoTime() taken at the start
+        public void recordSince(long startNanos) {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+
+        public LatencyHistogram histogram() {
+            return histogram;
+        }
+    }
+
+    public static final class Counter {
+        private final String name;
+        private final String label;
+        private final String value;
+        private final LongAdder count = new LongAdder();
+
+        private Counter(String name, String label, String value) {
+            this.name = name;
+            this.label = label;
+            this.value = value;
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long amount) {
+            count.add(amount);
+        }
+
+        public long value() {
+            return count.sum();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.financetracker;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Locale;
+
+// an exact amount of money: a whole number of minor units (pence, cents, yen) plus an ISO currency code.
+// adding and comparing are plain long operations (overflow is an error, not a wrap), so totals come out exact
+// without paying for BigDecimal. BigDecimal is only used at the JDBC boundary, where DECIMAL columns need it.
+// expenses, budgets and the MonthlySpend rollup are all kept in HOME_CURRENCY
+public final class Money implements Comparable<Money> {
+    public static final String HOME_CURRENCY = "GBP";
+    public static final Money ZERO = new Money(0, HOME_CURRENCY);
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+
+    private final long minorUnits;
+    private final String currency;
+
+    private Money(long minorUnits, String currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        if (currency == null || currency.isEmpty()) {
+            throw new IllegalArgumentException("A currency code is required.");
+        }
+        return minorUnits == 0 && currency.equals(HOME_CURRENCY) ? ZERO : new Money(minorUnits, currency);
+    }
+
+    // an amount in pence
+    public static Money ofPence(long pence) {
+        return ofMinor(pence, HOME_CURRENCY);
+    }
+
+    // a DECIMAL read from the database, rounded half-even to the currency's minor unit
+    public static Money of(BigDecimal amount, String currency) {
+        if (amount == null) {
+            return ofMinor(0, currency);
+        }
+        return ofMinor(amount.setScale(fractionDigits(currency), RoundingMode.HALF_EVEN)
+                .unscaledValue().longValueExact(), currency);
+    }
+
+    // parses an amount typed by the user, e.g. "12", "12.5", "-3.20" or "1,250.00", without going through a double.
+    // more decimal places than the currency has (e.g. "12.345" pounds) are rejected rather than rounded away
+    public static Money parse(String text, String currency) {
+        String trimmed = text.trim();
+        int digits = fractionDigits(currency);
+        int i = 0;
+        boolean negative = false;
+        if (i < trimmed.length() && (trimmed.charAt(i) == '-' || trimmed.charAt(i) == '+')) {
+            negative = trimmed.charAt(i) == '-';
+            i++;
+        }
+
+        long units = 0;
+        int wholeDigits = 0;
+        int decimals = -1;  // -1 until the decimal point is seen
+        try {
+            for (; i < trimmed.length(); i++) {
+                char c = trimmed.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    if (decimals < 0) {
+                        wholeDigits++;
+                    } else if (++decimals > digits) {
+                        if (c != '0') {
+                            throw new NumberFormatException("Too many decimal places for " + currency + ": " + text);
+                        }
+                        continue;  // trailing zeros past the minor unit don't change the amount
+                    }
+                    units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                } else if (c == '.' && decimals < 0) {
+                    decimals = 0;
+                } else if (c == ',' && decimals < 0 && wholeDigits > 0) {
+                    // thousands separator
+                } else {
+                    throw new NumberFormatException("Invalid amount: " + text);
+                }
+            }
+            if (wholeDigits == 0 && decimals <= 0) {
+                throw new NumberFormatException("Invalid amount: " + text);
+            }
+            // "12.5" has one decimal place, scale it up to the minor unit
+            units = Math.multiplyExact(units, POWERS_OF_TEN[digits - Math.min(Math.max(decimals, 0), digits)]);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount too large: " + text);
+        }
+        return ofMinor(negative ? -units : units, currency);
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public String currency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        checkSameCurrency(other);
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkSameCurrency(other);
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits), currency);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    // this amount as a fraction of another, e.g. spent / budget for a progress bar
+    public double ratioTo(Money other) {
+        checkSameCurrency(other);
+        return (double) minorUnits / other.minorUnits;
+    }
+
+    // for JDBC DECIMAL columns; exact
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+
+    // for charts and percentages only, where exactness doesn't matter
+    public double toDouble() {
+        return (double) minorUnits / POWERS_OF_TEN[fractionDigits(currency)];
+    }
+
+    // "£1,234.50"; currencies without a symbol are shown with their code, e.g. "BTC 0.50"
+    public String format() {
+        String symbol = HOME_CURRENCY.equals(currency) ? "£" : symbolOf(currency);
+        StringBuilder text = new StringBuilder(16);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        text.append(symbol);
+        int start = text.length();
+        appendPlain(text, Math.abs(minorUnits), fractionDigits(currency));
+        // group the whole part in thousands
+        int point = text.indexOf(".", start);
+        for (int i = (point < 0 ? text.length() : point) - 3; i > start; i -= 3) {
+            text.insert(i, ',');
+        }
+        return text.toString();
+    }
+
+    // "1234.50", the plain decimal form used in files and input fields
+    public String toPlainString() {
+        StringBuilder text = new StringBuilder(16);
+        appendPlain(text, minorUnits, fractionDigits(currency));
+        return text.toString();
+    }
+
+    // writes minor units as a plain decimal, e.g. 1250 with 2 digits -> 12.50, without a double or String.format
+    public static void appendPlain(StringBuilder text, long minorUnits, int fractionDigits) {
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        long whole = Math.abs(minorUnits / POWERS_OF_TEN[fractionDigits]);
+        long fraction = Math.abs(minorUnits % POWERS_OF_TEN[fractionDigits]);
+        text.append(whole);
+        if (fractionDigits > 0) {
+            text.append('.');
+            for (long power = POWERS_OF_TEN[fractionDigits - 1]; power > 1 && fraction < power; power /= 10) {
+                text.append('0');
+            }
+            text.append(fraction);
+        }
+    }
+
+    // decimal places of a currency's minor unit, 2 for codes java.util.Currency doesn't know (e.g. BTC)
+    public static int fractionDigits(String currency) {
+        if (HOME_CURRENCY.equals(currency)) {
+            return 2;
+        }
+        try {
+            int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            return digits < 0 || digits >= POWERS_OF_TEN.length ? 2 : digits;
+        } catch (IllegalArgumentException e) {
+            return 2;
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.minorUnits == minorUnits && money.currency.equals(currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    // "12.50 GBP"
+    @Override
+    public String toString() {
+        return toPlainString() + " " + currency;
+    }
+
+    private void checkSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Cannot combine " + currency + " with " + other.currency
+                    + " without converting first.");
+        }
+    }
+
+    private static String symbolOf(String currency) {
+        try {
+            String symbol = Currency.getInstance(currency).getSymbol(Locale.UK);
+            return symbol.equals(currency) ? currency + " " : symbol;
+        } catch (IllegalArgumentException e) {
+            return currency + " ";
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.financetracker;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// keeps the MonthlySpend table ((user_id, year_month, category) -> total) in step with Expenses.
+// collect the changes of one write with add(), then apply() them on the same connection and transaction
+// as the write itself so the rollup can never drift from the expenses it summarises
+public class MonthlySpendRollup {
+    private final Map<Key, long[]> deltas = new LinkedHashMap<>();  // key -> {pence}
+
+    // year_month is stored as an int, e.g. 202410 for October 2024
+    public static int yearMonthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    // records an expense being added (positive amount) or removed (negative amount)
+    public void add(int userId, LocalDate date, String category, Money amount) {
+        deltas.computeIfAbsent(new Key(userId, yearMonthKey(YearMonth.from(date)), category), key -> new long[1])[0]
+                += amount.minorUnits();
+    }
+
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+
+    // writes the collected deltas in one batch; the caller owns the transaction
+    public void apply(Connection conn) throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // a new row starts at the delta, an existing one has the delta added to it
+        try (PreparedStatement pstmt = conn.prepareStatement(DatabaseManager.dialect().upsert("MonthlySpend",
+                List.of("user_id", "year_month", "category"), List.of("user_id", "year_month", "category", "total"), 1,
+                "total = target.total + source.total"))) {
+
+            for (Map.Entry<Key, long[]> entry : deltas.entrySet()) {
+                Key key = entry.getKey();
+                pstmt.setInt(1, key.userId());
+                pstmt.setInt(2, key.yearMonth());
+                pstmt.setString(3, key.category());
+                pstmt.setBigDecimal(4, Money.ofPence(entry.getValue()[0]).toDecimal());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        deltas.clear();
+    }
+
+    private record Key(int userId, int yearMonth, String category) {
+    }
+}
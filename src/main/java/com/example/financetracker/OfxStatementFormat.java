@@ -0,0 +1,93 @@
+package com.example.financetracker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+// an OFX/QFX statement download. works for both the SGML (OFX 1.x, no closing tags) and XML (OFX 2.x) variants
+// by reading each <STMTTRN> block as text and picking out the few tags we need
+public class OfxStatementFormat implements StatementFormat {
+    private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.BASIC_ISO_DATE;  // yyyyMMdd
+
+    @Override
+    public String nextRecord(BufferedReader reader) throws IOException {
+        StringBuilder block = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String upper = line.toUpperCase(Locale.ROOT);
+            if (block == null) {
+                int start = upper.indexOf("<STMTTRN>");
+                if (start < 0) {
+                    continue;  // headers, balances and account details are skipped
+                }
+                block = new StringBuilder();
+                line = line.substring(start + "<STMTTRN>".length());
+                upper = upper.substring(start + "<STMTTRN>".length());
+            }
+            int end = upper.indexOf("</STMTTRN>");
+            if (end >= 0) {
+                return block.append(line, 0, end).toString();
+            }
+            block.append(line).append('\n');
+        }
+        return block == null ? null : block.toString();  // unterminated last block
+    }
+
+    @Override
+    public Transaction parse(String record) {
+        String posted = tag(record, "DTPOSTED");
+        if (posted == null || posted.length() < 8) {
+            throw new IllegalArgumentException("missing DTPOSTED");
+        }
+        LocalDate date;
+        try {
+            // 20240115120000.000[0:GMT], only the date part matters
+            date = LocalDate.parse(posted.substring(0, 8), OFX_DATE);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid DTPOSTED: " + posted);
+        }
+
+        String amount = tag(record, "TRNAMT");
+        if (amount == null) {
+            throw new IllegalArgumentException("missing TRNAMT");
+        }
+
+        String name = tag(record, "NAME");
+        String memo = tag(record, "MEMO");
+        String description = name == null ? (memo == null ? "" : memo)
+                : memo == null || memo.equals(name) ? name : name + " " + memo;
+        return new Transaction(date, StatementFormat.parseAmount(amount), description, null);
+    }
+
+    // value of <TAG>value, ended by the next tag or line break (SGML) or by </TAG> (XML)
+    private static String tag(String record, String name) {
+        String open = "<" + name + ">";
+        int start = indexOfIgnoreCase(record, open);
+        if (start < 0) {
+            return null;
+        }
+        start += open.length();
+        int end = start;
+        while (end < record.length() && record.charAt(end) != '<' && record.charAt(end) != '\n') {
+            end++;
+        }
+        String value = unescape(record.substring(start, end).trim());
+        return value.isEmpty() ? null : value;
+    }
+
+    private static int indexOfIgnoreCase(String text, String target) {
+        int index = text.indexOf(target);
+        return index >= 0 ? index : text.toUpperCase(Locale.ROOT).indexOf(target);
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+}
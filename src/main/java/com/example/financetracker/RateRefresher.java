@@ -0,0 +1,102 @@
+package com.example.financetracker;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// keeps exchange rates fresh in the background. each run checks CurrencyCache first and only calls the
+// API (spending quota) when the last saved fetch is older than the refresh interval; failures back off
+// exponentially with jitter. new snapshots reach listeners through CurrencyConverter.addRatesListener
+public final class RateRefresher {
+    // how often rates are refreshed, overridable with -Dfinancetracker.rates.refreshMinutes
+    private static final long REFRESH_INTERVAL_SECONDS =
+            TimeUnit.MINUTES.toSeconds(Long.getLong("financetracker.rates.refreshMinutes", 60));
+    // delay before the first run, so startup isn't competing with it
+    private static final long INITIAL_DELAY_SECONDS = 5;
+    // first retry delay after a failure, doubled on each further failure up to the refresh interval
+    private static final long BACKOFF_BASE_SECONDS = 30;
+
+    private static final CurrencyConverter CONVERTER = new CurrencyConverter();
+    private static ScheduledExecutorService scheduler;
+    private static int consecutiveFailures;
+
+    private RateRefresher() {
+    }
+
+    // starts the background refresher (does nothing if it is already running)
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.schedule(RateRefresher::run, INITIAL_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static void run() {
+        long nextDelay;
+        JfrEvents.RateRefresh event = new JfrEvents.RateRefresh();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            event.fetched = refreshIfStale();
+            event.succeeded = true;
+            consecutiveFailures = 0;
+            nextDelay = REFRESH_INTERVAL_SECONDS;
+        } catch (Exception e) {
+            Metrics.counter("rates.refresh.failures").increment();
+            consecutiveFailures++;
+            nextDelay = backoffSeconds(consecutiveFailures);
+            System.err.println("⚠️ Exchange rate refresh failed (attempt " + consecutiveFailures
+                    + "), retrying in " + nextDelay + "s: " + e.getMessage());
+        }
+        Metrics.timer("rates.refresh").recordSince(start);
+        event.commit();
+        reschedule(nextDelay);
+    }
+
+    // returns whether the API was called
+    private static boolean refreshIfStale() throws Exception {
+        long cacheAge = CONVERTER.cacheAgeSeconds();
+        if (cacheAge >= 0 && cacheAge < REFRESH_INTERVAL_SECONDS) {
+            // someone fetched recently: just pick up whatever they stored, no API call
+            CONVERTER.refreshRates();
+            return false;
+        }
+
+        Map<String, Double> rates = CONVERTER.fetchRates();
+        if (rates == null) {
+            throw new IllegalStateException("currency api request failed.");
+        }
+        CONVERTER.applyRates(rates);  // publishes the new snapshot to listeners
+        CONVERTER.saveToCache(rates);
+        Metrics.counter("rates.fetches").increment();
+        return true;
+    }
+
+    // exponential backoff with +/-50% jitter so many clients don't retry in lockstep
+    private static long backoffSeconds(int failures) {
+        long backoff = BACKOFF_BASE_SECONDS << Math.min(failures - 1, 16);
+        backoff = Math.min(backoff, REFRESH_INTERVAL_SECONDS);
+        double jitter = ThreadLocalRandom.current().nextDouble(0.5, 1.5);
+        return Math.max(1, Math.round(backoff * jitter));
+    }
+
+    private static synchronized void reschedule(long delaySeconds) {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.schedule(RateRefresher::run, delaySeconds, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.financetracker;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// blocking data access for exchange_rates and CurrencyCache; CurrencyConverter decides when to call these
+public class RateRepository {
+    // rates are stored as DECIMAL(18,6), smaller differences are not a change
+    private static final double RATE_EPSILON = 0.0000005;
+
+    // reads every stored rate into a new immutable snapshot
+    public RateSnapshot load() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return load(conn);
+        }
+    }
+
+    // returns current if the table hasn't changed since it was loaded (checked via last_updated), otherwise reloads
+    public RateSnapshot loadIfChanged(RateSnapshot current) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (current != null && Objects.equals(current.lastUpdated(), findLastUpdated(conn))) {
+                return current;
+            }
+            return load(conn);
+        }
+    }
+
+    // writes only the rates that changed, in one transaction, so readers never see a partial or empty table.
+    // returns the stored rates afterwards
+    public RateSnapshot saveChanged(Map<String, Double> rates) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                RateSnapshot current = load(conn);
+
+                // keep only new currencies and rates that actually moved
+                List<String> changedCodes = new ArrayList<>();
+                List<Double> changedRates = new ArrayList<>();
+                for (Map.Entry<String, Double> entry : rates.entrySet()) {
+                    String currency = entry.getKey();
+                    double rate = entry.getValue();
+                    if (rate <= 0 || rate > 999999999) {
+                        System.err.println("⚠️ skipping currency " + currency + " due to invalid rate: " + rate);
+                        continue;  // skip invalid rates
+                    }
+                    int index = current.indexOf(currency);
+                    if (index < 0 || Math.abs(current.rateAt(index) - rate) >= RATE_EPSILON) {
+                        changedCodes.add(currency);
+                        changedRates.add(rate);
+                    }
+                }
+
+                if (!changedCodes.isEmpty()) {
+                    // one upsert with a row per changed currency; new rows get last_updated from the column default
+                    SqlDialect dialect = DatabaseManager.dialect();
+                    String sql = dialect.upsert("exchange_rates", List.of("currency_code"),
+                            List.of("currency_code", "rate_to_base"), changedCodes.size(),
+                            "rate_to_base = source.rate_to_base, last_updated = " + dialect.now());
+
+                    try (PreparedStatement mergeStmt = conn.prepareStatement(sql)) {
+                        int parameter = 1;
+                        for (int i = 0; i < changedCodes.size(); i++) {
+                            mergeStmt.setString(parameter++, changedCodes.get(i));  // set the currency code
+                            mergeStmt.setDouble(parameter++, changedRates.get(i));  // set the rate to base currency
+                        }
+                        mergeStmt.executeUpdate();
+                    }
+                }
+                RateSnapshot saved = changedCodes.isEmpty() ? current : load(conn);
+                conn.commit();
+                System.out.println("✅ exchange rates updated successfully (" + changedCodes.size() + " changed).");
+                return saved;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // how many seconds ago the last successful API fetch was saved, or -1 if there is none
+    public long cacheAgeSeconds() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             // measured by the database clock, the same clock that wrote date_saved
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT " + DatabaseManager.dialect().secondsSince("MAX(date_saved)") + " AS age_seconds FROM CurrencyCache");
+             ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next()) {
+                long age = rs.getLong("age_seconds");
+                return rs.wasNull() ? -1 : age;
+            }
+            return -1;
+        }
+    }
+
+    // stores the raw rates JSON of a successful fetch, keeping a single cache row
+    public void saveCache(String json) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement update = conn.prepareStatement(
+                    "UPDATE CurrencyCache SET rates = ?, date_saved = " + DatabaseManager.dialect().now())) {
+                update.setString(1, json);
+                if (update.executeUpdate() > 0) {
+                    return;
+                }
+            }
+            try (PreparedStatement insert = conn.prepareStatement(
+                    "INSERT INTO CurrencyCache (rates, date_saved) VALUES (?, " + DatabaseManager.dialect().now() + ")")) {
+                insert.setString(1, json);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    // newest last_updated value in the table, a cheap version check for the snapshot
+    private static Timestamp findLastUpdated(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT MAX(last_updated) AS last_updated FROM exchange_rates");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getTimestamp("last_updated") : null;
+        }
+    }
+
+    private static RateSnapshot load(Connection conn) throws SQLException {
+        List<String> codes = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        Timestamp lastUpdated = null;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT currency_code, rate_to_base, last_updated FROM exchange_rates");
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                double rate = rs.getDouble("rate_to_base");
+                if (rate <= 0) {
+                    continue;  // a zero rate can't be converted through
+                }
+                codes.add(rs.getString("currency_code"));
+                rates.add(rate);
+                Timestamp updated = rs.getTimestamp("last_updated");
+                if (updated != null && (lastUpdated == null || updated.after(lastUpdated))) {
+                    lastUpdated = updated;
+                }
+            }
+        }
+
+        double[] rateArray = new double[rates.size()];
+        for (int i = 0; i < rateArray.length; i++) {
+            rateArray[i] = rates.get(i);
+        }
+        return new RateSnapshot(codes.toArray(new String[0]), rateArray, lastUpdated);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.financetracker;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// an immutable copy of the exchange_rates table. conversions read from it without touching the database,
+// and a refresh builds a new snapshot and swaps it in atomically so readers never see a half-updated table
+public final class RateSnapshot {
+    // an empty snapshot used before any rates have been loaded
+    public static final RateSnapshot EMPTY = new RateSnapshot(new String[0], new double[0], null);
+
+    private final String[] codes;  // currency codes, sorted
+    private final double[] rates;  // rate_to_base for codes[i]
+    private final Map<String, Integer> indexByCode;  // currency code -> index into codes/rates
+    private final Timestamp lastUpdated;  // newest last_updated in the table, used as the snapshot version
+    private volatile CrossRateMatrix crossRates;  // built on first bulk conversion
+
+    public RateSnapshot(String[] codes, double[] rates, Timestamp lastUpdated) {
+        if (codes.length != rates.length) {
+            throw new IllegalArgumentException("Every currency code needs exactly one rate.");
+        }
+        // sort codes (and their rates) so lists built from the snapshot are in a stable order
+        Integer[] order = new Integer[codes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> codes[a].compareTo(codes[b]));
+
+        this.codes = new String[codes.length];
+        this.rates = new double[rates.length];
+        this.indexByCode = new HashMap<>(codes.length * 2);
+        for (int i = 0; i < order.length; i++) {
+            this.codes[i] = codes[order[i]];
+            this.rates[i] = rates[order[i]];
+            indexByCode.put(this.codes[i], i);
+        }
+        this.lastUpdated = lastUpdated;
+    }
+
+    // returns the index of a currency code, or -1 if there is no rate for it
+    public int indexOf(String currencyCode) {
+        Integer index = indexByCode.get(currencyCode);
+        return index == null ? -1 : index;
+    }
+
+    // returns the rate for the currency at the given index
+    public double rateAt(int index) {
+        return rates[index];
+    }
+
+    // returns the currency code at the given index
+    public String codeAt(int index) {
+        return codes[index];
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public boolean isEmpty() {
+        return codes.length == 0;
+    }
+
+    // all currency codes in alphabetical order
+    public List<String> currencyCodes() {
+        return List.of(codes);
+    }
+
+    public Timestamp lastUpdated() {
+        return lastUpdated;
+    }
+
+    // every pairwise conversion factor for this snapshot, built once on first use
+    public CrossRateMatrix crossRates() {
+        CrossRateMatrix matrix = crossRates;
+        if (matrix == null) {
+            // building twice under a race is harmless, both results are identical
+            matrix = new CrossRateMatrix(this);
+            crossRates = matrix;
+        }
+        return matrix;
+    }
+
+    // converts an amount into another currency, rounding half-even to its minor unit; no database access
+    public Money convert(Money amount, String toCurrency) {
+        // one implementation for single and bulk conversions, so both round the same way
+        return crossRates().convert(amount, toCurrency);
+    }
+}
@@ -1,12 +1,42 @@
 package com.example.financetracker;
 
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SceneController {
+    // screens parsed once per session and kept: later visits reuse the same scene and controller, which is
+    // rebound with setUserId. the login screen is never kept so its fields start empty, and showing it (logging
+    // out) drops every kept screen so nothing from one user's session is shown to the next
+    private static final Set<String> CACHED_SCENES = Set.of(
+            "main.fxml", "expense_tracker.fxml", "budget_tracker.fxml", "currency_converter.fxml", "diagnostics.fxml");
+    // screens likely to be opened next, parsed in the background once the screen they are reached from is shown
+    private static final Map<String, List<String>> NEXT_SCENES = Map.of(
+            "main.fxml", List.of("expense_tracker.fxml", "budget_tracker.fxml", "currency_converter.fxml"));
+
+    // kept screens by FXML file; only touched on the JavaFX Application Thread
+    private static final Map<String, CachedScene> SCENES = new HashMap<>();
+    private static final Set<String> PRELOADING = new HashSet<>();
+    // bumped when the cache is dropped, so a preload that finishes afterwards is thrown away
+    private static int session;
+
+    // parses FXML off the JavaFX Application Thread; nodes may be built on any thread until they are shown
+    private static final ExecutorService PRELOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "scene-preloader");
+        thread.setDaemon(true);  // never keep the JVM alive just to preload a screen
+        return thread;
+    });
+
     private final Stage primaryStage;
 
     // constructor: accepts the primary stage (main window) for the application
@@ -16,13 +46,20 @@ public class SceneController {
 
     // switches to a new scene without passing any additional data
     public void switchToScene(String fxmlFile) {
+        // results for the screen we are leaving are no longer needed
+        DataAccessExecutor.cancelPendingLoads();
+        JfrEvents.SceneSwitch event = new JfrEvents.SceneSwitch();
+        event.begin();
+        long start = System.nanoTime();
         try {
-            // load the FXML file
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/" + fxmlFile));
-            Parent root = loader.load();
+            // a screen without a user (the login screen) ends the session
+            if (!CACHED_SCENES.contains(fxmlFile)) {
+                clearCache();
+            }
+            CachedScene scene = scene(fxmlFile);
 
             // set the new scene on the primary stage
-            primaryStage.setScene(new Scene(root));
+            primaryStage.setScene(scene.scene());
             primaryStage.show();  // Show the new scene
 
         } catch (IOException e) {
@@ -30,17 +67,23 @@ public class SceneController {
             e.printStackTrace();
             System.err.println("❌ Failed to load scene: " + fxmlFile);
         }
+        recordSwitch(fxmlFile, start, event);
     }
 
     // switches to a new scene and passes the user ID to the appropriate controller
     public void switchToSceneWithUser(String fxmlFile, int userId) {
+        // results for the screen we are leaving are no longer needed
+        DataAccessExecutor.cancelPendingLoads();
+        JfrEvents.SceneSwitch event = new JfrEvents.SceneSwitch();
+        event.begin();
+        long start = System.nanoTime();
         try {
-            // load the FXML file for the requested scene
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/" + fxmlFile));
-            Parent root = loader.load();
-            Object controller = loader.getController();
+            // the kept scene, or the FXML file loaded for the requested scene
+            CachedScene scene = scene(fxmlFile);
+            Object controller = scene.controller();
 
-            // ensure the user ID is passed to the correct controller based on the scene
+            // ensure the user ID is passed to the correct controller based on the scene; a kept controller
+            // reloads its data here on every visit
             if (controller instanceof MainController) {
                 ((MainController) controller).setUserId(userId);  // pass user ID to MainController
             } else if (controller instanceof ExpenseTrackerController) {
@@ -49,16 +92,93 @@ public class SceneController {
                 ((BudgetTrackerController) controller).setUserId(userId);  // pass user ID to BudgetTrackerController
             } else if (controller instanceof CurrencyConverterController) {
                 ((CurrencyConverterController) controller).setUserId(userId);  // pass user ID to CurrencyConverterController
+            } else if (controller instanceof DiagnosticsController) {
+                ((DiagnosticsController) controller).setUserId(userId);  // pass user ID to DiagnosticsController
             }
 
             // set the new scene on the primary stage and display it
-            primaryStage.setScene(new Scene(root));
+            primaryStage.setScene(scene.scene());
             primaryStage.show();  // show the new scene
 
+            preloadNextScenes(fxmlFile);
         } catch (IOException e) {
             // print an error message if the scene fails to load
             e.printStackTrace();
             System.err.println("❌ Failed to load scene: " + fxmlFile);
         }
+        recordSwitch(fxmlFile, start, event);
+    }
+
+    // the kept scene for a file, loading (and keeping, if it is cacheable) it on the first visit
+    private CachedScene scene(String fxmlFile) throws IOException {
+        CachedScene scene = SCENES.get(fxmlFile);
+        if (scene != null) {
+            Metrics.counter("scene.cache.hits").increment();
+            return scene;
+        }
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/" + fxmlFile));
+        scene = new CachedScene(new Scene(load(loader, fxmlFile)), loader.getController());
+        if (CACHED_SCENES.contains(fxmlFile)) {
+            SCENES.put(fxmlFile, scene);
+        }
+        return scene;
+    }
+
+    // parses the screens likely to be opened from this one in the background, so opening them is instant
+    private void preloadNextScenes(String fxmlFile) {
+        int currentSession = session;
+        for (String next : NEXT_SCENES.getOrDefault(fxmlFile, List.of())) {
+            if (SCENES.containsKey(next) || !PRELOADING.add(next)) {
+                continue;
+            }
+            PRELOADER.execute(() -> {
+                try {
+                    FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/" + next));
+                    Parent root = load(loader, next);
+                    Object controller = loader.getController();
+                    Platform.runLater(() -> {
+                        PRELOADING.remove(next);
+                        // a visit may have loaded it meanwhile, or the user may have logged out
+                        if (currentSession == session && !SCENES.containsKey(next)) {
+                            SCENES.put(next, new CachedScene(new Scene(root), controller));
+                        }
+                    });
+                } catch (IOException | RuntimeException e) {
+                    Platform.runLater(() -> PRELOADING.remove(next));
+                    System.err.println("⚠️ Could not preload scene: " + next);  // it is loaded when opened instead
+                    e.printStackTrace();
+                }
+            });
+        }
+    }
+
+    private static void clearCache() {
+        SCENES.clear();
+        session++;
+    }
+
+    // parses the FXML and builds its controller, timed as fxml.load by file
+    private static Parent load(FXMLLoader loader, String fxmlFile) throws IOException {
+        JfrEvents.FxmlLoad event = new JfrEvents.FxmlLoad();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return loader.load();
+        } finally {
+            Metrics.timer("fxml.load", "fxml", fxmlFile).recordSince(start);
+            event.fxml = fxmlFile;
+            event.commit();
+        }
+    }
+
+    // the whole switch, from leaving the old screen to the new one being shown, as scene.switch by file
+    private static void recordSwitch(String fxmlFile, long start, JfrEvents.SceneSwitch event) {
+        Metrics.timer("scene.switch", "fxml", fxmlFile).recordSince(start);
+        event.fxml = fxmlFile;
+        event.commit();
+    }
+
+    // a loaded screen: its scene and the controller FXMLLoader created for it
+    private record CachedScene(Scene scene, Object controller) {
     }
 }
@@ -0,0 +1,229 @@
+package com.example.financetracker;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// the last slow database calls, for finding which screen's query degrades as data grows. InstrumentedStatement
+// hands over every call at or over the threshold (-Dfinancetracker.slowQuery.thresholdMs, 100 by default, and
+// changeable from the diagnostics screen) with its SQL, bind values, row count and time. values bound to
+// password / hash / secret / token columns are never kept. recording is only a copy into memory; on SQLite the
+// query plan (EXPLAIN QUERY PLAN) is worked out by explain() when the entry is looked at, on a connection of its
+// own, so the slow call's connection and transaction are never touched. the newest entries are kept in a ring
+// buffer (-Dfinancetracker.slowQuery.capacity, 100 by default)
+public final class SlowQueryLog {
+    private static final int CAPACITY = Math.max(1, Integer.getInteger("financetracker.slowQuery.capacity", 100));
+    // longest bind value shown, longer text is cut
+    private static final int MAX_VALUE_LENGTH = 60;
+    // column names whose values are replaced by REDACTED
+    private static final Pattern SENSITIVE_COLUMN = Pattern.compile("pass|hash|secret|token|api_?key",
+            Pattern.CASE_INSENSITIVE);
+    // the column a placeholder is compared with or assigned to, e.g. "username = ?" or "amount >= ?"
+    private static final Pattern COMPARED_COLUMN = Pattern.compile(
+            "([\\w\\]\"]+)\\s*(?:=|<>|!=|<=|>=|<|>|\\bLIKE|\\bIN\\s*\\((?:\\s*\\?\\s*,)*)\\s*$",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern INSERT_COLUMNS = Pattern.compile(
+            "^\\s*INSERT\\s+INTO\\s+[\\w.\\[\\]\"]+(?:\\s+AS\\s+\\w+)?\\s*\\(([^)]*)\\)\\s*(?:OUTPUT\\s[^()]*?)?VALUES",
+            Pattern.CASE_INSENSITIVE);
+    private static final String REDACTED = "REDACTED";
+
+    private static volatile long thresholdNanos =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("financetracker.slowQuery.thresholdMs", 100));
+
+    // ring buffer, next is where the next entry goes; guarded by the class lock
+    private static final SlowQuery[] ENTRIES = new SlowQuery[CAPACITY];
+    private static int next;
+    private static long recorded;  // every slow query since startup, including ones that have been overwritten
+
+    private SlowQueryLog() {
+    }
+
+    // one slow call. binds are already formatted and redacted; values are the bound values explain() re-binds,
+    // with redacted ones left null
+    public record SlowQuery(LocalDateTime at, String query, String sql, List<String> binds, List<Object> values,
+                            long rows, double millis, boolean succeeded, String thread) {
+    }
+
+    public static long thresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    public static void setThresholdMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Threshold can't be negative.");
+        }
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    static boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    // called by InstrumentedStatement for a call that was slow, on the caller's thread, so it does no database work
+    static void record(String query, String sql, Object[] binds, long rows, long nanos, boolean succeeded) {
+        List<String> columns = placeholderColumns(sql);
+        SlowQuery entry = new SlowQuery(LocalDateTime.now(), query, sql, describeBinds(columns, binds),
+                explainValues(columns, binds), rows, nanos / 1e6, succeeded, Thread.currentThread().getName());
+        synchronized (SlowQueryLog.class) {
+            ENTRIES[next] = entry;
+            next = (next + 1) % CAPACITY;
+            recorded++;
+        }
+    }
+
+    // the kept entries, newest first
+    public static synchronized List<SlowQuery> recent() {
+        List<SlowQuery> entries = new ArrayList<>(CAPACITY);
+        for (int i = 1; i <= CAPACITY; i++) {
+            SlowQuery entry = ENTRIES[(next - i + CAPACITY) % CAPACITY];
+            if (entry == null) {
+                break;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    // how many slow queries there have been since startup (or the last clear)
+    public static synchronized long recorded() {
+        return recorded;
+    }
+
+    public static synchronized void clear() {
+        Arrays.fill(ENTRIES, null);
+        next = 0;
+        recorded = 0;
+    }
+
+    // the bind values as text, by position, with sensitive columns redacted
+    private static List<String> describeBinds(List<String> columns, Object[] binds) {
+        if (binds == null || binds.length == 0) {
+            return List.of();
+        }
+        List<String> described = new ArrayList<>(binds.length);
+        for (int i = 0; i < binds.length; i++) {
+            described.add(isSensitive(columns, i) ? REDACTED : format(binds[i]));
+        }
+        return described;
+    }
+
+    // the values to bind when explaining, null in place of sensitive ones (they don't change the plan)
+    private static List<Object> explainValues(List<String> columns, Object[] binds) {
+        if (binds == null || binds.length == 0) {
+            return List.of();
+        }
+        Object[] values = new Object[binds.length];
+        for (int i = 0; i < binds.length; i++) {
+            values[i] = isSensitive(columns, i) ? null : binds[i];
+        }
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    private static boolean isSensitive(List<String> columns, int index) {
+        String column = index < columns.size() ? columns.get(index) : null;
+        return column != null && SENSITIVE_COLUMN.matcher(column).find();
+    }
+
+    // the column each ? belongs to, null where it can't be told from the SQL. INSERT values are matched to the
+    // column list by position (also for multi-row VALUES), anything else by what the ? is compared with
+    private static List<String> placeholderColumns(String sql) {
+        List<String> insertColumns = List.of();
+        Matcher insert = INSERT_COLUMNS.matcher(sql);
+        int valuesStart = -1;
+        if (insert.find()) {
+            insertColumns = new ArrayList<>();
+            for (String column : insert.group(1).split(",")) {
+                insertColumns.add(column.trim());
+            }
+            valuesStart = insert.end();
+        }
+
+        List<String> columns = new ArrayList<>();
+        int inValues = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                if (valuesStart >= 0 && i > valuesStart && !insertColumns.isEmpty()
+                        && !afterClause(sql, valuesStart, i)) {
+                    columns.add(insertColumns.get(inValues++ % insertColumns.size()));
+                } else {
+                    Matcher compared = COMPARED_COLUMN.matcher(sql.substring(Math.max(0, i - 200), i));
+                    columns.add(compared.find() ? compared.group(1) : null);
+                }
+            }
+        }
+        return columns;
+    }
+
+    // whether a ? after VALUES is really in a later clause, e.g. ON CONFLICT ... WHERE or RETURNING
+    private static boolean afterClause(String sql, int valuesStart, int position) {
+        String between = sql.substring(valuesStart, position).toUpperCase(Locale.ROOT);
+        return between.contains(" ON ") || between.contains(" WHERE ") || between.contains(" RETURNING ")
+                || between.contains(" OUTPUT ");
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof String text) {
+            String shown = text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "…" : text;
+            return "'" + shown + "'";
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        return String.valueOf(value);
+    }
+
+    // the plan SQLite chooses for the entry's statement now, as an indented tree, using a pooled connection of its
+    // own. null where there is no plan to show: SQL Server (a plan needs SHOWPLAN switched on for the whole
+    // session), failed calls and statements such as CREATE. runs a query, so call it off the FX thread
+    public static String explain(SlowQuery query) {
+        String explain = DatabaseManager.dialect().explainQueryPlan(query.sql());
+        if (explain == null || !query.succeeded() || !isExplainable(query.sql())) {
+            return null;
+        }
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(explain)) {
+            for (int i = 0; i < query.values().size(); i++) {
+                pstmt.setObject(i + 1, query.values().get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            Map<Integer, Integer> depths = new HashMap<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    // columns are id, parent, notused, detail; a step is nested under its parent
+                    int depth = depths.getOrDefault(rs.getInt("parent"), -1) + 1;
+                    depths.put(rs.getInt("id"), depth);
+                    plan.append(String.join("", Collections.nCopies(depth, "  ")))
+                            .append(rs.getString("detail")).append('\n');
+                }
+            }
+            return plan.length() == 0 ? null : plan.toString();  // e.g. a plain INSERT ... VALUES
+        } catch (SQLException e) {
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    private static boolean isExplainable(String sql) {
+        String verb = sql.stripLeading().toUpperCase(Locale.ROOT);
+        return verb.startsWith("SELECT") || verb.startsWith("WITH") || verb.startsWith("INSERT")
+                || verb.startsWith("UPDATE") || verb.startsWith("DELETE");
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.financetracker;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// the SQL that differs between the storage backends. repositories build their statements through the
+// dialect of the configured backend (DatabaseManager.dialect()) so the same code runs on both
+public enum SqlDialect {
+    // shared SQL Server instance, the default
+    SQL_SERVER {
+        @Override
+        public String now() {
+            return "GETDATE()";
+        }
+
+        @Override
+        public String limit(String select, int rows) {
+            // OFFSET ... FETCH is only allowed after an ORDER BY, and without one "first" means nothing anyway
+            if (!ORDER_BY.matcher(select).find()) {
+                throw new IllegalArgumentException("A limited SELECT needs an ORDER BY: " + select);
+            }
+            return select + " OFFSET 0 ROWS FETCH NEXT " + rows + " ROWS ONLY";
+        }
+
+        @Override
+        public String insertReturning(String table, List<String> columns, String values, List<String> returning) {
+            return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") " +
+                    "OUTPUT " + returning.stream().map(column -> "INSERTED." + column).collect(Collectors.joining(", ")) +
+                    " VALUES (" + values + ")";
+        }
+
+        @Override
+        public String upsert(String table, List<String> keyColumns, List<String> columns, int rows, String updates) {
+            // HOLDLOCK keeps the key range locked from the match to the insert, so two sessions upserting the
+            // same new key can't both take the NOT MATCHED branch and collide on the primary key
+            return "MERGE INTO " + table + " WITH (HOLDLOCK) AS target USING (VALUES " + valueRows(columns.size(), rows) + ") " +
+                    "AS source (" + String.join(", ", columns) + ") " +
+                    "ON " + keyColumns.stream().map(key -> "target." + key + " = source." + key)
+                            .collect(Collectors.joining(" AND ")) + " " +
+                    "WHEN MATCHED THEN UPDATE SET " + updates + " " +
+                    "WHEN NOT MATCHED THEN INSERT (" + String.join(", ", columns) + ") " +
+                    "VALUES (" + columns.stream().map(column -> "source." + column).collect(Collectors.joining(", ")) + ");";
+        }
+
+        @Override
+        public String secondsSince(String dateTime) {
+            return "DATEDIFF(SECOND, " + dateTime + ", GETDATE())";
+        }
+
+        @Override
+        public String yearMonthOf(String date) {
+            return "YEAR(" + date + ") * 100 + MONTH(" + date + ")";
+        }
+
+        @Override
+        public String bucketStart(ChronoUnit unit, String date) {
+            String start = switch (unit) {
+                case DAYS -> date;
+                // back to Monday whatever @@DATEFIRST is set to
+                case WEEKS -> "DATEADD(DAY, -((DATEPART(WEEKDAY, " + date + ") + @@DATEFIRST + 5) % 7), CAST("
+                        + date + " AS DATE))";
+                case MONTHS -> "DATEFROMPARTS(YEAR(" + date + "), MONTH(" + date + "), 1)";
+                default -> throw new IllegalArgumentException("Unsupported bucket: " + unit);
+            };
+            return "CONVERT(CHAR(10), " + start + ", 23)";  // style 23 is yyyy-mm-dd
+        }
+
+        @Override
+        public String explainQueryPlan(String sql) {
+            return null;  // SHOWPLAN_TEXT is a session setting that stops statements from running, not worth it here
+        }
+
+        @Override
+        public Properties connectionProperties() {
+            return new Properties();  // credentials are added by DatabaseManager
+        }
+    },
+
+    // embedded file database for single-user / offline use, no server needed
+    SQLITE {
+        @Override
+        public String now() {
+            return "datetime('now', 'localtime')";  // same local wall-clock time GETDATE() gives
+        }
+
+        @Override
+        public String limit(String select, int rows) {
+            return select + " LIMIT " + rows;
+        }
+
+        @Override
+        public String insertReturning(String table, List<String> columns, String values, List<String> returning) {
+            return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + values + ") " +
+                    "RETURNING " + String.join(", ", returning);
+        }
+
+        @Override
+        public String upsert(String table, List<String> keyColumns, List<String> columns, int rows, String updates) {
+            // "excluded" is SQLite's name for the row that failed to insert
+            return "INSERT INTO " + table + " AS target (" + String.join(", ", columns) + ") " +
+                    "VALUES " + valueRows(columns.size(), rows) + " " +
+                    "ON CONFLICT (" + String.join(", ", keyColumns) + ") " +
+                    "DO UPDATE SET " + updates.replace("source.", "excluded.");
+        }
+
+        @Override
+        public String secondsSince(String dateTime) {
+            return "CAST(strftime('%s', 'now', 'localtime') - strftime('%s', " + dateTime + ") AS INTEGER)";
+        }
+
+        @Override
+        public String yearMonthOf(String date) {
+            return "CAST(strftime('%Y%m', " + date + ") AS INTEGER)";
+        }
+
+        @Override
+        public String bucketStart(ChronoUnit unit, String date) {
+            return switch (unit) {
+                case DAYS -> "date(" + date + ")";
+                // on to the next Sunday (or stay on one), then back to its Monday
+                case WEEKS -> "date(" + date + ", 'weekday 0', '-6 days')";
+                case MONTHS -> "date(" + date + ", 'start of month')";
+                default -> throw new IllegalArgumentException("Unsupported bucket: " + unit);
+            };
+        }
+
+        @Override
+        public String explainQueryPlan(String sql) {
+            return "EXPLAIN QUERY PLAN " + sql;
+        }
+
+        @Override
+        public Properties connectionProperties() {
+            Properties properties = new Properties();
+            // dates are stored as text in the format datetime() produces so they compare and sort correctly
+            properties.setProperty("date_class", "TEXT");
+            properties.setProperty("date_string_format", "yyyy-MM-dd HH:mm:ss");
+            // readers don't block the writer, and a busy database is waited on instead of failing straight away
+            properties.setProperty("journal_mode", "WAL");
+            properties.setProperty("synchronous", "NORMAL");
+            properties.setProperty("busy_timeout", "5000");
+            properties.setProperty("foreign_keys", "true");
+            return properties;
+        }
+    };
+
+    private static final Pattern ORDER_BY = Pattern.compile("\\bORDER\\s+BY\\b", Pattern.CASE_INSENSITIVE);
+
+    // the current date and time, as a SQL expression
+    public abstract String now();
+
+    // restricts a "SELECT ... ORDER BY ..." statement to its first rows
+    public abstract String limit(String select, int rows);
+
+    // an INSERT that returns the given columns of the new row as a result set (read it with executeQuery)
+    public abstract String insertReturning(String table, List<String> columns, String values, List<String> returning);
+
+    // inserts rows of the given columns, updating the existing row when the key is already there.
+    // in the updates, source.<column> is the value being written and target.<column> the one already stored
+    public abstract String upsert(String table, List<String> keyColumns, List<String> columns, int rows, String updates);
+
+    // seconds between a date/time expression and now
+    public abstract String secondsSince(String dateTime);
+
+    // the yyyymm number of a date expression, as used by MonthlySpend
+    public abstract String yearMonthOf(String date);
+
+    // the first day of the day, week (starting Monday) or month a date falls in, as yyyy-MM-dd text
+    public abstract String bucketStart(ChronoUnit unit, String date);
+
+    // a statement that returns the plan for the given one (with the same parameters) instead of running it,
+    // or null if the backend has none
+    public abstract String explainQueryPlan(String sql);
+
+    // driver settings passed when a connection is opened
+    public abstract Properties connectionProperties();
+
+    // looks up a backend by its -Dfinancetracker.storage name ("sqlserver" or "sqlite")
+    public static SqlDialect fromName(String name) {
+        return switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "sqlserver", "sql_server", "mssql" -> SQL_SERVER;
+            case "sqlite", "embedded", "local" -> SQLITE;
+            default -> throw new IllegalArgumentException("Unknown storage backend: " + name);
+        };
+    }
+
+    // "(?, ?), (?, ?)" for the given number of rows and columns
+    private static String valueRows(int columns, int rows) {
+        String row = "(" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+        return String.join(", ", Collections.nCopies(rows, row));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.financetracker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+
+// one bank statement file format. reading a record is the cheap sequential part (it only finds where a
+// transaction starts and ends); parse() does the real work and may be called from several threads at once
+public interface StatementFormat {
+
+    // the raw text of the next transaction, or null at the end of the file
+    String nextRecord(BufferedReader reader) throws IOException;
+
+    // turns a raw record into a transaction; throws IllegalArgumentException for a row that can't be used
+    Transaction parse(String record);
+
+    // reads an amount such as "-1,234.50", "£12.00" or "(12.00)" (brackets mean negative), in pounds
+    static Money parseAmount(String text) {
+        String cleaned = text.replaceAll("[£$€,\\s]", "");
+        boolean bracketed = cleaned.startsWith("(") && cleaned.endsWith(")");
+        if (bracketed) {
+            cleaned = cleaned.substring(1, cleaned.length() - 1);
+        }
+        if (cleaned.isEmpty()) {
+            throw new IllegalArgumentException("missing amount");
+        }
+        try {
+            Money amount = Money.parse(cleaned, Money.HOME_CURRENCY);
+            return bracketed ? amount.negate() : amount;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid amount: " + text);
+        }
+    }
+
+    // a statement line as the bank reports it: money out is negative, money in positive.
+    // category is null unless the file has its own category column
+    record Transaction(LocalDate date, Money amount, String description, String category) {
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.financetracker;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// headless tool that fills the database with realistic synthetic data for scale testing: users with skewed
+// category mixes, a long-tailed number of expenses each, multi-year histories, monthly rent, budgets and exchange
+// rates. users are written in parallel, each through batched inserts. the backend is whatever DatabaseManager is
+// configured for, e.g.
+//
+//   java -Dfinancetracker.storage=sqlite ... com.example.financetracker.SyntheticDataGenerator generate --users 2000
+//   java -Dfinancetracker.storage=sqlite ... com.example.financetracker.SyntheticDataGenerator load --rate 100
+//
+// "load" replays a mixed workload against the generated users, see LoadDriver
+public class SyntheticDataGenerator {
+    // every synthetic user has this name prefix and password, so the load driver can log in as any of them
+    public static final String USERNAME_PREFIX = "synth";
+    public static final String PASSWORD = "password123";
+
+    private static final int CHUNK_SIZE = 5_000;  // expenses per insertBatch call
+
+    // category -> typical share of a user's spending count; each user gets their own skew of these
+    private static final Map<String, Double> CATEGORY_WEIGHTS = new LinkedHashMap<>();
+    // category -> median amount in pence; amounts are log-normal around it
+    private static final Map<String, Integer> MEDIAN_PENCE = new HashMap<>();
+    private static final Map<String, String[]> MERCHANTS = new HashMap<>();
+    // EUR based, as fixer.io returns them
+    private static final Map<String, Double> RATES = new LinkedHashMap<>();
+
+    static {
+        CATEGORY_WEIGHTS.put("Food", 0.38);
+        CATEGORY_WEIGHTS.put("Transport", 0.22);
+        CATEGORY_WEIGHTS.put("Shopping", 0.15);
+        CATEGORY_WEIGHTS.put("Bills", 0.10);
+        CATEGORY_WEIGHTS.put("Entertainment", 0.10);
+        CATEGORY_WEIGHTS.put("Other", 0.05);
+        MEDIAN_PENCE.put("Food", 800);
+        MEDIAN_PENCE.put("Transport", 600);
+        MEDIAN_PENCE.put("Shopping", 2_500);
+        MEDIAN_PENCE.put("Bills", 4_500);
+        MEDIAN_PENCE.put("Entertainment", 1_500);
+        MEDIAN_PENCE.put("Other", 1_000);
+        MERCHANTS.put("Food", new String[]{"Tesco Stores", "Costa Coffee", "Pret A Manger", "Sainsburys", "Deliveroo",
+                "Greggs", "Lidl"});
+        MERCHANTS.put("Transport", new String[]{"TfL Travel", "Trainline", "Uber Trip", "Shell Petrol", "National Express"});
+        MERCHANTS.put("Shopping", new String[]{"Amazon Marketplace", "Argos", "John Lewis", "Primark", "IKEA"});
+        MERCHANTS.put("Bills", new String[]{"British Gas", "Thames Water", "EE Mobile", "Council Tax", "Virgin Media"});
+        MERCHANTS.put("Entertainment", new String[]{"Netflix", "Odeon Cinema", "Spotify", "Ticketmaster", "Steam"});
+        MERCHANTS.put("Other", new String[]{"Cash Withdrawal", "Post Office", "Boots", "Royal Mail"});
+        RATES.put("EUR", 1.0);
+        RATES.put("GBP", 0.8431);
+        RATES.put("USD", 1.0712);
+        RATES.put("JPY", 159.21);
+        RATES.put("CHF", 0.9478);
+        RATES.put("CAD", 1.4685);
+        RATES.put("AUD", 1.6234);
+        RATES.put("NZD", 1.7812);
+        RATES.put("CNY", 7.7519);
+        RATES.put("HKD", 8.3747);
+        RATES.put("SGD", 1.4501);
+        RATES.put("INR", 89.412);
+        RATES.put("SEK", 11.463);
+        RATES.put("NOK", 11.702);
+        RATES.put("DKK", 7.4589);
+        RATES.put("PLN", 4.3120);
+        RATES.put("CZK", 25.104);
+        RATES.put("HUF", 395.87);
+        RATES.put("TRY", 34.671);
+        RATES.put("ZAR", 19.803);
+        RATES.put("BRL", 5.8810);
+        RATES.put("MXN", 19.612);
+        RATES.put("KRW", 1462.3);
+        RATES.put("AED", 3.9343);
+        RATES.put("SAR", 4.0170);
+        RATES.put("THB", 37.105);
+        RATES.put("ILS", 4.0456);
+        RATES.put("BTC", 0.0000162);
+    }
+
+    // what a generate run did
+    public record Summary(int users, long expenses, double seconds) {
+        public double expensesPerSecond() {
+            return seconds <= 0 ? 0 : expenses / seconds;
+        }
+    }
+
+    private final int years;  // how far back the longest histories go
+    private final long seed;
+    private final UserRepository userRepository = new UserRepository();
+    private final ExpenseRepository expenseRepository = new ExpenseRepository();
+    private final BudgetRepository budgetRepository = new BudgetRepository();
+    private volatile String passwordHash;  // hashed once, see passwordHash()
+
+    public SyntheticDataGenerator(int years, long seed) {
+        this.years = years;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0 || !(args[0].equals("generate") || args[0].equals("load"))) {
+            System.err.println("Usage: SyntheticDataGenerator generate [--users 1000] [--expenses 500] [--years 3] "
+                    + "[--threads 4] [--seed 42]");
+            System.err.println("       SyntheticDataGenerator load [--rate 50] [--seconds 60] [--threads 8] "
+                    + "[--mix login=10,add=20,dashboard=50,convert=20] [--seed 42]");
+            System.exit(2);
+        }
+        Map<String, String> options = options(args);
+        try {
+            DatabaseSetup.migrate();
+            long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+            if (args[0].equals("generate")) {
+                SyntheticDataGenerator generator = new SyntheticDataGenerator(
+                        Integer.parseInt(options.getOrDefault("years", "3")), seed);
+                Summary summary = generator.generate(Integer.parseInt(options.getOrDefault("users", "1000")),
+                        Integer.parseInt(options.getOrDefault("expenses", "500")),
+                        Integer.parseInt(options.getOrDefault("threads", "4")));
+                System.out.printf("✅ Generated %d users and %d expenses in %.1f s (%.0f expenses/s)%n",
+                        summary.users(), summary.expenses(), summary.seconds(), summary.expensesPerSecond());
+            } else {
+                LoadDriver driver = new LoadDriver(
+                        Double.parseDouble(options.getOrDefault("rate", "50")),
+                        Integer.parseInt(options.getOrDefault("seconds", "60")),
+                        Integer.parseInt(options.getOrDefault("threads", "8")),
+                        LoadDriver.parseMix(options.getOrDefault("mix", "login=10,add=20,dashboard=50,convert=20")),
+                        seed);
+                System.out.print(driver.run().report());
+            }
+        } catch (Exception e) {
+            System.err.println("❌ " + args[0] + " failed!");
+            e.printStackTrace();
+        } finally {
+            DatabaseManager.shutdown();
+            DataAccessExecutor.shutdown();
+        }
+    }
+
+    // --name value pairs after the mode
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option but found " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    // creates users synth00001..synthNNNNN (skipping any that are complete, so an interrupted run can be resumed)
+    // with on average meanExpenses each, using the given number of threads
+    public Summary generate(int users, int meanExpenses, int threads) throws Exception {
+        long start = System.nanoTime();
+        seedRates();
+        passwordHash();  // once, before the threads need it
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicLong expenses = new AtomicLong();
+        AtomicInteger done = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>(users);
+            for (int i = 1; i <= users; i++) {
+                String username = username(i);
+                // one random stream per user, so the data is the same whatever the number of threads
+                Random random = new Random(seed * 31 + i);
+                tasks.add(pool.submit(() -> {
+                    int count = expenseCount(random, meanExpenses);
+                    if (createUser(username, count, random) > 0) {
+                        created.incrementAndGet();
+                        expenses.addAndGet(count);
+                    }
+                    int finished = done.incrementAndGet();
+                    if (finished % Math.max(1, users / 10) == 0) {
+                        System.out.println("⏳ " + finished + "/" + users + " users");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();  // rethrows the first failure
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Summary(created.get(), expenses.get(), (System.nanoTime() - start) / 1e9);
+    }
+
+    // writes the exchange rates the converter uses
+    public void seedRates() throws SQLException {
+        new CurrencyConverter().applyRates(RATES);
+    }
+
+    // creates one user with about expenseCount expenses (plus monthly rent for most), their categories and a budget
+    // that fits their spending. returns the new user's id, or -1 if the user already exists and is complete.
+    // the user row, categories and each chunk of expenses are separate transactions and the budget is written
+    // last, so a user with no budget was cut short by an interrupted run: it is deleted and generated again
+    public int createUser(String username, int expenseCount, Random random) throws SQLException {
+        if (!userRepository.create(username, passwordHash())) {
+            int existing = userRepository.findId(username).orElseThrow();
+            if (budgetRepository.findMonthlyBudget(existing).isPresent()) {
+                return -1;
+            }
+            userRepository.delete(existing);
+            if (!userRepository.create(username, passwordHash())) {
+                return -1;  // something else created it in between
+            }
+        }
+        int userId = userRepository.findId(username).orElseThrow();
+
+        LocalDate today = LocalDate.now();
+        LocalDate since = today.minusDays(Math.max(30, (long) (years * 365 * (0.25 + 0.75 * random.nextDouble()))));
+        Map<String, Double> mix = skewedMix(random);
+        for (String category : mix.keySet()) {
+            expenseRepository.addCategory(userId, category);
+        }
+
+        List<ExpenseRepository.NewExpense> chunk = new ArrayList<>(Math.min(expenseCount, CHUNK_SIZE));
+        long totalPence = 0;
+        int historyDays = (int) ChronoUnit.DAYS.between(since, today) + 1;
+        for (int i = 0; i < expenseCount; i++) {
+            String category = pick(random, mix);
+            LocalDateTime date = since.plusDays(random.nextInt(historyDays))
+                    .atTime(7 + random.nextInt(16), random.nextInt(60), random.nextInt(60));
+            Money amount = amount(random, MEDIAN_PENCE.get(category));
+            String[] merchants = MERCHANTS.get(category);
+            chunk.add(new ExpenseRepository.NewExpense(date, amount, category, merchants[random.nextInt(merchants.length)]));
+            totalPence += amount.minorUnits();
+            if (chunk.size() == CHUNK_SIZE) {
+                expenseRepository.insertBatch(userId, chunk);
+                chunk.clear();
+            }
+        }
+
+        // most people pay rent: the same amount on the same day every month
+        if (random.nextDouble() < 0.7) {
+            expenseRepository.addCategory(userId, "Rent");
+            Money rent = Money.ofPence((60_000 + random.nextInt(90_000)) / 100 * 100);
+            int day = 1 + random.nextInt(28);
+            for (LocalDate month = since.withDayOfMonth(day); !month.isAfter(today); month = month.plusMonths(1)) {
+                chunk.add(new ExpenseRepository.NewExpense(month.atTime(9, 0), rent, "Rent", "Rent Payment"));
+                totalPence += rent.minorUnits();
+            }
+        }
+        expenseRepository.insertBatch(userId, chunk);
+
+        // a budget around what they actually spend a month, to the nearest £10
+        double months = Math.max(1, historyDays / 30.4);
+        long monthlyPence = Math.round(totalPence / months * (0.8 + 0.5 * random.nextDouble()) / 1000) * 1000;
+        budgetRepository.saveMonthlyBudget(userId, Money.ofPence(Math.max(1000, monthlyPence)));
+        return userId;
+    }
+
+    // synth00001, synth00002, ...
+    public static String username(int index) {
+        return String.format("%s%05d", USERNAME_PREFIX, index);
+    }
+
+    // a random expense for an existing user, e.g. for the load driver's "add expense"
+    public static ExpenseRepository.NewExpense randomExpense(Random random) {
+        String category = pick(random, CATEGORY_WEIGHTS);
+        String[] merchants = MERCHANTS.get(category);
+        return new ExpenseRepository.NewExpense(LocalDateTime.now(), amount(random, MEDIAN_PENCE.get(category)),
+                category, merchants[random.nextInt(merchants.length)]);
+    }
+
+    // the currencies seeded by seedRates
+    public static List<String> currencies() {
+        return List.copyOf(RATES.keySet());
+    }
+
+    // every user shares one hash of PASSWORD at the registration cost factor: hashing it per user would take
+    // minutes for thousands of users and tell us nothing, but login still pays the real cost to check it
+    private String passwordHash() {
+        String hash = passwordHash;
+        if (hash == null) {
+            synchronized (this) {
+                if (passwordHash == null) {
+                    passwordHash = BCrypt.hashpw(PASSWORD, BCrypt.gensalt());
+                }
+                hash = passwordHash;
+            }
+        }
+        return hash;
+    }
+
+    // log-normal around the mean: most users have a modest history, a few have a very long one
+    private static int expenseCount(Random random, int mean) {
+        double sigma = 0.75;
+        double count = Math.exp(Math.log(mean) - sigma * sigma / 2 + sigma * random.nextGaussian());
+        return (int) Math.max(1, Math.min(mean * 20L, Math.round(count)));
+    }
+
+    // the base category weights, each scaled by a per-user factor; some users never spend in some categories
+    private static Map<String, Double> skewedMix(Random random) {
+        Map<String, Double> mix = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : CATEGORY_WEIGHTS.entrySet()) {
+            if (!entry.getKey().equals("Food") && random.nextDouble() < 0.1) {
+                continue;
+            }
+            mix.put(entry.getKey(), entry.getValue() * Math.exp(0.6 * random.nextGaussian()));
+        }
+        return mix;
+    }
+
+    private static String pick(Random random, Map<String, Double> weights) {
+        double total = 0;
+        for (double weight : weights.values()) {
+            total += weight;
+        }
+        double roll = random.nextDouble() * total;
+        String last = null;
+        for (Map.Entry<String, Double> entry : weights.entrySet()) {
+            last = entry.getKey();
+            roll -= entry.getValue();
+            if (roll < 0) {
+                break;
+            }
+        }
+        return last;
+    }
+
+    // log-normal around the median, between 1p and £5,000
+    private static Money amount(Random random, int medianPence) {
+        double pence = medianPence * Math.exp(0.8 * random.nextGaussian());
+        return Money.ofPence(Math.max(1, Math.min(500_000, Math.round(pence))));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.financetracker;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+// blocking data access for user accounts; run these through DataAccessExecutor from the UI.
+// passwords are hashed by the caller, only the hash is stored
+public class UserRepository {
+
+    // returns the user's id and stored password hash, or empty if there is no such user
+    public Optional<Credentials> findCredentials(String username) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT id, password FROM Users WHERE username = ?")) {
+
+            pstmt.setString(1, username);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next()
+                        ? Optional.of(new Credentials(rs.getInt("id"), username, rs.getString("password")))
+                        : Optional.empty();
+            }
+        }
+    }
+
+    // returns the id of the user with the given name
+    public OptionalInt findId(String username) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return findId(conn, username);
+        }
+    }
+
+    // creates the user, returns false if the username is already taken
+    public boolean create(String username, String passwordHash) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (findId(conn, username).isPresent()) {
+                return false;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO Users (username, password) VALUES (?, ?)")) {
+                pstmt.setString(1, username);
+                pstmt.setString(2, passwordHash);
+                pstmt.executeUpdate();
+                return true;
+            }
+        }
+    }
+
+    // deletes the user; their expenses, categories, budget and rollup rows go with them (ON DELETE CASCADE)
+    public void delete(int userId) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM Users WHERE id = ?")) {
+            pstmt.setInt(1, userId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // users whose name starts with the prefix, e.g. the synthetic users of a load test, at most limit of them
+    public List<Credentials> findByPrefix(String prefix, int limit) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(DatabaseManager.dialect().limit(
+                     "SELECT id, username, password FROM Users WHERE username LIKE ? ORDER BY username", limit))) {
+
+            pstmt.setString(1, prefix + "%");
+            List<Credentials> users = new ArrayList<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(new Credentials(rs.getInt("id"), rs.getString("username"), rs.getString("password")));
+                }
+            }
+            return users;
+        }
+    }
+
+    private static OptionalInt findId(Connection conn, String username) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM Users WHERE username = ?")) {
+            pstmt.setString(1, username);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? OptionalInt.of(rs.getInt("id")) : OptionalInt.empty();
+            }
+        }
+    }
+
+    // what login needs to know about a user
+    public record Credentials(int id, String username, String passwordHash) {
+    }
+}
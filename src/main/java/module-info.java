@@ -11,6 +11,7 @@ module com.example.financetracker {
     requires eu.hansolo.tilesfx;
     requires java.sql;
     requires java.net.http;
+    requires jdk.jfr;
     requires org.json;
     requires jbcrypt; // For URL and network connections
 
@@ -0,0 +1,164 @@
+package com.example.financetracker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the pool against a SQLite file, so no database server is needed
+class ConnectionPoolTest {
+    @TempDir
+    Path folder;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void createPool() {
+        pool = pool(2, 200);
+    }
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void reusesReturnedConnections() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(isWorking(conn));
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(isWorking(conn));
+        }
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(2, stats.checkouts());
+        assertEquals(1, stats.created());
+        assertEquals(0, stats.active());
+        assertEquals(1, stats.idle());
+    }
+
+    @Test
+    void timesOutWhenEveryConnectionIsCheckedOut() throws SQLException {
+        try (Connection first = pool.getConnection();
+             Connection second = pool.getConnection()) {
+            assertNotSame(first, second);
+            assertEquals(2, pool.getStats().active());
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+        }
+        // the failed checkout didn't use up a slot
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(isWorking(conn));
+        }
+    }
+
+    @Test
+    void waitingCallerGetsTheReturnedConnection() throws Exception {
+        ConnectionPool slowPool = pool(1, 5_000);
+        try {
+            Connection held = slowPool.getConnection();
+            CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+                try (Connection conn = slowPool.getConnection()) {
+                    return isWorking(conn);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(100);
+            assertFalse(waiter.isDone());
+            held.close();
+            assertTrue(waiter.get(5, TimeUnit.SECONDS));
+            assertEquals(1, slowPool.getStats().created());
+        } finally {
+            slowPool.shutdown();
+        }
+    }
+
+    @Test
+    void closedHandleCanNotBeUsedOrClosedTwice() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close();  // must not release the slot a second time
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        assertEquals(0, pool.getStats().active());
+        assertEquals(1, pool.getStats().idle());
+
+        // still only two slots
+        try (Connection first = pool.getConnection();
+             Connection second = pool.getConnection()) {
+            assertTrue(isWorking(first));
+            assertTrue(isWorking(second));
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+        }
+    }
+
+    @Test
+    void returnedConnectionIsRolledBackAndBackInAutoCommit() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE items (name TEXT)");
+        }
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.executeUpdate("INSERT INTO items VALUES ('never committed')");
+            // closed without commit
+        }
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM items")) {
+            assertTrue(conn.getAutoCommit());
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void reportsConnectionsThatAreNeverReturned() throws Exception {
+        String url = "jdbc:sqlite:" + folder.resolve("pool.db");
+        ConnectionPool leakyPool = new ConnectionPool(url, new Properties(), 2, 200, 60_000, 100, 10);
+        try {
+            Connection leaked = leakyPool.getConnection();
+            long deadline = System.currentTimeMillis() + 5_000;  // the housekeeper runs once a second
+            while (leakyPool.getStats().leaks() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, leakyPool.getStats().leaks());
+            leaked.close();
+        } finally {
+            leakyPool.shutdown();
+        }
+    }
+
+    @Test
+    void refusesCheckoutsAfterShutdown() {
+        pool.shutdown();
+        assertThrows(SQLException.class, pool::getConnection);
+    }
+
+    private ConnectionPool pool(int size, long checkoutTimeoutMillis) {
+        String url = "jdbc:sqlite:" + folder.resolve("pool.db");
+        return new ConnectionPool(url, new Properties(), size, checkoutTimeoutMillis, 60_000, 60_000, 10);
+    }
+
+    private static boolean isWorking(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1")) {
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.financetracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// parses the CSV statements under src/test/resources/com/example/financetracker/statements
+class CsvStatementFormatTest {
+
+    @Test
+    void signedAmountColumnIsFoundFromTheHeader() throws Exception {
+        List<StatementFormat.Transaction> rows = parse("signed-amount.csv");
+
+        assertEquals(4, rows.size());
+        assertEquals(new StatementFormat.Transaction(LocalDate.of(2024, 1, 15), Money.ofPence(-1250),
+                "TESCO STORES 2041", null), rows.get(0));  // the byte order mark didn't hide the Date column
+        assertEquals(Money.ofPence(250000), rows.get(1).amount());
+        assertEquals("SALARY, ACME LTD", rows.get(1).description());
+        assertEquals(Money.ofPence(-2340), rows.get(2).amount());  // brackets mean negative
+        assertEquals("DELIVEROO\nORDER 77", rows.get(2).description());  // quoted line break
+        assertEquals(LocalDate.of(2024, 1, 18), rows.get(3).date());  // another date format in the same file
+        assertEquals(Money.ofPence(499), rows.get(3).amount());
+    }
+
+    @Test
+    void paidOutAndPaidInColumnsGiveSignedAmounts() throws Exception {
+        List<StatementFormat.Transaction> rows = parse("paid-out-paid-in.csv", 3);
+
+        assertEquals(new StatementFormat.Transaction(LocalDate.of(2024, 2, 1), Money.ofPence(-280),
+                "TFL TRAVEL CHARGE", "Transport"), rows.get(0));
+        assertEquals(Money.ofPence(12), rows.get(1).amount());  // paid in stays positive
+        assertNull(rows.get(1).category());
+        assertEquals(Money.ofPence(-125000), rows.get(2).amount());
+    }
+
+    @Test
+    void rowWithNeitherAmountIsRejected() throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(fixture("paid-out-paid-in.csv"), StandardCharsets.UTF_8)) {
+            CsvStatementFormat format = new CsvStatementFormat(reader);
+            String record = null;
+            for (int i = 0; i < 4; i++) {
+                record = format.nextRecord(reader);
+            }
+            String badRow = record;
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> format.parse(badRow));
+            assertEquals("missing amount", e.getMessage());
+        }
+    }
+
+    @Test
+    void headerWithoutAnAmountColumnIsRefused() {
+        assertThrows(IOException.class, () -> new CsvStatementFormat(reader("Date,Description,Balance\n")));
+        assertThrows(IOException.class, () -> new CsvStatementFormat(reader("Description,Amount\n")));
+        assertThrows(IOException.class, () -> new CsvStatementFormat(reader("")));
+    }
+
+    @Test
+    void tabsAreDetectedFromTheHeader() throws Exception {
+        BufferedReader reader = reader("Posted Date\tMerchant\tDebit\tCredit\n2024-03-01\tCosta, Soho\t3.40\t\n");
+        CsvStatementFormat format = new CsvStatementFormat(reader);
+
+        StatementFormat.Transaction row = format.parse(format.nextRecord(reader));
+        assertEquals("Costa, Soho", row.description());
+        assertEquals(Money.ofPence(-340), row.amount());
+        assertNull(format.nextRecord(reader));
+    }
+
+    static Path fixture(String name) throws Exception {
+        return Path.of(CsvStatementFormatTest.class.getResource("statements/" + name).toURI());
+    }
+
+    private static List<StatementFormat.Transaction> parse(String name) throws Exception {
+        return parse(name, Integer.MAX_VALUE);
+    }
+
+    // the first limit records of a fixture
+    private static List<StatementFormat.Transaction> parse(String name, int limit) throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(fixture(name), StandardCharsets.UTF_8)) {
+            CsvStatementFormat format = new CsvStatementFormat(reader);
+            List<StatementFormat.Transaction> rows = new ArrayList<>();
+            String record;
+            while (rows.size() < limit && (record = format.nextRecord(reader)) != null) {
+                rows.add(format.parse(record));
+            }
+            return rows;
+        }
+    }
+
+    private static BufferedReader reader(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+}
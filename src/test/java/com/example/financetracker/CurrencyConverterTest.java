@@ -0,0 +1,168 @@
+package com.example.financetracker;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// fetches rates from a local stub standing in for fixer.io and saves them to the throwaway SQLite database
+// the build points DatabaseManager at (see the surefire settings in pom.xml)
+class CurrencyConverterTest {
+    private static final String RATES = """
+            {"success":true,"timestamp":1700000000,"base":"EUR","date":"2023-11-14",
+             "rates":{"EUR":1,"GBP":0.8431,"USD":1.0712,"JPY":161.56}}""";
+    private static final String MOVED_RATES = """
+            {"success":true,"base":"EUR","rates":{"EUR":1,"GBP":0.8431,"USD":1.0801,"JPY":161.56}}""";
+    private static final String API_FAILURE = """
+            {"success":false,"error":{"code":101,"type":"invalid_access_key"}}""";
+
+    private static HttpServer server;
+
+    @BeforeAll
+    static void startStubApi() throws IOException, SQLException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        respond("/latest", 200, RATES);
+        respond("/moved", 200, MOVED_RATES);
+        respond("/failure", 200, API_FAILURE);
+        respond("/error", 500, "{\"message\":\"internal error\"}");
+        server.start();
+
+        DatabaseSetup.migrate();
+    }
+
+    @AfterAll
+    static void stopStubApi() {
+        server.stop(0);
+    }
+
+    @BeforeEach
+    void clearRates() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM exchange_rates");
+        }
+    }
+
+    @Test
+    void parsesRatesFromTheResponse() throws Exception {
+        Map<String, Double> rates = converter("/latest").fetchRates();
+
+        assertEquals(Map.of("EUR", 1.0, "GBP", 0.8431, "USD", 1.0712, "JPY", 161.56), rates);
+    }
+
+    @Test
+    void errorStatusGivesNoRates() throws Exception {
+        assertNull(converter("/error").fetchRates());
+        assertFalse(converter("/error").updateCurrencyRates());
+        assertTrue(storedRates().isEmpty());  // nothing was written
+    }
+
+    @Test
+    void unsuccessfulResponseGivesNoRates() throws Exception {
+        assertNull(converter("/failure").fetchRates());
+        assertFalse(converter("/failure").updateCurrencyRates());
+    }
+
+    @Test
+    void onlyChangedRatesAreWritten() throws Exception {
+        CurrencyConverter converter = converter("/latest");
+        converter.applyRates(converter.fetchRates());
+        assertEquals(4, storedRates().size());
+
+        // age every row, then apply a response where only USD moved
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE exchange_rates SET last_updated = '2000-01-01 00:00:00'");
+        }
+        CurrencyConverter moved = converter("/moved");
+        moved.applyRates(moved.fetchRates());
+
+        Map<String, String> updated = lastUpdated();
+        assertNotEquals("2000-01-01 00:00:00", updated.get("USD"));
+        assertEquals("2000-01-01 00:00:00", updated.get("EUR"));
+        assertEquals("2000-01-01 00:00:00", updated.get("GBP"));
+        assertEquals("2000-01-01 00:00:00", updated.get("JPY"));
+        assertEquals(1.0801, storedRates().get("USD"), 1e-9);
+
+        // the published snapshot is what conversions use
+        assertEquals(1.0801, moved.rates().rateAt(moved.rates().indexOf("USD")), 1e-9);
+    }
+
+    @Test
+    void slowerLoadDoesNotReplaceANewerSnapshot() throws Exception {
+        CurrencyConverter converter = converter("/latest");
+        converter.applyRates(converter.fetchRates());
+        RateSnapshot started = converter.rates();  // what a slow refresh began from
+
+        RateSnapshot older = snapshot(1.0712, "2023-11-14 09:00:00");
+        RateSnapshot newer = snapshot(1.0801, "2023-11-14 10:00:00");
+        assertSame(newer, CurrencyConverter.publish(started, newer));
+        assertSame(newer, CurrencyConverter.publish(started, older));  // lost the race and is older: dropped
+        assertSame(newer, converter.rates());
+
+        RateSnapshot newest = snapshot(1.0900, "2023-11-14 11:00:00");
+        assertSame(newest, CurrencyConverter.publish(started, newest));  // lost the race but is newer
+        assertSame(newest, converter.rates());
+    }
+
+    private static RateSnapshot snapshot(double usd, String lastUpdated) {
+        return new RateSnapshot(new String[]{"EUR", "USD"}, new double[]{1, usd}, Timestamp.valueOf(lastUpdated));
+    }
+
+    private static CurrencyConverter converter(String path) {
+        return new CurrencyConverter(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path));
+    }
+
+    private static void respond(String path, int status, String body) {
+        server.createContext(path, exchange -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+    }
+
+    private static Map<String, Double> storedRates() throws SQLException {
+        Map<String, Double> rates = new HashMap<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT currency_code, rate_to_base FROM exchange_rates");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                rates.put(rs.getString("currency_code"), rs.getDouble("rate_to_base"));
+            }
+        }
+        return rates;
+    }
+
+    private static Map<String, String> lastUpdated() throws SQLException {
+        Map<String, String> updated = new HashMap<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT currency_code, last_updated FROM exchange_rates");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                updated.put(rs.getString("currency_code"), rs.getString("last_updated"));
+            }
+        }
+        return updated;
+    }
+}
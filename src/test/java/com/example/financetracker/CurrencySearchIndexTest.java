@@ -0,0 +1,61 @@
+package com.example.financetracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencySearchIndexTest {
+    private static final List<String> CODES = List.of("AUD", "BTC", "EUR", "GBP", "JPY", "USD");
+
+    private final CurrencySearchIndex index = new CurrencySearchIndex(CODES);
+
+    @Test
+    void everyQueryWordMustStartAWord() {
+        assertEquals(List.of("USD"), matching("us dol"));
+        assertEquals(List.of("AUD"), matching("a d"));  // Australian Dollar, not both words of one
+        assertEquals(List.of("GBP"), matching("british p"));
+        assertEquals(List.of("GBP"), matching("POUND"));
+        assertEquals(List.of("AUD", "USD"), matching("dollar"));
+        assertEquals(List.of(), matching("us pound"));  // each word matches something, but not the same currency
+    }
+
+    @Test
+    void wordsLongerThanTheIndexedPrefixAreChecked() {
+        assertEquals(List.of("JPY"), matching("japan"));
+        assertEquals(List.of("AUD"), matching("austral"));
+        assertEquals(List.of(), matching("australix"));
+    }
+
+    @Test
+    void onlyWordStartsMatch() {
+        assertEquals(List.of(), matching("ollar"));
+        assertEquals(List.of("EUR"), matching("eu"));
+    }
+
+    @Test
+    void separatorsAreIgnored() {
+        assertEquals(List.of("USD"), matching("  usd - (us)  "));
+        assertEquals(List.of("AUD"), matching("AUD - Australian Dollar"));  // a label as the combo box shows it
+        assertNull(index.matcher(""));
+        assertNull(index.matcher(" ( "));
+        assertNull(index.matcher(null));
+    }
+
+    @Test
+    void labelsResolveBackToCodes() {
+        assertEquals("GBP - British Pound", index.label("GBP"));
+        assertEquals("BTC", index.label("BTC"));  // not ISO 4217, so no display name
+        assertEquals("GBP", index.resolve("GBP - British Pound"));
+        assertEquals("GBP", index.resolve(" gbp "));
+        assertNull(index.resolve("British"));
+    }
+
+    private List<String> matching(String query) {
+        Predicate<String> matcher = index.matcher(query);
+        assertNotNull(matcher);
+        return CODES.stream().filter(matcher).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.financetracker;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// exports a user's expenses from the SQLite test database and reads the file back
+class ExpenseExporterTest {
+    private static final String[] CATEGORIES = {"Food", "Transport", "Bills"};
+    private static final LocalDateTime FIRST = LocalDateTime.of(2020, 1, 1, 8, 0);
+    private static final int ROWS = 65_536 + 100;  // one full row group and part of a second
+
+    private static int bigUser;
+    private static int smallUser;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void createUsers() throws SQLException {
+        DatabaseSetup.migrate();
+        ExpenseRepository expenses = new ExpenseRepository();
+
+        bigUser = createUser("export-big-");
+        List<ExpenseRepository.NewExpense> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new ExpenseRepository.NewExpense(FIRST.plusMinutes(10L * i), Money.ofPence(amount(i)),
+                    CATEGORIES[i % CATEGORIES.length], description(i)));
+        }
+        expenses.insertBatch(bigUser, rows);
+
+        smallUser = createUser("export-small-");
+        expenses.insertBatch(smallUser, List.of(
+                new ExpenseRepository.NewExpense(FIRST, Money.ofPence(1250), "Food", "Tesco, Camden"),
+                new ExpenseRepository.NewExpense(FIRST.plusHours(1), Money.ofPence(5), "Transport", null),
+                new ExpenseRepository.NewExpense(FIRST.plusDays(1), Money.ofPence(9900), "Bills", "Say \"hi\"")));
+    }
+
+    @Test
+    void columnarFileReadsBackEveryRowAcrossRowGroups() throws Exception {
+        Path file = dir.resolve("expenses.ftcx");
+        ExpenseExporter.Result result = new ExpenseExporter().export(bigUser, file, ExpenseExporter.Format.COLUMNAR);
+        assertEquals(ROWS, result.rows());
+
+        ColumnarExpenseFile.Columns columns = ColumnarExpenseFile.read(file);
+        assertEquals(ROWS, columns.size());
+        for (int i = 0; i < ROWS; i++) {
+            LocalDate expected = FIRST.plusMinutes(10L * i).toLocalDate();
+            assertEquals(expected, columns.date(i));
+            assertEquals(CATEGORIES[i % CATEGORIES.length], columns.category(i));
+            assertEquals(amount(i), columns.amountsInPence()[i]);
+        }
+        assertFalse(Files.exists(dir.resolve("expenses.ftcx.part")));
+    }
+
+    @Test
+    void csvKeepsDescriptionsAndLeavesMissingOnesEmpty() throws Exception {
+        Path file = dir.resolve("expenses.csv");
+        new ExpenseExporter().export(smallUser, file, ExpenseExporter.Format.CSV);
+
+        assertEquals(List.of(
+                "Date,Time,Category,Description,Paid out",
+                "2020-01-01,08:00:00,Food,\"Tesco, Camden\",12.50",
+                "2020-01-01,09:00:00,Transport,,0.05",
+                "2020-01-02,08:00:00,Bills,\"Say \"\"hi\"\"\",99.00"), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void jsonLinesWriteMissingDescriptionsAsNull() throws Exception {
+        Path file = dir.resolve("expenses.jsonl");
+        new ExpenseExporter().export(smallUser, file, ExpenseExporter.Format.JSON_LINES);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).endsWith("\"date\":\"2020-01-01T08:00:00\",\"category\":\"Food\","
+                + "\"description\":\"Tesco, Camden\",\"amount\":12.50}"));
+        assertTrue(lines.get(1).endsWith("\"category\":\"Transport\",\"description\":null,\"amount\":0.05}"));
+        assertTrue(lines.get(2).endsWith("\"description\":\"Say \\\"hi\\\"\",\"amount\":99.00}"));
+    }
+
+    private static int createUser(String prefix) throws SQLException {
+        UserRepository users = new UserRepository();
+        String username = prefix + System.nanoTime();
+        assertTrue(users.create(username, "not-a-hash"));
+        return users.findId(username).getAsInt();
+    }
+
+    private static long amount(int row) {
+        return 1 + row % 9_999;
+    }
+
+    // every third row has no description, the others need quoting in CSV
+    private static String description(int row) {
+        return switch (row % 3) {
+            case 0 -> null;
+            case 1 -> "Tesco, Camden";
+            default -> "Say \"hi\"";
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.financetracker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// imports the statement fixtures into the SQLite test database, each test as a new user
+class ExpenseImporterTest {
+    private static final int CHUNK_SIZE = 5_000;  // ExpenseImporter's default
+
+    private final ExpenseImporter importer = new ExpenseImporter(List.of());
+    private int userId;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void createUser() throws SQLException {
+        DatabaseSetup.migrate();
+        UserRepository users = new UserRepository();
+        String username = "import-" + System.nanoTime();
+        assertTrue(users.create(username, "not-a-hash"));
+        userId = users.findId(username).getAsInt();
+    }
+
+    @Test
+    void signedAmountsImportSpendingAndSkipMoneyIn() throws Exception {
+        ExpenseImporter.Result result = importer.importFile(userId,
+                CsvStatementFormatTest.fixture("signed-amount.csv"), progress -> { });
+
+        assertEquals(2, result.imported());
+        assertEquals(2, result.skipped());  // salary and refund
+        assertEquals(0, result.rejected());
+        assertEquals(List.of("2024-01-15 Food 12.50 TESCO STORES 2041", "2024-01-17 Food 23.40 DELIVEROO\nORDER 77"),
+                stored());
+    }
+
+    @Test
+    void paidOutColumnImportsAndBadRowsAreReported() throws Exception {
+        ExpenseImporter.Result result = importer.importFile(userId,
+                CsvStatementFormatTest.fixture("paid-out-paid-in.csv"), progress -> { });
+
+        assertEquals(2, result.imported());
+        assertEquals(1, result.skipped());  // interest paid in
+        assertEquals(1, result.rejected());
+        assertEquals(List.of("record 4: missing amount"), result.errors());
+        // the file's own category, then one picked from the description
+        assertEquals(List.of("2024-02-01 Transport 2.80 TFL TRAVEL CHARGE", "2024-02-03 Rent 1250.00 RENT FEB"),
+                stored());
+    }
+
+    @Test
+    void ofxImportsSpendingOnly() throws Exception {
+        ExpenseImporter.Result result = importer.importFile(userId,
+                CsvStatementFormatTest.fixture("statement-sgml.ofx"), progress -> { });
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.skipped());
+        assertEquals(List.of("2024-01-15 Food 12.50 TESCO STORES CAMDEN"), stored());
+    }
+
+    @Test
+    void rowsEitherSideOfAChunkBoundaryAreCountedOnce() throws Exception {
+        // two full chunks and one row over; the bad rows sit on both sides of the first boundary
+        int rows = 2 * CHUNK_SIZE + 1;
+        StringBuilder csv = new StringBuilder("Date,Description,Amount\n");
+        int expectedImported = 0;
+        int expectedSkipped = 0;
+        long expectedPence = 0;
+        for (int record = 1; record <= rows; record++) {
+            if (record == CHUNK_SIZE) {
+                csv.append("31/02/2024,BAD DATE,-1.00\n");
+            } else if (record == CHUNK_SIZE + 1) {
+                csv.append("01/03/2024,BAD AMOUNT,-1.0x\n");
+            } else if (record % 7 == 0) {
+                csv.append("01/03/2024,REFUND ").append(record).append(",5.00\n");
+                expectedSkipped++;
+            } else {
+                csv.append("01/03/2024,SHOP ").append(record).append(",-").append(record).append(".01\n");
+                expectedImported++;
+                expectedPence += record * 100L + 1;
+            }
+        }
+        Path file = dir.resolve("boundary.csv");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+
+        List<ExpenseImporter.Progress> progress = new ArrayList<>();
+        ExpenseImporter.Result result = importer.importFile(userId, file, progress::add);
+
+        assertEquals(expectedImported, result.imported());
+        assertEquals(expectedSkipped, result.skipped());
+        assertEquals(2, result.rejected());
+        assertEquals(List.of("record 5000: unrecognised date: 31/02/2024", "record 5001: invalid amount: -1.0x"),
+                result.errors());
+
+        assertEquals(3, progress.size());  // one per chunk
+        assertEquals(CHUNK_SIZE, progress.get(0).processed());
+        assertEquals(2 * CHUNK_SIZE, progress.get(1).processed());
+        assertEquals(rows, progress.get(2).processed());
+        assertEquals(1.0, progress.get(2).fraction(), 1e-9);
+
+        long[] stored = new long[2];  // rows, pence
+        new ExpenseRepository().forEach(userId, (id, date, category, description, amountPence) -> {
+            stored[0]++;
+            stored[1] += amountPence;
+        });
+        assertEquals(expectedImported, stored[0]);
+        assertEquals(expectedPence, stored[1]);
+    }
+
+    // "date category amount description" per stored expense, oldest first
+    private List<String> stored() throws Exception {
+        List<String> rows = new ArrayList<>();
+        new ExpenseRepository().forEach(userId, (id, date, category, description, amountPence) ->
+                rows.add(date.toLocalDateTime().toLocalDate() + " " + category + " "
+                        + Money.ofPence(amountPence).toPlainString() + " " + description));
+        return rows;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.financetracker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpenseSearchIndexTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 1, 15, 9, 0);
+
+    private ExpenseSearchIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        // in (date, id) order, as loadStore returns them
+        ExpenseStore store = new ExpenseStore();
+        store.add(1, MONDAY, "Food", "Coffee shop, Camden", 340);
+        store.add(2, MONDAY.plusHours(1), "Food", "Coffee beans", 899);
+        store.add(3, MONDAY.plusHours(2), "Transport", "Cab to the coffee festival", 1500);
+        store.add(4, MONDAY.plusHours(3), "Food", "Cake shop", 250);
+        store.add(5, MONDAY.plusHours(4), "Bills", null, 4000);
+        index = new ExpenseSearchIndex(42, store);
+    }
+
+    @Test
+    void lastWordMatchesAsAPrefix() {
+        assertEquals(List.of(3, 2, 1), ids("cof"));  // newest first
+        assertEquals(List.of(3, 2, 1), ids("COFFEE"));
+        assertEquals(List.of(4, 3, 1), ids("ca"));  // cake, cab, camden
+        assertEquals(List.of(2), ids("coffee b"));
+        assertEquals(List.of(1), ids("shop cam"));
+    }
+
+    @Test
+    void earlierWordsMustMatchWhole() {
+        assertEquals(List.of(), ids("cof beans"));
+        assertEquals(List.of(2), ids("beans cof"));
+        assertEquals(List.of(4, 1), ids("shop"));
+        assertEquals(List.of(), ids("shopping"));
+        assertEquals(List.of(), ids(" , "));
+    }
+
+    @Test
+    void deletedExpensesAreLeftOutOfResults() {
+        index.remove(2);
+        assertEquals(List.of(3, 1), ids("coffee"));
+        assertEquals(List.of(), ids("beans"));
+        assertEquals(4, index.size());
+
+        index.remove(2);   // already gone
+        index.remove(99);  // never indexed
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void limitCountsOnlyLiveMatches() {
+        index.remove(3);
+        List<Expense> results = index.search("coffee", expense -> true, 2);
+
+        assertEquals(List.of(2, 1), results.stream().map(Expense::getId).toList());
+    }
+
+    @Test
+    void addedExpensesAreFoundAndCanBeDeleted() {
+        Expense added = new ExpenseStore().add(6, MONDAY.plusDays(1), "Food", "Iced coffee", 425);
+        index.add(added);
+        index.add(added);  // e.g. also picked up by a load, indexed once
+
+        assertEquals(List.of(6, 3, 2, 1), ids("coffee"));
+        assertEquals(6, index.size());
+
+        index.remove(6);
+        assertEquals(List.of(3, 2, 1), ids("coffee"));
+    }
+
+    @Test
+    void outOfOrderRowsAreStillReturnedNewestFirst() {
+        // an expense dated before the rows already indexed, e.g. from an import
+        index.add(new ExpenseStore().add(7, MONDAY.minusDays(1), "Food", "Coffee grinder", 2999));
+        index.remove(1);
+
+        assertEquals(List.of(3, 2, 7), ids("coffee"));
+        assertEquals(List.of(3, 2), index.search("coffee", expense -> true, 2).stream().map(Expense::getId).toList());
+    }
+
+    @Test
+    void includeFiltersWithoutUsingUpTheLimit() {
+        List<Expense> food = index.search("ca", expense -> expense.getCategory().equals("Food"), 2);
+
+        assertEquals(List.of(4, 1), food.stream().map(Expense::getId).toList());
+    }
+
+    private List<Integer> ids(String query) {
+        return index.search(query, expense -> true, 100).stream().map(Expense::getId).toList();
+    }
+}
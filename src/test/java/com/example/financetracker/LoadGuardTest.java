@@ -0,0 +1,72 @@
+package com.example.financetracker;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the totals load racing an add or delete on the expense screen, against the SQLite test database
+class LoadGuardTest {
+    private static final ExpenseRepository expenses = new ExpenseRepository();
+    private static int userId;
+
+    @BeforeAll
+    static void createUser() throws SQLException {
+        DatabaseSetup.migrate();
+        UserRepository users = new UserRepository();
+        String username = "load-guard-" + System.nanoTime();
+        assertTrue(users.create(username, "not-a-hash"));
+        userId = users.findId(username).getAsInt();
+    }
+
+    @Test
+    void deleteThatRacesTheLoadIsCountedOnce() throws SQLException {
+        Expense lunch = expenses.insert(userId, Money.ofPence(1250), "Food");
+        expenses.insert(userId, Money.ofPence(800), "Food");
+        LoadGuard guard = new LoadGuard();
+
+        int generation = guard.start();
+        // the delete commits before the load reads the totals, so the loaded totals already leave it out
+        expenses.delete(userId, List.of(lunch.getId()));
+        assertTrue(guard.changed());  // a load is in flight: the totals on screen are left alone
+        ExpenseAggregates raced = expenses.loadAggregates(userId, YearMonth.now());
+
+        assertTrue(guard.isCurrent(generation));
+        assertFalse(guard.finish());  // thrown away rather than patched, which would take the 12.50 off twice
+
+        int reload = guard.start();
+        ExpenseAggregates reloaded = expenses.loadAggregates(userId, YearMonth.now());
+        assertTrue(guard.isCurrent(reload));
+        assertTrue(guard.finish());
+        assertEquals(Money.ofPence(800), reloaded.categoryTotals().get("Food"));
+        assertEquals(reloaded.categoryTotals(), raced.categoryTotals());
+    }
+
+    @Test
+    void writeWithNoLoadInFlightIsAppliedDirectly() {
+        LoadGuard guard = new LoadGuard();
+        assertFalse(guard.changed());
+
+        int generation = guard.start();
+        assertTrue(guard.finish());
+        assertTrue(guard.isCurrent(generation));
+        assertFalse(guard.changed());  // finished, so the caller patches its totals
+    }
+
+    @Test
+    void olderLoadIsIgnoredOnceANewerOneStarts() {
+        LoadGuard guard = new LoadGuard();
+        int first = guard.start();
+        int second = guard.start();
+
+        assertFalse(guard.isCurrent(first));
+        guard.fail(first);  // a failed stale load does not end the newer one
+        assertTrue(guard.changed());
+        assertTrue(guard.isCurrent(second));
+        assertFalse(guard.finish());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.financetracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void parsesTypedAmounts() {
+        assertEquals(1200, Money.parse("12", "GBP").minorUnits());
+        assertEquals(1250, Money.parse("12.5", "GBP").minorUnits());
+        assertEquals(-320, Money.parse("-3.20", "GBP").minorUnits());
+        assertEquals(125000, Money.parse(" 1,250.00 ", "GBP").minorUnits());
+        assertEquals(50, Money.parse(".5", "GBP").minorUnits());
+        assertEquals(1234, Money.parse("12.3400", "GBP").minorUnits());  // trailing zeros are allowed
+        assertEquals(1500, Money.parse("1500", "JPY").minorUnits());      // no minor unit
+    }
+
+    @Test
+    void rejectsAmountsThatAreNotExact() {
+        assertThrows(NumberFormatException.class, () -> Money.parse("12.345", "GBP"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("1.5", "JPY"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("", "GBP"));
+        assertThrows(NumberFormatException.class, () -> Money.parse(".", "GBP"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("12a", "GBP"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("1.2.3", "GBP"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("99999999999999999999", "GBP"));
+    }
+
+    @Test
+    void formatsWithSymbolAndGrouping() {
+        assertEquals("£0.05", Money.ofPence(5).format());
+        assertEquals("£1,234.50", Money.ofPence(123450).format());
+        assertEquals("-£1,000,000.00", Money.ofPence(-100000000).format());
+        assertEquals("£999.99", Money.ofPence(99999).format());
+    }
+
+    @Test
+    void plainStringRoundTripsThroughParse() {
+        for (long pence : new long[]{0, 1, -1, 10, 99, 100, 123456789, -98765}) {
+            Money money = Money.ofPence(pence);
+            assertEquals(money, Money.parse(money.toPlainString(), "GBP"));
+        }
+        assertEquals("-0.05", Money.ofPence(-5).toPlainString());
+    }
+
+    @Test
+    void databaseDecimalsRoundHalfEven() {
+        assertEquals(1234, Money.of(new BigDecimal("12.345"), "GBP").minorUnits());
+        assertEquals(1236, Money.of(new BigDecimal("12.355"), "GBP").minorUnits());
+        assertEquals(0, Money.of(null, "GBP").minorUnits());
+    }
+
+    @Test
+    void arithmeticIsExactAndRefusesToOverflow() {
+        assertEquals(Money.ofPence(30), Money.ofPence(10).plus(Money.ofPence(20)));
+        assertEquals(Money.ofPence(-10), Money.ofPence(10).minus(Money.ofPence(20)));
+        assertThrows(ArithmeticException.class, () -> Money.ofPence(Long.MAX_VALUE).plus(Money.ofPence(1)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.financetracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// parses the OFX statements under src/test/resources/com/example/financetracker/statements
+class OfxStatementFormatTest {
+    private final OfxStatementFormat format = new OfxStatementFormat();
+
+    @Test
+    void sgmlBlocksWithoutClosingTags() throws Exception {
+        List<StatementFormat.Transaction> rows = parse("statement-sgml.ofx");
+
+        assertEquals(List.of(
+                new StatementFormat.Transaction(LocalDate.of(2024, 1, 15), Money.ofPence(-1250),
+                        "TESCO STORES CAMDEN", null),
+                new StatementFormat.Transaction(LocalDate.of(2024, 1, 16), Money.ofPence(250000),
+                        "SALARY", null)),  // a MEMO repeating the NAME isn't added twice
+                rows);
+    }
+
+    @Test
+    void xmlBlocksInEitherCase() throws Exception {
+        List<StatementFormat.Transaction> rows = parse("statement-xml.ofx");
+
+        assertEquals(2, rows.size());
+        assertEquals(new StatementFormat.Transaction(LocalDate.of(2024, 2, 1), Money.ofPence(-310),
+                "PRET A MANGER", null), rows.get(0));
+        assertEquals("M&S FOOD", rows.get(1).description());  // only a MEMO, with an entity
+        assertEquals(Money.ofPence(-4000), rows.get(1).amount());
+    }
+
+    @Test
+    void blockWithoutADateIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> format.parse("<TRNAMT>-1.00\n<NAME>X\n"));
+        assertThrows(IllegalArgumentException.class, () -> format.parse("<DTPOSTED>2024011\n<TRNAMT>-1.00\n"));
+        assertThrows(IllegalArgumentException.class, () -> format.parse("<DTPOSTED>20240115\n<NAME>X\n"));
+    }
+
+    @Test
+    void unterminatedLastBlockIsStillRead() throws Exception {
+        BufferedReader reader = new BufferedReader(new StringReader(
+                "<STMTTRN><DTPOSTED>20240301<TRNAMT>-9.99<NAME>NETFLIX\n"));
+
+        assertEquals(Money.ofPence(-999), format.parse(format.nextRecord(reader)).amount());
+        assertNull(format.nextRecord(reader));
+    }
+
+    private List<StatementFormat.Transaction> parse(String name) throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(CsvStatementFormatTest.fixture(name),
+                StandardCharsets.UTF_8)) {
+            List<StatementFormat.Transaction> rows = new ArrayList<>();
+            String record;
+            while ((record = format.nextRecord(reader)) != null) {
+                rows.add(format.parse(record));
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.financetracker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the per-connection statement cache against an in-memory SQLite database
+class StatementCacheTest {
+    private static final String SELECT_ONE = "SELECT 1";
+    private static final String SELECT_TWO = "SELECT 2";
+    private static final String SELECT_THREE = "SELECT 3";
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private Connection physical;
+
+    @BeforeEach
+    void open() throws SQLException {
+        physical = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        physical.close();
+    }
+
+    @Test
+    void closedStatementIsReusedForTheSameSql() throws SQLException {
+        StatementCache cache = new StatementCache(physical, 10, hits, misses);
+        try (PreparedStatement pstmt = cache.prepare(SELECT_ONE)) {
+            assertEquals(1, firstValue(pstmt));
+        }
+        try (PreparedStatement pstmt = cache.prepare(SELECT_ONE)) {
+            assertEquals(1, firstValue(pstmt));
+        }
+
+        assertEquals(1, hits.get());
+        assertEquals(1, misses.get());
+    }
+
+    @Test
+    void sameSqlStillOpenGetsItsOwnStatement() throws SQLException {
+        StatementCache cache = new StatementCache(physical, 10, hits, misses);
+        try (PreparedStatement outer = cache.prepare(SELECT_ONE);
+             PreparedStatement inner = cache.prepare(SELECT_ONE)) {
+            assertNotSame(outer, inner);
+            assertEquals(1, firstValue(inner));
+            assertEquals(1, firstValue(outer));
+        }
+        assertEquals(0, hits.get());
+        assertEquals(2, misses.get());
+
+        // the cached one is free again
+        try (PreparedStatement pstmt = cache.prepare(SELECT_ONE)) {
+            assertEquals(1, firstValue(pstmt));
+        }
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void leastRecentlyUsedStatementIsEvicted() throws SQLException {
+        StatementCache cache = new StatementCache(physical, 2, hits, misses);
+        cache.prepare(SELECT_ONE).close();
+        cache.prepare(SELECT_TWO).close();
+        cache.prepare(SELECT_ONE).close();    // hit, SELECT 2 is now the eldest
+        cache.prepare(SELECT_THREE).close();  // evicts SELECT 2
+
+        cache.prepare(SELECT_ONE).close();
+        assertEquals(2, hits.get());
+        cache.prepare(SELECT_TWO).close();
+        assertEquals(2, hits.get());
+        assertEquals(4, misses.get());
+    }
+
+    @Test
+    void closedHandleCanNotBeUsed() throws SQLException {
+        StatementCache cache = new StatementCache(physical, 10, hits, misses);
+        PreparedStatement pstmt = cache.prepare("SELECT ?");
+        pstmt.setInt(1, 7);
+        pstmt.close();
+
+        assertTrue(pstmt.isClosed());
+        assertThrows(SQLException.class, pstmt::executeQuery);
+    }
+
+    @Test
+    void parametersAreClearedBetweenCallers() throws SQLException {
+        StatementCache cache = new StatementCache(physical, 10, hits, misses);
+        try (PreparedStatement pstmt = cache.prepare("SELECT ?")) {
+            pstmt.setInt(1, 7);
+            assertEquals(7, firstValue(pstmt));
+        }
+        try (PreparedStatement pstmt = cache.prepare("SELECT ?");
+             ResultSet rs = pstmt.executeQuery()) {
+            assertTrue(rs.next());
+            assertNull(rs.getObject(1));  // the 7 from the last caller is gone
+        }
+    }
+
+    @Test
+    void zeroCapacityKeepsNothing() throws SQLException {
+        StatementCache cache = new StatementCache(physical, 0, hits, misses);
+        PreparedStatement first = cache.prepare(SELECT_ONE);
+        first.close();
+        assertTrue(first.isClosed());
+        cache.prepare(SELECT_ONE).close();
+
+        assertEquals(0, hits.get());
+        assertEquals(2, misses.get());
+    }
+
+    @Test
+    void clearClosesEveryCachedStatement() throws SQLException {
+        StatementCache cache = new StatementCache(physical, 10, hits, misses);
+        cache.prepare(SELECT_ONE).close();
+        cache.clear();
+        cache.prepare(SELECT_ONE).close();
+
+        assertEquals(0, hits.get());
+        assertEquals(2, misses.get());
+    }
+
+    private static int firstValue(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            assertTrue(rs.next());
+            return rs.getInt(1);
+        }
+    }
+}
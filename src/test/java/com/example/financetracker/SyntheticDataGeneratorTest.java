@@ -0,0 +1,50 @@
+package com.example.financetracker;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// resuming a generate run against the SQLite test database
+class SyntheticDataGeneratorTest {
+    private final SyntheticDataGenerator generator = new SyntheticDataGenerator(1, 42);
+    private final UserRepository users = new UserRepository();
+    private final BudgetRepository budgets = new BudgetRepository();
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        DatabaseSetup.migrate();
+    }
+
+    @Test
+    void completeUserIsSkipped() throws SQLException {
+        String username = "synth-complete-" + System.nanoTime();
+        int userId = generator.createUser(username, 20, new Random(1));
+
+        assertTrue(userId > 0);
+        assertTrue(budgets.findMonthlyBudget(userId).isPresent());
+        assertEquals(-1, generator.createUser(username, 20, new Random(1)));
+        assertEquals(userId, users.findId(username).getAsInt());
+    }
+
+    @Test
+    void userCutShortBeforeItsBudgetIsGeneratedAgain() throws SQLException {
+        // what an interrupted run leaves behind: the user and some expenses, but no budget yet
+        String username = "synth-partial-" + System.nanoTime();
+        assertTrue(users.create(username, "not-a-hash"));
+        int partial = users.findId(username).getAsInt();
+        new ExpenseRepository().insert(partial, Money.ofPence(999), "Food");
+
+        int userId = generator.createUser(username, 20, new Random(2));
+
+        assertTrue(userId > 0);
+        assertNotEquals(partial, userId);
+        assertEquals(userId, users.findId(username).getAsInt());
+        assertTrue(budgets.findMonthlyBudget(userId).isPresent());
+        assertTrue(new ExpenseRepository().loadAggregates(partial, YearMonth.now()).categoryTotals().isEmpty());
+    }
+}